@@ -0,0 +1,54 @@
+package benchmark.jmh;
+
+import benchmark.CatalogGenerator;
+import persistence.InMemoryPersistence;
+import persistence.ProductCodec;
+import repository.HashProductRepository;
+import service.ProductService;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+public class CatalogFixture {
+    public static final long SEED = 42;
+    
+    private static final Path DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "inventory-jmh");
+    
+    public static Path productsCsv(int size) throws IOException {
+        Path file = DIRECTORY.resolve("products-" + size + ".csv");
+        if (Files.exists(file)) {
+            return file;
+        }
+        Files.createDirectories(DIRECTORY);
+        Path tmp = DIRECTORY.resolve("products-" + size + ".csv.tmp");
+        CatalogGenerator generator = new CatalogGenerator(SEED);
+        ProductCodec codec = new ProductCodec();
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(String.join(",", codec.toFields(generator.product(i))));
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+    
+    public static Path scratchFile(String name) throws IOException {
+        Files.createDirectories(DIRECTORY);
+        return DIRECTORY.resolve(name);
+    }
+    
+    public static ProductService inMemoryService(int size) throws Exception {
+        ProductService service = new ProductService(new HashProductRepository(size), new InMemoryPersistence<>());
+        CatalogGenerator generator = new CatalogGenerator(SEED);
+        for (int i = 0; i < size; i++) {
+            service.addProduct(generator.product(i));
+        }
+        return service;
+    }
+}
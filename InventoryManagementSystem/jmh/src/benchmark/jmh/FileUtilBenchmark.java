@@ -0,0 +1,49 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import util.FileUtil;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileUtilBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+    
+    private String input;
+    private String output;
+    private List<String[]> rows;
+    
+    @Setup
+    public void setUp() throws Exception {
+        input = CatalogFixture.productsCsv(size).toString();
+        output = CatalogFixture.scratchFile("write-" + size + ".csv").toString();
+        rows = FileUtil.readCSV(input);
+    }
+    
+    @Benchmark
+    public List<String[]> readCSV() throws Exception {
+        return FileUtil.readCSV(input);
+    }
+    
+    @Benchmark
+    public void writeCSV() throws Exception {
+        FileUtil.writeCSV(output, rows);
+    }
+}
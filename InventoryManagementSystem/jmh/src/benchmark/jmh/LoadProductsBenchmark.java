@@ -0,0 +1,46 @@
+package benchmark.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.CsvPersistence;
+import persistence.ProductCodec;
+import repository.HashProductRepository;
+import service.ProductService;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class LoadProductsBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+    
+    private String file;
+    
+    @Setup
+    public void setUp() throws Exception {
+        file = CatalogFixture.productsCsv(size).toString();
+    }
+    
+    @Benchmark
+    public long loadProducts() {
+        ProductService service = new ProductService(new HashProductRepository(size),
+            new CsvPersistence<>(file, new ProductCodec()));
+        long count = service.getProductCount();
+        service.close();
+        return count;
+    }
+}
@@ -0,0 +1,96 @@
+package benchmark.jmh;
+
+import benchmark.CatalogGenerator;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.ProductService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class ProductServiceBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+    
+    private ProductService service;
+    private String[] ids;
+    private int next;
+    private int added;
+    private final List<String> addedIds = new ArrayList<>();
+    
+    @Setup
+    public void setUp() throws Exception {
+        service = CatalogFixture.inMemoryService(size);
+        Random random = new Random(7);
+        ids = new String[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = CatalogGenerator.productId(random.nextInt(size));
+        }
+    }
+    
+    @TearDown(Level.Iteration)
+    public void removeAdded() throws Exception {
+        for (String id : addedIds) {
+            service.deleteProduct(id);
+        }
+        addedIds.clear();
+    }
+    
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+    
+    @Benchmark
+    public Product searchProductById() throws Exception {
+        return service.searchProductById(ids[next++ & (ids.length - 1)]);
+    }
+    
+    @Benchmark
+    public List<Product> searchProductsByName() {
+        return service.searchProductsByName("lamp 9");
+    }
+    
+    @Benchmark
+    public List<Product> getLowStockProducts() {
+        return service.getLowStockProducts(10);
+    }
+    
+    @Benchmark
+    public double getTotalInventoryValue() {
+        return service.getTotalInventoryValue();
+    }
+    
+    @Benchmark
+    public Map<String, Long> getCategoryWiseCount() {
+        return service.getCategoryWiseCount();
+    }
+    
+    @Benchmark
+    public void addProduct() throws Exception {
+        String id = "B" + added++;
+        service.addProduct(new Product(id, "Benchmark Item " + id, "Benchmark", 10, 9.99, "S001"));
+        addedIds.add(id);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark.jmh;
+
+import model.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import persistence.InMemoryPersistence;
+import service.SupplierService;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SupplierServiceBenchmark {
+    @Param({"100", "10000"})
+    public int size;
+    
+    private SupplierService service;
+    private String[] ids;
+    private int next;
+    
+    @Setup
+    public void setUp() throws Exception {
+        service = new SupplierService(new InMemoryPersistence<>());
+        for (int i = 1; i <= size; i++) {
+            String id = String.format("S%05d", i);
+            service.addSupplier(new Supplier(id, "Supplier " + i, "Contact " + i,
+                "supplier" + i + "@example.com", "555-" + i));
+        }
+        Random random = new Random(7);
+        ids = new String[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = String.format("S%05d", random.nextInt(size) + 1);
+        }
+    }
+    
+    @Benchmark
+    public Supplier getSupplierById() throws Exception {
+        return service.getSupplierById(ids[next++ & (ids.length - 1)]);
+    }
+    
+    @Benchmark
+    public List<Supplier> getAllSuppliers() {
+        return service.getAllSuppliers();
+    }
+}
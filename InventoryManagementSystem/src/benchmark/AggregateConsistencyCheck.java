@@ -0,0 +1,87 @@
+package benchmark;
+
+import exception.InventoryException;
+import model.Product;
+import persistence.InMemoryPersistence;
+import repository.HashProductRepository;
+import service.ProductService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+public class AggregateConsistencyCheck {
+    
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int operations = 20_000;
+        
+        for (int round = 0; round < rounds; round++) {
+            Random random = new Random(round);
+            CatalogGenerator generator = new CatalogGenerator(round, 8, 5);
+            ProductService service = new ProductService(new HashProductRepository(), new InMemoryPersistence<>());
+            
+            for (int i = 0; i < operations; i++) {
+                String id = CatalogGenerator.productId(random.nextInt(2_000));
+                try {
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            Product product = generator.product(random.nextInt(2_000));
+                            product.setId(id);
+                            service.addProduct(product);
+                            break;
+                        case 1:
+                            Product updated = generator.product(0);
+                            updated.setId(id);
+                            service.updateProduct(id, updated);
+                            break;
+                        case 2:
+                            service.adjustStock(id, random.nextInt(41) - 20);
+                            break;
+                        default:
+                            service.deleteProduct(id);
+                    }
+                } catch (InventoryException expected) {
+                    // duplicates, unknown IDs and negative stock are part of the random mix
+                }
+            }
+            
+            List<Product> products = service.getAllProducts();
+            Map<String, Long> counts = new TreeMap<>(products.stream()
+                .collect(Collectors.groupingBy(Product::getCategory, Collectors.counting())));
+            Map<String, Long> categoryValues = sumBy(products, Product::getCategory);
+            Map<String, Long> supplierValues = sumBy(products, Product::getSupplierId);
+            long total = products.stream().mapToLong(AggregateConsistencyCheck::units).sum();
+            
+            boolean ok = service.getProductCount() == products.size()
+                && Math.round(service.getTotalInventoryValue() * 10_000) == total
+                && counts.equals(service.getCategoryWiseCount())
+                && categoryValues.equals(toUnits(service.getCategoryWiseValue()))
+                && supplierValues.equals(toUnits(service.getSupplierWiseValue()));
+            
+            System.out.printf("round %2d: %5d products, total $%.2f %s%n",
+                round, products.size(), service.getTotalInventoryValue(), ok ? "OK" : "MISMATCH");
+            if (!ok) {
+                System.exit(1);
+            }
+        }
+        System.out.println("? Incremental aggregates match full recomputation");
+    }
+    
+    private static long units(Product product) {
+        return Math.round(product.getQuantity() * product.getPrice() * 10_000);
+    }
+    
+    private static Map<String, Long> sumBy(List<Product> products, java.util.function.Function<Product, String> key) {
+        return new TreeMap<>(products.stream()
+            .collect(Collectors.groupingBy(key, Collectors.summingLong(AggregateConsistencyCheck::units))));
+    }
+    
+    private static Map<String, Long> toUnits(Map<String, Double> values) {
+        Map<String, Long> units = new TreeMap<>();
+        values.forEach((key, value) -> units.put(key, Math.round(value * 10_000)));
+        return units;
+    }
+}
@@ -0,0 +1,45 @@
+package benchmark;
+
+import model.Product;
+import persistence.InMemoryPersistence;
+import repository.ConcurrentProductRepository;
+import service.LowStockEvent;
+import service.LowStockMonitor;
+import service.ProductService;
+import service.StockThresholds;
+
+import java.util.Arrays;
+
+public class AlertLatencyBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int crossings = 10_000;
+        ProductService service = new ProductService(new ConcurrentProductRepository(), new InMemoryPersistence<>());
+        service.addProduct(new Product("P001", "Laptop", "Electronics", 20, 899.99, "S001"));
+        LowStockMonitor monitor = new LowStockMonitor(service, new StockThresholds(10));
+        
+        long[] latencies = new long[crossings];
+        Thread consumer = new Thread(() -> {
+            try {
+                for (int i = 0; i < crossings; i++) {
+                    LowStockEvent event = monitor.takeEvent();
+                    latencies[i] = System.nanoTime() - event.getTimestampNanos();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        consumer.start();
+        
+        for (int i = 0; i < crossings; i++) {
+            service.adjustStock("P001", i % 2 == 0 ? -15 : 15);
+            Thread.sleep(0, 100_000);
+        }
+        consumer.join();
+        
+        Arrays.sort(latencies);
+        System.out.printf("%d threshold crossings: p50 %.1f us, p99 %.1f us, max %.1f us%n", crossings,
+            latencies[crossings / 2] / 1000.0, latencies[crossings * 99 / 100] / 1000.0,
+            latencies[crossings - 1] / 1000.0);
+    }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import model.ImportResult;
+import model.Product;
+import model.Supplier;
+import persistence.CsvPersistence;
+import persistence.InMemoryPersistence;
+import persistence.JournalPersistence;
+import persistence.Persistence;
+import persistence.ProductCodec;
+import repository.HashProductRepository;
+import service.ProductImporter;
+import service.ProductService;
+import service.SupplierService;
+import util.CsvWriter;
+
+import java.io.File;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BulkImportBenchmark {
+    private static final int SUPPLIERS = 50;
+    
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500_000;
+        int loopRows = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        
+        Path dir = Files.createTempDirectory("import-bench");
+        Path input = dir.resolve("catalog.csv");
+        writeCatalog(input, rows);
+        System.out.printf("rows=%d (1%% with an unknown supplier), addProduct loop over the first %d rows%n", rows, loopRows);
+        
+        SupplierService suppliers = new SupplierService(new InMemoryPersistence<>());
+        for (int i = 1; i <= SUPPLIERS; i++) {
+            suppliers.addSupplier(new Supplier(String.format("S%03d", i), "Supplier " + i, "", "", ""));
+        }
+        
+        for (String storage : new String[] {"csv", "journal"}) {
+            ProductService service = newService(dir, storage + "-loop", storage);
+            CatalogGenerator generator = new CatalogGenerator(42, 20, SUPPLIERS);
+            long start = System.nanoTime();
+            for (int i = 0; i < loopRows; i++) {
+                service.addProduct(generator.product(i));
+            }
+            double loopRate = loopRows / ((System.nanoTime() - start) / 1e9);
+            service.close();
+            
+            service = newService(dir, storage + "-import", storage);
+            ImportResult result = new ProductImporter(service, suppliers).importCsv(input, dir.resolve(storage + "-rejects.csv"));
+            service.close();
+            
+            System.out.printf("%-8s addProduct loop: %10.0f rows/s   ProductImporter: %10.0f rows/s (%d imported, %d rejected, %d ms)%n",
+                storage, loopRate, result.getRowsPerSecond(), result.getImported(), result.getRejected(),
+                result.getNanos() / 1_000_000);
+        }
+    }
+    
+    private static void writeCatalog(Path file, int rows) throws Exception {
+        ProductCodec codec = new ProductCodec();
+        CatalogGenerator generator = new CatalogGenerator(42, 20, SUPPLIERS);
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+             CsvWriter writer = new CsvWriter(out)) {
+            for (int i = 0; i < rows; i++) {
+                Product product = generator.product(i);
+                if (i % 100 == 99) {
+                    product.setSupplierId("S999");
+                }
+                codec.write(product, writer);
+            }
+        }
+    }
+    
+    private static ProductService newService(Path dir, String name, String storage) {
+        String file = new File(dir.toFile(), name + ".csv").getPath();
+        Persistence<Product> persistence = storage.equals("journal")
+            ? new JournalPersistence<>(file, new ProductCodec())
+            : new CsvPersistence<>(file, new ProductCodec());
+        return new ProductService(new HashProductRepository(), persistence, "bench." + name);
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class CatalogGenerator {
+    private static final String[] NAMES = {
+        "Laptop", "Office Chair", "Notebook", "Wireless Mouse", "Desk Lamp", "Stapler",
+        "Monitor", "Keyboard", "Filing Cabinet", "Whiteboard", "Printer", "Headset"
+    };
+    
+    private final Random random;
+    private final int categories;
+    private final int suppliers;
+    
+    public CatalogGenerator(long seed, int categories, int suppliers) {
+        this.random = new Random(seed);
+        this.categories = categories;
+        this.suppliers = suppliers;
+    }
+    
+    public CatalogGenerator(long seed) {
+        this(seed, 20, 50);
+    }
+    
+    public static String productId(int index) {
+        return String.format("P%07d", index);
+    }
+    
+    public Product product(int index) {
+        return new Product(
+            productId(index),
+            NAMES[random.nextInt(NAMES.length)] + " " + index,
+            "Category" + random.nextInt(categories),
+            random.nextInt(500),
+            Math.round(random.nextDouble() * 100000) / 100.0,
+            String.format("S%03d", random.nextInt(suppliers) + 1)
+        );
+    }
+    
+    public List<Product> products(int count) {
+        List<Product> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            products.add(product(i));
+        }
+        return products;
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import model.Product;
+import repository.ColumnarProductRepository;
+import repository.HashProductRepository;
+import repository.ProductRepository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ColumnarScanBenchmark {
+    private static final int THRESHOLD = 10;
+    private static final int REPEATS = 5;
+    
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        System.out.printf("%-9s %10s %10s %14s %14s %14s%n",
+            "store", "rows", "heap MB", "low-stock ms", "total ms", "by-cat ms");
+        
+        double columnarTotal = runColumnar(rows);
+        double objectTotal = runObjects(rows);
+        System.out.printf("total value columnar=%.2f objects=%.2f%n", columnarTotal, objectTotal);
+    }
+    
+    private static double runColumnar(int rows) throws InterruptedException {
+        long before = usedHeap();
+        ColumnarProductRepository columnar = new ColumnarProductRepository(rows);
+        fill(columnar, rows);
+        long bytes = usedHeap() - before;
+        report("columnar", rows, bytes,
+            time(() -> columnar.countQuantityBelow(THRESHOLD)),
+            time(() -> (long) columnar.getTotalValue()),
+            time(() -> columnar.getValueByCategory().size()));
+        return columnar.getTotalValue();
+    }
+    
+    private static double runObjects(int rows) throws InterruptedException {
+        long before = usedHeap();
+        HashProductRepository objects = new HashProductRepository(rows);
+        fill(objects, rows);
+        long bytes = usedHeap() - before;
+        report("objects", rows, bytes,
+            time(() -> objects.findAll().stream().filter(p -> p.getQuantity() < THRESHOLD).count()),
+            time(() -> (long) totalValue(objects)),
+            time(() -> valueByCategory(objects).size()));
+        return totalValue(objects);
+    }
+    
+    private static void fill(ProductRepository repository, int rows) {
+        CatalogGenerator generator = new CatalogGenerator(42);
+        for (int i = 0; i < rows; i++) {
+            repository.add(generator.product(i));
+        }
+    }
+    
+    private static double totalValue(ProductRepository repository) {
+        double total = 0;
+        for (Product product : repository.findAll()) {
+            total += product.getQuantity() * product.getPrice();
+        }
+        return total;
+    }
+    
+    private static Map<String, Double> valueByCategory(ProductRepository repository) {
+        Map<String, Double> totals = new HashMap<>();
+        for (Product product : repository.findAll()) {
+            totals.merge(product.getCategory(), product.getQuantity() * product.getPrice(), Double::sum);
+        }
+        return totals;
+    }
+    
+    private static double time(Scan scan) {
+        long sink = scan.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < REPEATS; i++) {
+            sink += scan.run();
+        }
+        double millis = (System.nanoTime() - start) / 1e6 / REPEATS;
+        return sink == Long.MIN_VALUE ? -1 : millis;
+    }
+    
+    private static void report(String label, int rows, long bytes, double lowStock, double total, double byCategory) {
+        System.out.printf("%-9s %10d %10d %14.1f %14.1f %14.1f%n",
+            label, rows, bytes / (1024 * 1024), lowStock, total, byCategory);
+    }
+    
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+    
+    private interface Scan {
+        long run();
+    }
+}
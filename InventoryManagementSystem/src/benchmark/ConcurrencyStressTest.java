@@ -0,0 +1,141 @@
+package benchmark;
+
+import exception.InvalidProductException;
+import exception.InventoryException;
+import model.Product;
+import persistence.InMemoryPersistence;
+import repository.ColumnarProductRepository;
+import repository.ConcurrentProductRepository;
+import repository.HashProductRepository;
+import repository.ProductRepository;
+import service.ProductService;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConcurrencyStressTest {
+    private static final int PRODUCTS = 1_000;
+    private static final int FIXED = 16;
+    private static final int READERS = 4;
+    private static final int OPERATIONS = 200_000;
+    private static final int INITIAL_QUANTITY = 50;
+    
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        
+        boolean passed = run("concurrent", new ConcurrentProductRepository(), threads);
+        passed &= run("hash", new HashProductRepository(), threads);
+        passed &= run("columnar", new ColumnarProductRepository(), threads);
+        if (!passed) {
+            System.out.println("? FAILED: lost updates, negative stock or inconsistent snapshot");
+            System.exit(1);
+        }
+        System.out.println("? PASSED");
+    }
+    
+    private static boolean run(String label, ProductRepository repository, int threads) throws Exception {
+        ProductService service = new ProductService(repository, new InMemoryPersistence<>());
+        for (int i = 0; i < PRODUCTS; i++) {
+            service.addProduct(new Product(CatalogGenerator.productId(i), "Item " + i, "Category" + (i % 10),
+                INITIAL_QUANTITY, 1.0, "S001"));
+        }
+        for (int i = 0; i < FIXED; i++) {
+            service.addProduct(new Product(fixedId(i), "Fixed " + i, "Fixed", 1, 1.0, "S001"));
+        }
+        
+        AtomicLong applied = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicBoolean snapshotBroken = new AtomicBoolean();
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch finished = new CountDownLatch(threads);
+        
+        Thread[] readers = new Thread[READERS];
+        for (int r = 0; r < READERS; r++) {
+            boolean snapshots = r == 0;
+            long seed = -1 - r;
+            readers[r] = new Thread(() -> {
+                Random random = new Random(seed);
+                while (!done.get()) {
+                    if (snapshots) {
+                        List<Product> snapshot = service.getAllProducts();
+                        long stable = snapshot.stream().filter(p -> !p.getId().startsWith("T")).count();
+                        if (stable != PRODUCTS + FIXED || snapshot.stream().anyMatch(p -> p.getQuantity() < 0
+                                || (p.getId().startsWith("F") && p.getQuantity() != p.getPrice()))) {
+                            snapshotBroken.set(true);
+                        }
+                    }
+                    try {
+                        Product fixed = service.searchProductById(fixedId(random.nextInt(FIXED)));
+                        if (fixed.getQuantity() != fixed.getPrice() || fixed.getName() == null) {
+                            snapshotBroken.set(true);
+                        }
+                    } catch (InventoryException e) {
+                        snapshotBroken.set(true);
+                    }
+                }
+            });
+            readers[r].start();
+        }
+        
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            String churnPrefix = "T" + t + "-";
+            new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < OPERATIONS / threads; i++) {
+                    int kind = random.nextInt(10);
+                    try {
+                        if (kind < 6) {
+                            String id = CatalogGenerator.productId(random.nextInt(PRODUCTS));
+                            int delta = random.nextInt(11) - 5;
+                            try {
+                                service.adjustStock(id, delta);
+                                applied.addAndGet(delta);
+                            } catch (InvalidProductException e) {
+                                rejected.incrementAndGet();
+                            }
+                        } else if (kind < 8) {
+                            String id = fixedId(random.nextInt(FIXED));
+                            Product product = service.searchProductById(id);
+                            product.setName("Fixed " + id + " v" + i);
+                            int value = 1 + random.nextInt(100);
+                            product.setQuantity(value);
+                            product.setPrice(value);
+                            service.updateProduct(id, product);
+                        } else {
+                            String id = churnPrefix + i;
+                            service.addProduct(new Product(id, "Churn " + i, "Churn", 1, 1.0, "S001"));
+                            service.deleteProduct(id);
+                        }
+                    } catch (InventoryException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                finished.countDown();
+            }).start();
+        }
+        
+        finished.await();
+        done.set(true);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+        
+        List<Product> all = service.getAllProducts();
+        long expected = (long) PRODUCTS * INITIAL_QUANTITY + applied.get();
+        long actual = all.stream().filter(p -> p.getId().startsWith("P")).mapToLong(Product::getQuantity).sum();
+        boolean negative = all.stream().anyMatch(p -> p.getQuantity() < 0);
+        boolean sized = all.size() == PRODUCTS + FIXED;
+        
+        System.out.printf("%-10s threads=%d rejected=%d expected=%d actual=%d size=%d%n",
+            label, threads, rejected.get(), expected, actual, all.size());
+        return expected == actual && !negative && sized && !snapshotBroken.get();
+    }
+    
+    private static String fixedId(int index) {
+        return String.format("F%04d", index);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmark;
+
+import exception.InventoryException;
+import persistence.InMemoryPersistence;
+import repository.ConcurrentProductRepository;
+import service.ProductService;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ConcurrentThroughputBenchmark {
+    private static final int PRODUCTS = 100_000;
+    private static final long DURATION_MILLIS = 2_000;
+    
+    public static void main(String[] args) throws Exception {
+        ProductService service = new ProductService(new ConcurrentProductRepository(PRODUCTS), new InMemoryPersistence<>());
+        CatalogGenerator generator = new CatalogGenerator(42);
+        for (int i = 0; i < PRODUCTS; i++) {
+            service.addProduct(generator.product(i));
+        }
+        
+        System.out.printf("%8s %16s %16s%n", "threads", "adjust ops/s", "lookup ops/s");
+        for (int threads = 1; threads <= 64; threads *= 2) {
+            run(service, threads);
+        }
+    }
+    
+    private static void run(ProductService service, int threads) throws InterruptedException {
+        LongAdder adjustments = new LongAdder();
+        LongAdder lookups = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(threads);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.currentTimeMillis() < deadline) {
+                    String id = CatalogGenerator.productId(random.nextInt(PRODUCTS));
+                    try {
+                        if (random.nextInt(10) < 8) {
+                            service.adjustStock(id, random.nextBoolean() ? 1 : -1);
+                            adjustments.increment();
+                        } else {
+                            service.searchProductById(id);
+                            lookups.increment();
+                        }
+                    } catch (InventoryException e) {
+                        adjustments.increment();
+                    }
+                }
+                finished.countDown();
+            }).start();
+        }
+        finished.await();
+        
+        double seconds = DURATION_MILLIS / 1000.0;
+        System.out.printf("%8d %16.0f %16.0f%n", threads, adjustments.sum() / seconds, lookups.sum() / seconds);
+    }
+}
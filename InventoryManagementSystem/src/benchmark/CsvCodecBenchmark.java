@@ -0,0 +1,96 @@
+package benchmark;
+
+import model.Product;
+import persistence.ProductCodec;
+import util.CsvLoadResult;
+import util.CsvWriter;
+import util.FileUtil;
+import util.ParallelCsvReader;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvCodecBenchmark {
+    private static final int ROUNDS = 5;
+    
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        ProductCodec codec = new ProductCodec();
+        CatalogGenerator generator = new CatalogGenerator(42);
+        List<Product> plain = new ArrayList<>(size);
+        List<Product> quoted = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Product product = generator.product(i);
+            plain.add(product);
+            Product copy = new Product(product);
+            if (i % 10 == 0) {
+                copy.setName("Desk, \"Oak\" " + i);
+            }
+            quoted.add(copy);
+        }
+        
+        File joinFile = File.createTempFile("codec-join", ".csv");
+        File codecFile = File.createTempFile("codec-writer", ".csv");
+        File quotedFile = File.createTempFile("codec-quoted", ".csv");
+        joinFile.deleteOnExit();
+        codecFile.deleteOnExit();
+        quotedFile.deleteOnExit();
+        FileUtil.writeCSV(quotedFile.getPath(), quoted, codec::write, 0);
+        
+        long join = Long.MAX_VALUE;
+        long writer = Long.MAX_VALUE;
+        long plainRead = Long.MAX_VALUE;
+        long quotedRead = Long.MAX_VALUE;
+        int plainCount = 0;
+        int quotedCount = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            writeJoined(joinFile, plain, codec);
+            join = Math.min(join, System.nanoTime() - start);
+            
+            start = System.nanoTime();
+            writeCodec(codecFile, plain, codec);
+            writer = Math.min(writer, System.nanoTime() - start);
+            
+            start = System.nanoTime();
+            CsvLoadResult<Product> result = ParallelCsvReader.read(codecFile.toPath(), codec::fromRecord);
+            plainRead = Math.min(plainRead, System.nanoTime() - start);
+            plainCount = result.getRecords().size();
+            
+            start = System.nanoTime();
+            result = ParallelCsvReader.read(quotedFile.toPath(), codec::fromRecord);
+            quotedRead = Math.min(quotedRead, System.nanoTime() - start);
+            quotedCount = result.getRecords().size();
+        }
+        
+        System.out.printf("products=%d, best of %d rounds%n", size, ROUNDS);
+        System.out.printf("%-34s %8d ms%n", "write: toFields + String.join", join / 1_000_000);
+        System.out.printf("%-34s %8d ms%n", "write: CsvWriter", writer / 1_000_000);
+        System.out.printf("%-34s %8d ms (%d records)%n", "read: unquoted", plainRead / 1_000_000, plainCount);
+        System.out.printf("%-34s %8d ms (%d records)%n", "read: 10% quoted names", quotedRead / 1_000_000, quotedCount);
+    }
+    
+    private static void writeJoined(File file, List<Product> products, ProductCodec codec) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            for (Product product : products) {
+                writer.write(String.join(",", codec.toFields(product)));
+                writer.newLine();
+            }
+        }
+    }
+    
+    private static void writeCodec(File file, List<Product> products, ProductCodec codec) throws IOException {
+        try (CsvWriter writer = new CsvWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            for (Product product : products) {
+                codec.write(product, writer);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import model.Product;
+import persistence.ProductCodec;
+import util.FileUtil;
+import util.ReadStats;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CsvReadBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        File file = File.createTempFile("products-bench", ".csv");
+        file.deleteOnExit();
+        
+        ProductCodec codec = new ProductCodec();
+        CatalogGenerator generator = new CatalogGenerator(42);
+        List<String[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(codec.toFields(generator.product(i)));
+        }
+        FileUtil.writeCSV(file.getPath(), rows);
+        rows = null;
+        
+        for (int round = 1; round <= 3; round++) {
+            long start = System.nanoTime();
+            int legacy = readLegacy(file);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("round %d  split+list : %s%n", round, new ReadStats(file.length(), legacy, nanos));
+            
+            long[] quantity = new long[1];
+            ReadStats mapped = FileUtil.streamCSV(file.getPath(), record -> {
+                Product product = codec.fromRecord(record);
+                quantity[0] += product.getQuantity();
+            });
+            System.out.printf("round %d  mapped     : %s%n", round, mapped);
+        }
+    }
+    
+    private static int readLegacy(File file) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                records.add(line.split(","));
+            }
+        }
+        
+        List<Product> products = new ArrayList<>(records.size());
+        for (String[] record : records) {
+            products.add(new Product(record[0], record[1], record[2],
+                Integer.parseInt(record[3]), Double.parseDouble(record[4]), record[5]));
+        }
+        return products.size();
+    }
+}
@@ -0,0 +1,141 @@
+package benchmark;
+
+import metrics.MetricsRegistry;
+import model.Product;
+import repository.DiskProductRepository;
+import repository.HashProductRepository;
+import util.BoundedCache;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class DiskCatalogBenchmark {
+    private static final long CACHE_BYTES = 32L * 1024 * 1024;
+    private static final int LOOKUPS = 500_000;
+    private static final int UPDATES = 200_000;
+    private static final int HASH_LIMIT = 2_000_000;
+    
+    public static void main(String[] args) throws Exception {
+        int[] sizes = {1_000_000, 4_000_000, 10_000_000};
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        
+        System.out.printf("%-10s %-12s %12s %12s %10s %12s %12s%n",
+            "products", "store", "live heap MB", "load/s", "hit rate", "get ns/op", "update ns/op");
+        for (int size : sizes) {
+            if (size <= HASH_LIMIT) {
+                runHash(size);
+            }
+            runDisk(size);
+        }
+    }
+    
+    private static void runHash(int size) {
+        long start = System.nanoTime();
+        HashProductRepository repository = new HashProductRepository(size);
+        CatalogGenerator generator = new CatalogGenerator(42);
+        for (int i = 0; i < size; i++) {
+            repository.add(generator.product(i));
+        }
+        double loadRate = size / ((System.nanoTime() - start) / 1e9);
+        long heap = usedHeap();
+        System.out.printf("%-10d %-12s %12.1f %12.0f %10s %12s %12s%n", size, "hash", heap / 1e6, loadRate, "-", "-", "-");
+        if (repository.size() != size) {
+            throw new IllegalStateException("Lost products");
+        }
+    }
+    
+    private static void runDisk(int size) throws Exception {
+        Path dir = Files.createTempDirectory("disk-catalog");
+        Path base = dir.resolve("products");
+        long start = System.nanoTime();
+        DiskProductRepository repository = new DiskProductRepository(base, CACHE_BYTES, BoundedCache.Policy.LRU, "bench");
+        CatalogGenerator generator = new CatalogGenerator(42);
+        for (int i = 0; i < size; i++) {
+            repository.add(generator.product(i));
+        }
+        repository.flush();
+        double loadRate = size / ((System.nanoTime() - start) / 1e9);
+        repository.getCache().clear();
+        long heap = usedHeap();
+        System.out.printf("%-10d %-12s %12.1f %12.0f %10s %12s %12s   (%.1f bytes/product on disk)%n", size, "disk",
+            heap / 1e6, loadRate, "-", "-", "-", repository.getDataSize() / (double) size);
+        repository.close();
+        
+        for (BoundedCache.Policy policy : BoundedCache.Policy.values()) {
+            repository = new DiskProductRepository(base, CACHE_BYTES, policy, "bench");
+            String[] ids = skewedIds(size, LOOKUPS, 7);
+            for (String id : skewedIds(size, LOOKUPS, 3)) {
+                repository.findById(id);
+            }
+            BoundedCache<String, Product> cache = repository.getCache();
+            long hitsBefore = cacheHits();
+            start = System.nanoTime();
+            long sink = 0;
+            for (String id : ids) {
+                sink += repository.findById(id).getQuantity();
+            }
+            long getNanos = System.nanoTime() - start;
+            double hitRate = (cacheHits() - hitsBefore) / (double) LOOKUPS;
+            
+            String[] updateIds = skewedIds(size, UPDATES, 11);
+            start = System.nanoTime();
+            for (String id : updateIds) {
+                Product product = repository.findById(id);
+                product.setQuantity(product.getQuantity() + 1);
+                repository.update(product);
+            }
+            long updateNanos = System.nanoTime() - start;
+            ids = null;
+            updateIds = null;
+            heap = usedHeap();
+            System.out.printf("%-10d %-12s %12.1f %12s %9.1f%% %12d %12d   (cache %,d entries, %.1f MB)%s%n", size,
+                "disk/" + policy.name().toLowerCase().replace("_", ""), heap / 1e6, "-", hitRate * 100,
+                getNanos / LOOKUPS, updateNanos / UPDATES, cache.size(), cache.getWeight() / 1e6, sink == 0 ? " " : "");
+            repository.close();
+        }
+        deleteAll(dir);
+    }
+    
+    private static long cacheHits() {
+        return MetricsRegistry.getDefault().counter("bench.cache.hits").get();
+    }
+    
+    private static String[] skewedIds(int size, int count, long seed) {
+        Random random = new Random(seed);
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            long rank = (long) (size * Math.pow(random.nextDouble(), 6));
+            ids[i] = CatalogGenerator.productId((int) ((rank * 0x9E3779B1L) % size));
+        }
+        return ids;
+    }
+    
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+    
+    private static void deleteAll(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,117 @@
+package benchmark;
+
+import model.Product;
+import persistence.InMemoryPersistence;
+import repository.HashProductRepository;
+import server.InventoryHttpServer;
+import service.ProductService;
+import service.SupplierService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class HttpLoadTest {
+    private static final int PRODUCTS = 100_000;
+    
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        String baseUrl = args.length > 2 ? args[2] : null;
+        
+        InventoryHttpServer server = null;
+        ProductService productService = null;
+        if (baseUrl == null) {
+            InventoryHttpServer.useTcpNoDelay();
+            productService = new ProductService(new HashProductRepository(PRODUCTS), new InMemoryPersistence<>());
+            List<Product> catalog = new CatalogGenerator(42).products(PRODUCTS);
+            for (Product product : catalog) {
+                productService.addProduct(product);
+            }
+            server = new InventoryHttpServer(productService, new SupplierService(new InMemoryPersistence<>()),
+                0, InventoryHttpServer.DEFAULT_MAX_PENDING);
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+            System.out.println("Embedded server on " + baseUrl
+                + (server.usesVirtualThreads() ? " (virtual threads)" : " (thread pool)"));
+        }
+        
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong failures = new AtomicLong();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        Thread[] threads = new Thread[clients];
+        String target = baseUrl;
+        
+        for (int t = 0; t < clients; t++) {
+            int worker = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(worker);
+                long[] samples = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    String id = CatalogGenerator.productId(random.nextInt(PRODUCTS));
+                    HttpRequest request = random.nextInt(10) == 0
+                        ? HttpRequest.newBuilder(URI.create(target + "/products/" + id + "/stock"))
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"delta\":1}")).build()
+                        : HttpRequest.newBuilder(URI.create(target + "/products/" + id)).GET().build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() >= 300) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    }
+                    if (count == samples.length) {
+                        samples = Arrays.copyOf(samples, count * 2);
+                    }
+                    samples[count++] = System.nanoTime() - start;
+                }
+                latencies[worker] = samples;
+                counts[worker] = count;
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (int t = 0; t < clients; t++) {
+            System.arraycopy(latencies[t], 0, all, offset, counts[t]);
+            offset += counts[t];
+        }
+        Arrays.sort(all);
+        
+        System.out.printf("%-8s %10s %12s %10s %10s %10s%n", "clients", "requests", "req/s", "p50 us", "p99 us", "errors");
+        System.out.printf("%-8d %10d %12.0f %10d %10d %10d%n", clients, total, total / (double) seconds,
+            percentile(all, 0.50) / 1000, percentile(all, 0.99) / 1000, failures.get());
+        
+        if (server != null) {
+            server.stop();
+            productService.close();
+        }
+    }
+    
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+}
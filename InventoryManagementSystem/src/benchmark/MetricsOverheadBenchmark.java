@@ -0,0 +1,64 @@
+package benchmark;
+
+import metrics.MetricsRegistry;
+import model.Product;
+import persistence.InMemoryPersistence;
+import repository.HashProductRepository;
+import service.ProductService;
+
+import java.util.List;
+import java.util.Random;
+
+public class MetricsOverheadBenchmark {
+    private static final int PRODUCTS = 100_000;
+    private static final int OPERATIONS = 2_000_000;
+    private static final int ROUNDS = 6;
+    
+    public static void main(String[] args) throws Exception {
+        List<Product> catalog = new CatalogGenerator(42).products(PRODUCTS);
+        ProductService service = new ProductService(new HashProductRepository(PRODUCTS), new InMemoryPersistence<>());
+        for (Product product : catalog) {
+            service.addProduct(product);
+        }
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        
+        long[] totals = new long[2];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int mode = 0; mode < 2; mode++) {
+                registry.setEnabled(mode == 1);
+                long nanos = run(service, new Random(round));
+                if (round > 0) {
+                    totals[mode] += nanos;
+                }
+            }
+        }
+        registry.setEnabled(true);
+        
+        long measured = (long) OPERATIONS * (ROUNDS - 1);
+        double disabled = (double) totals[0] / measured;
+        double enabled = (double) totals[1] / measured;
+        System.out.printf("%-20s %14s%n", "metrics", "ns/op");
+        System.out.printf("%-20s %14.1f%n", "disabled", disabled);
+        System.out.printf("%-20s %14.1f%n", "enabled", enabled);
+        System.out.printf("overhead: %.1f%%%n", (enabled - disabled) * 100 / disabled);
+        registry.flatten().forEach((name, value) -> {
+            if (name.startsWith("product.searchById.") || name.startsWith("product.adjustStock.")) {
+                System.out.println(name + " " + value);
+            }
+        });
+        service.close();
+    }
+    
+    private static long run(ProductService service, Random random) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            String id = CatalogGenerator.productId(random.nextInt(PRODUCTS));
+            if ((i & 3) == 0) {
+                service.adjustStock(id, 1);
+            } else {
+                service.searchProductById(id);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,102 @@
+package benchmark;
+
+import model.Product;
+import persistence.InMemoryPersistence;
+import repository.HashProductRepository;
+import service.ProductService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+public class NameSearchBenchmark {
+    private static final int PRODUCTS = 1_000_000;
+    private static final int QUERIES = 50;
+    private static final int SCAN_QUERIES = 10;
+    private static final String[] QUERIES_POOL = {
+        "lap", "chair", "mouse 12", "desk lamp 9", "9999", "head", "key", "77", "o", "printer 5"
+    };
+    
+    public static void main(String[] args) throws Exception {
+        List<Product> catalog = new CatalogGenerator(42).products(PRODUCTS);
+        ProductService service = new ProductService(new HashProductRepository(PRODUCTS), new InMemoryPersistence<>());
+        long start = System.nanoTime();
+        for (Product product : catalog) {
+            service.addProduct(product);
+        }
+        System.out.printf("loaded %d products with name index in %d ms%n",
+            PRODUCTS, (System.nanoTime() - start) / 1_000_000);
+        
+        for (String query : QUERIES_POOL) {
+            List<String> expected = scan(catalog, query).stream()
+                .map(Product::getId).sorted().collect(Collectors.toList());
+            List<String> actual = service.searchProductsByName(query).stream()
+                .map(Product::getId).collect(Collectors.toList());
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("Index mismatch for query '" + query + "'");
+            }
+        }
+        
+        System.out.printf("%-14s %10s %12s %12s %12s %12s%n",
+            "query", "matches", "scan us", "index us", "top-10 us", "prefix us");
+        for (String query : QUERIES_POOL) {
+            int matches = scan(catalog, query).size();
+            long queryStart = System.nanoTime();
+            for (int i = 0; i < SCAN_QUERIES; i++) {
+                scan(catalog, query);
+            }
+            long scanNanos = (System.nanoTime() - queryStart) / SCAN_QUERIES;
+            System.out.printf("%-14s %10d %12d %12d %12d %12d%n", "'" + query + "'", matches, scanNanos / 1000,
+                time(() -> service.searchProductsByName(query).size()) / 1000,
+                time(() -> service.searchProductsByName(query, 10).size()) / 1000,
+                time(() -> service.searchProductsByNamePrefix(query, 10).size()) / 1000);
+        }
+        
+        Random random = new Random(7);
+        List<Product> renamed = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            Product product = new Product(catalog.get(random.nextInt(PRODUCTS)));
+            product.setName("Renamed " + i);
+            renamed.add(product);
+        }
+        start = System.nanoTime();
+        for (Product product : renamed) {
+            service.updateProduct(product.getId(), product);
+        }
+        long renameNanos = (System.nanoTime() - start) / renamed.size();
+        
+        List<Product> current = service.getAllProducts();
+        for (String query : new String[] {"renamed 1", "lap", "desk lamp 9"}) {
+            List<String> expected = scan(current, query).stream()
+                .map(Product::getId).sorted().collect(Collectors.toList());
+            List<String> actual = service.searchProductsByName(query).stream()
+                .map(Product::getId).collect(Collectors.toList());
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("Index mismatch after renames for query '" + query + "'");
+            }
+        }
+        
+        System.out.printf("rename (index update): %d us/op%n", renameNanos / 1000);
+        System.out.println("Top 5 for 'desk': " + service.searchProductsByName("desk", 5).stream()
+            .map(Product::getName).collect(Collectors.toList()));
+        service.close();
+    }
+    
+    private static long time(IntSupplier query) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            sink += query.getAsInt();
+        }
+        long nanos = (System.nanoTime() - start) / QUERIES;
+        return sink < 0 ? -1 : nanos;
+    }
+    
+    private static List<Product> scan(List<Product> catalog, String name) {
+        return catalog.stream()
+            .filter(p -> p.getName().toLowerCase().contains(name.toLowerCase()))
+            .collect(Collectors.toList());
+    }
+}
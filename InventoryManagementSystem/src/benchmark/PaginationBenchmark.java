@@ -0,0 +1,83 @@
+package benchmark;
+
+import model.Product;
+import model.ProductPage;
+import model.ProductSort;
+import persistence.InMemoryPersistence;
+import repository.HashProductRepository;
+import service.ProductService;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+public class PaginationBenchmark {
+    private static final int PRODUCTS = 1_000_000;
+    private static final int PAGE_SIZE = 50;
+    private static final int PAGES = 1_000;
+    
+    public static void main(String[] args) throws Exception {
+        ProductService service = new ProductService(new HashProductRepository(PRODUCTS), new InMemoryPersistence<>());
+        for (Product product : new CatalogGenerator(42).products(PRODUCTS)) {
+            service.addProduct(product);
+        }
+        
+        long start = System.nanoTime();
+        long allocated = allocatedBytes();
+        List<Product> all = service.getAllProducts();
+        System.out.printf("getAllProducts: %d products, %.1f ms, %d MB allocated%n", all.size(),
+            (System.nanoTime() - start) / 1e6, (allocatedBytes() - allocated) / (1024 * 1024));
+        all = null;
+        
+        System.out.printf("%-9s %12s %14s %16s %12s%n", "sort", "index ms", "page us", "bytes/page", "walk s");
+        for (ProductSort sort : ProductSort.values()) {
+            start = System.nanoTime();
+            ProductPage page = service.getProducts(sort, false, null, PAGE_SIZE);
+            long indexMillis = (System.nanoTime() - start) / 1_000_000;
+            
+            for (int i = 0; i < PRODUCTS / PAGE_SIZE / 2; i++) {
+                page = service.getProducts(sort, false, page.getNextCursor(), PAGE_SIZE);
+            }
+            start = System.nanoTime();
+            allocated = allocatedBytes();
+            for (int i = 0; i < PAGES; i++) {
+                page = service.getProducts(sort, false, page.getNextCursor(), PAGE_SIZE);
+            }
+            long pageNanos = (System.nanoTime() - start) / PAGES;
+            long pageBytes = (allocatedBytes() - allocated) / PAGES;
+            
+            start = System.nanoTime();
+            long count = verifyWalk(service, sort);
+            if (count != PRODUCTS) {
+                throw new IllegalStateException(sort + " walk returned " + count + " products");
+            }
+            System.out.printf("%-9s %12d %14d %16d %12.1f%n", sort, indexMillis, pageNanos / 1000, pageBytes,
+                (System.nanoTime() - start) / 1e9);
+        }
+        service.close();
+    }
+    
+    private static long verifyWalk(ProductService service, ProductSort sort) {
+        long count = 0;
+        double previous = Double.NEGATIVE_INFINITY;
+        String cursor = null;
+        do {
+            ProductPage page = service.getProducts(sort, false, cursor, 1_000);
+            for (Product product : page.getProducts()) {
+                double key = sort == ProductSort.QUANTITY ? product.getQuantity()
+                    : sort == ProductSort.VALUE ? product.getQuantity() * product.getPrice() : 0;
+                if (key < previous) {
+                    throw new IllegalStateException(sort + " out of order at " + product.getId());
+                }
+                previous = key;
+                count++;
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return count;
+    }
+    
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+            .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
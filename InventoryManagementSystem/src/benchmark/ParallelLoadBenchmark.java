@@ -0,0 +1,47 @@
+package benchmark;
+
+import model.Product;
+import persistence.ProductCodec;
+import util.CsvLoadResult;
+import util.FileUtil;
+import util.ParallelCsvReader;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelLoadBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        File file = File.createTempFile("products-bench", ".csv");
+        file.deleteOnExit();
+        
+        ProductCodec codec = new ProductCodec();
+        CatalogGenerator generator = new CatalogGenerator(42);
+        List<String[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(codec.toFields(generator.product(i)));
+        }
+        FileUtil.writeCSV(file.getPath(), rows);
+        rows = null;
+        
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d products, %.1f MB, %d cores%n", size, file.length() / (1024.0 * 1024.0), cores);
+        
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            long best = Long.MAX_VALUE;
+            CsvLoadResult<Product> result = null;
+            for (int round = 0; round < 3; round++) {
+                long start = System.nanoTime();
+                result = ParallelCsvReader.read(file.toPath(), codec::fromRecord, pool);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            pool.shutdown();
+            System.out.printf("threads %2d: %6d ms  %d records, %d errors%n",
+                threads, best / 1_000_000, result.getRecords().size(), result.getErrors().size());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package benchmark;
+
+import model.Product;
+import repository.HashProductRepository;
+import repository.ListProductRepository;
+import repository.ProductRepository;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class ProductRepositoryBenchmark {
+    private static final int[] SIZES = {10_000, 100_000, 1_000_000};
+    private static final int OPERATIONS = 1_000;
+    
+    public static void main(String[] args) {
+        System.out.printf("%-8s %10s %14s %14s %14s %14s%n",
+            "store", "products", "get ns/op", "insert ns/op", "update ns/op", "delete ns/op");
+        
+        for (int size : SIZES) {
+            List<Product> catalog = new CatalogGenerator(42).products(size + OPERATIONS);
+            run("list", size, catalog, ListProductRepository::new);
+            run("hash", size, catalog, () -> new HashProductRepository(size));
+        }
+    }
+    
+    private static void run(String label, int size, List<Product> catalog, Supplier<ProductRepository> factory) {
+        ProductRepository repository = factory.get();
+        for (int i = 0; i < size; i++) {
+            repository.add(catalog.get(i));
+        }
+        
+        Random random = new Random(7);
+        String[] ids = new String[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            ids[i] = CatalogGenerator.productId(random.nextInt(size));
+        }
+        
+        long sink = 0;
+        long start = System.nanoTime();
+        for (String id : ids) {
+            sink += repository.findById(id).getQuantity();
+        }
+        long getNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            Product product = catalog.get(size + i);
+            if (!repository.contains(product.getId())) {
+                repository.add(product);
+            }
+        }
+        long insertNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        for (String id : ids) {
+            Product product = repository.findById(id);
+            product.setQuantity(product.getQuantity() + 1);
+            repository.update(product);
+        }
+        long updateNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            if (repository.remove(catalog.get(size + i).getId()) != null) {
+                sink++;
+            }
+        }
+        long deleteNanos = System.nanoTime() - start;
+        
+        System.out.printf("%-8s %10d %14d %14d %14d %14d%s%n", label, size,
+            getNanos / OPERATIONS, insertNanos / OPERATIONS,
+            updateNanos / OPERATIONS, deleteNanos / OPERATIONS,
+            sink == 0 ? " " : "");
+    }
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import model.Product;
+import persistence.InMemoryPersistence;
+import repository.HashProductRepository;
+import service.ProductService;
+import service.SecondaryIndexes;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class SecondaryIndexBenchmark {
+    private static final int PRODUCTS = 1_000_000;
+    private static final int CATEGORIES = 10_000;
+    private static final int SUPPLIERS = 1_000;
+    private static final int QUERIES = 1_000;
+    private static final int SCAN_QUERIES = 20;
+    
+    public static void main(String[] args) throws Exception {
+        List<Product> catalog = new CatalogGenerator(42, CATEGORIES, SUPPLIERS).products(PRODUCTS);
+        
+        long before = usedHeap();
+        SecondaryIndexes indexes = new SecondaryIndexes();
+        for (Product product : catalog) {
+            indexes.productChanged(null, product);
+        }
+        long indexBytes = usedHeap() - before;
+        System.out.printf("index: %d categories, %d suppliers, ~%d MB heap (%d bytes/product)%n",
+            indexes.getCategoryCount(), indexes.getSupplierCount(),
+            indexBytes / (1024 * 1024), indexBytes / PRODUCTS);
+        indexes = null;
+        
+        ProductService service = new ProductService(new HashProductRepository(PRODUCTS), new InMemoryPersistence<>());
+        for (Product product : catalog) {
+            service.addProduct(product);
+        }
+        
+        Random random = new Random(7);
+        long hits = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < SCAN_QUERIES; i++) {
+            String category = "category" + random.nextInt(CATEGORIES);
+            hits += catalog.stream()
+                .filter(p -> p.getCategory().equalsIgnoreCase(category))
+                .collect(Collectors.toList()).size();
+        }
+        long scanNanos = (System.nanoTime() - start) / SCAN_QUERIES;
+        
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            hits += service.searchProductsByCategory("category" + random.nextInt(CATEGORIES)).size();
+        }
+        long categoryNanos = (System.nanoTime() - start) / QUERIES;
+        
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            hits += service.searchProductsBySupplier(String.format("S%03d", random.nextInt(SUPPLIERS) + 1)).size();
+        }
+        long supplierNanos = (System.nanoTime() - start) / QUERIES;
+        
+        System.out.printf("%-20s %14s%n", "query", "us/op");
+        System.out.printf("%-20s %14d%n", "category scan", scanNanos / 1000);
+        System.out.printf("%-20s %14d%n", "category index", categoryNanos / 1000);
+        System.out.printf("%-20s %14d%n", "supplier index", supplierNanos / 1000);
+        System.out.println(hits == 0 ? "no matches" : "matches: " + hits);
+        service.close();
+    }
+    
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import model.Product;
+import persistence.ProductBinaryFormat;
+import persistence.ProductCodec;
+import util.FileUtil;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SnapshotBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Product> products = new CatalogGenerator(42).products(size);
+        ProductCodec codec = new ProductCodec();
+        ProductBinaryFormat format = new ProductBinaryFormat();
+        
+        File csv = File.createTempFile("products-bench", ".csv");
+        File bin = File.createTempFile("products-bench", ".bin");
+        csv.deleteOnExit();
+        bin.deleteOnExit();
+        
+        for (int round = 1; round <= 3; round++) {
+            long start = System.nanoTime();
+            List<String[]> rows = new ArrayList<>(products.size());
+            for (Product product : products) {
+                rows.add(codec.toFields(product));
+            }
+            FileUtil.writeCSV(csv.getPath(), rows);
+            long csvSave = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            int csvLoaded = FileUtil.loadCSV(csv.getPath(), codec::fromRecord).getRecords().size();
+            long csvLoad = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            format.write(bin.toPath(), products);
+            long binSave = System.nanoTime() - start;
+            
+            start = System.nanoTime();
+            int binLoaded = format.read(bin.toPath()).size();
+            long binLoad = System.nanoTime() - start;
+            
+            System.out.printf("round %d  csv: save %5d ms, load %5d ms, %6.1f MB (%d)   binary: save %5d ms, load %5d ms, %6.1f MB (%d)%n",
+                round, csvSave / 1_000_000, csvLoad / 1_000_000, csv.length() / (1024.0 * 1024.0), csvLoaded,
+                binSave / 1_000_000, binLoad / 1_000_000, bin.length() / (1024.0 * 1024.0), binLoaded);
+        }
+    }
+}
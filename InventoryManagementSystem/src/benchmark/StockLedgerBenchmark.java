@@ -0,0 +1,100 @@
+package benchmark;
+
+import model.LedgerEntry;
+import model.Product;
+import service.LedgerRetention;
+import service.StockLedger;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+public class StockLedgerBenchmark {
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final int QUERIES = 2_000;
+    
+    public static void main(String[] args) throws Exception {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int movements = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int days = args.length > 2 ? Integer.parseInt(args[2]) : 730;
+        Path dir = Files.createTempDirectory("stock-ledger");
+        LedgerRetention retention = new LedgerRetention(LedgerRetention.DEFAULT_RAW_DAYS, 365);
+        StockLedger ledger = new StockLedger(dir, retention, StockLedger.DEFAULT_SEGMENT_SIZE, false);
+        
+        CatalogGenerator generator = new CatalogGenerator(42);
+        Product[] catalog = new Product[products];
+        int[] quantities = new int[products];
+        for (int i = 0; i < products; i++) {
+            catalog[i] = generator.product(i);
+        }
+        
+        Random random = new Random(42);
+        long end = System.currentTimeMillis();
+        long begin = end - days * DAY_MILLIS;
+        long step = (end - begin) / movements;
+        long csvBytes = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < movements; i++) {
+            int index = random.nextInt(products);
+            int delta = random.nextInt(40) - 19;
+            quantities[index] = Math.max(0, quantities[index] + (delta == 0 ? 1 : delta));
+            long timestamp = begin + i * step;
+            ledger.record(timestamp, catalog[index].getId(), catalog[index].getCategory(), quantities[index]);
+            csvBytes += Long.toString(timestamp).length() + catalog[index].getId().length()
+                + catalog[index].getCategory().length() + 12;
+        }
+        long appendNanos = System.nanoTime() - start;
+        ledger.sealPending();
+        long entries = ledger.getEntryCount();
+        
+        System.out.printf("products=%d movements=%d over %d days%n", products, entries, days);
+        System.out.printf("%-34s %10.0f entries/s%n", "append", entries / (appendNanos / 1e9));
+        System.out.printf("%-34s %10.1f bytes/entry (CSV text ~%.1f)%n", "raw segments",
+            ledger.getSizeBytes() / (double) entries, csvBytes / (double) movements);
+        
+        long quantityNanos = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            ledger.quantityAt(catalog[random.nextInt(products)].getId(), begin + (long) (random.nextDouble() * (end - begin)));
+        }
+        for (int i = 0; i < QUERIES; i++) {
+            String id = catalog[random.nextInt(products)].getId();
+            long at = begin + (long) (random.nextDouble() * (end - begin));
+            start = System.nanoTime();
+            ledger.quantityAt(id, at);
+            quantityNanos += System.nanoTime() - start;
+        }
+        System.out.printf("%-34s %10.1f us%n", "quantityAt (random product, time)", quantityNanos / 1e3 / QUERIES);
+        
+        String category = catalog[0].getCategory();
+        start = System.nanoTime();
+        List<LedgerEntry> all = ledger.getCategoryMovements(category, Long.MIN_VALUE, Long.MAX_VALUE);
+        System.out.printf("%-34s %10.2f ms (%d movements)%n", "category, full ledger scan",
+            (System.nanoTime() - start) / 1e6, all.size());
+        long windowNanos = 0;
+        int windowEntries = 0;
+        for (int i = 0; i < 200; i++) {
+            long from = begin + (long) (random.nextDouble() * (end - begin - DAY_MILLIS));
+            start = System.nanoTime();
+            windowEntries += ledger.getCategoryMovements(category, from, from + DAY_MILLIS).size();
+            windowNanos += System.nanoTime() - start;
+        }
+        System.out.printf("%-34s %10.2f ms (%d movements)%n", "category, one day window", windowNanos / 1e6 / 200,
+            windowEntries / 200);
+        
+        long bytesBefore = ledger.getSizeBytes();
+        long segmentsBefore = ledger.getSegmentCount();
+        start = System.nanoTime();
+        ledger.maintain(end);
+        System.out.printf("%-34s %10.0f ms%n", "rollup (raw 90d, daily 365d)", (System.nanoTime() - start) / 1e6);
+        System.out.printf("%-34s %,d -> %,d bytes, %d -> %d segments, %s%n", "after retention",
+            bytesBefore, ledger.getSizeBytes(), segmentsBefore, ledger.getSegmentCount(),
+            ledger.getEntryCountByGranularity());
+        
+        ledger.close();
+        start = System.nanoTime();
+        ledger = new StockLedger(dir, retention, StockLedger.DEFAULT_SEGMENT_SIZE, false);
+        System.out.printf("%-34s %10.0f ms%n", "reopen", (System.nanoTime() - start) / 1e6);
+        ledger.close();
+    }
+}
@@ -0,0 +1,71 @@
+package benchmark;
+
+import model.Product;
+import model.StockMovement;
+import model.StockMovementResult;
+import persistence.CsvPersistence;
+import persistence.JournalPersistence;
+import persistence.Persistence;
+import persistence.ProductCodec;
+import repository.HashProductRepository;
+import service.ProductService;
+import util.FileUtil;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class StockMovementBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int catalog = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int movements = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+        
+        System.out.printf("catalog=%d movements=%d%n", catalog, movements);
+        run("csv", catalog, movements, false);
+        run("journal", catalog, movements, true);
+    }
+    
+    private static void run(String label, int catalog, int count, boolean journal) throws Exception {
+        File dir = Files.createTempDirectory("movement-bench").toFile();
+        String file = new File(dir, "products.csv").getPath();
+        ProductCodec codec = new ProductCodec();
+        CatalogGenerator generator = new CatalogGenerator(42);
+        List<String[]> rows = new ArrayList<>(catalog);
+        for (int i = 0; i < catalog; i++) {
+            rows.add(codec.toFields(generator.product(i)));
+        }
+        FileUtil.writeCSV(file, rows);
+        
+        Persistence<Product> persistence = journal
+            ? new JournalPersistence<>(file, codec)
+            : new CsvPersistence<>(file, codec);
+        ProductService service = new ProductService(new HashProductRepository(catalog), persistence);
+        
+        Random random = new Random(7);
+        List<StockMovement> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            batch.add(new StockMovement(CatalogGenerator.productId(random.nextInt(catalog)), random.nextInt(21) - 5));
+        }
+        
+        long start = System.nanoTime();
+        for (StockMovement movement : batch) {
+            Product current = service.searchProductById(movement.getProductId());
+            int quantity = Math.max(0, current.getQuantity() + movement.getDelta());
+            service.updateProduct(current.getId(), new Product(current.getId(), current.getName(),
+                current.getCategory(), quantity, current.getPrice(), current.getSupplierId()));
+        }
+        long loopNanos = System.nanoTime() - start;
+        
+        start = System.nanoTime();
+        List<StockMovementResult> results = service.applyMovements(batch);
+        long batchNanos = System.nanoTime() - start;
+        long applied = results.stream().filter(StockMovementResult::isApplied).count();
+        
+        System.out.printf("%-8s updateProduct loop: %8.0f movements/s   applyMovements: %10.0f movements/s (%d applied)%n",
+            label, count / (loopNanos / 1e9), count / (batchNanos / 1e9), applied);
+        service.close();
+    }
+}
@@ -0,0 +1,96 @@
+package benchmark;
+
+import exception.InvalidProductException;
+import exception.ProductNotFoundException;
+import exception.SupplierInUseException;
+import model.Product;
+import model.Supplier;
+import persistence.InMemoryPersistence;
+import repository.ConcurrentProductRepository;
+import service.ProductService;
+import service.SupplierService;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SupplierReferenceStressTest {
+    
+    public static void main(String[] args) throws Exception {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int writers = 4;
+        
+        SupplierService suppliers = new SupplierService(new InMemoryPersistence<>());
+        ProductService service = new ProductService(new ConcurrentProductRepository(), new InMemoryPersistence<>());
+        service.setSupplierService(suppliers);
+        suppliers.addSupplier(new Supplier("BASE", "Base", "Contact", "base@example.com", "000"));
+        
+        AtomicInteger orphans = new AtomicInteger();
+        AtomicInteger deleted = new AtomicInteger();
+        AtomicInteger inUse = new AtomicInteger();
+        for (int round = 0; round < rounds; round++) {
+            String supplierId = "S" + round;
+            boolean cascade = round % 2 == 1;
+            suppliers.addSupplier(new Supplier(supplierId, "Supplier " + round, "Contact", "s@example.com", "000"));
+            for (int w = 1; w < writers; w += 2) {
+                service.addProduct(new Product("P" + round + "-" + w, "Moving", "Category", 1, 1.0, "BASE"));
+            }
+            CyclicBarrier start = new CyclicBarrier(writers + 1);
+            
+            Thread[] threads = new Thread[writers + 1];
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                String productId = "P" + round + "-" + w;
+                threads[w] = new Thread(() -> {
+                    try {
+                        start.await();
+                        if (writer % 2 == 0) {
+                            service.addProduct(new Product(productId, "Item", "Category", 1, 1.0, supplierId));
+                        } else {
+                            Product moved = service.searchProductById(productId);
+                            moved.setSupplierId(supplierId);
+                            service.updateProduct(moved.getId(), moved);
+                        }
+                    } catch (InvalidProductException | ProductNotFoundException e) {
+                        // supplier already gone, or the product was removed by a cascade
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                });
+            }
+            threads[writers] = new Thread(() -> {
+                try {
+                    start.await();
+                    suppliers.deleteSupplier(supplierId, cascade);
+                    deleted.incrementAndGet();
+                } catch (SupplierInUseException e) {
+                    inUse.incrementAndGet();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            
+            boolean supplierExists = suppliers.hasSupplier(supplierId);
+            int referencing = service.searchProductsBySupplier(supplierId).size();
+            if (!supplierExists && referencing > 0) {
+                orphans.incrementAndGet();
+            }
+            if (supplierExists) {
+                service.deleteProductsBySupplier(supplierId);
+                suppliers.deleteSupplier(supplierId, false);
+            }
+        }
+        
+        System.out.printf("rounds=%d deleted=%d inUse=%d orphaned=%d%n", rounds, deleted.get(), inUse.get(), orphans.get());
+        if (orphans.get() > 0) {
+            System.out.println("? FAILED: products committed against a deleted supplier");
+            System.exit(1);
+        }
+        System.out.println("? PASSED");
+    }
+}
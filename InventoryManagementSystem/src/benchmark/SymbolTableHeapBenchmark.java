@@ -0,0 +1,65 @@
+package benchmark;
+
+import model.Product;
+import persistence.ProductCodec;
+import repository.HashProductRepository;
+import util.FileUtil;
+import util.SymbolTable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+public class SymbolTableHeapBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        File file = File.createTempFile("products-heap", ".csv");
+        file.deleteOnExit();
+        CatalogGenerator generator = new CatalogGenerator(42);
+        ProductCodec codec = new ProductCodec();
+        try (BufferedWriter writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < size; i++) {
+                writer.write(String.join(",", codec.toFields(generator.product(i))));
+                writer.newLine();
+            }
+        }
+        
+        System.out.printf("%-12s %10s %10s %12s%n", "strings", "products", "heap MB", "bytes/product");
+        load("per-record", file, size, UnaryOperator.identity());
+        SymbolTable categories = new SymbolTable();
+        SymbolTable suppliers = new SymbolTable();
+        load("canonical", file, size, product -> {
+            product.setCategory(categories.canonical(product.getCategory()));
+            product.setSupplierId(suppliers.canonical(product.getSupplierId()));
+            return product;
+        });
+        System.out.printf("%d categories, %d suppliers%n", categories.size(), suppliers.size());
+        file.delete();
+    }
+    
+    private static void load(String label, File file, int size, UnaryOperator<Product> canonicalize) throws Exception {
+        ProductCodec codec = new ProductCodec();
+        long before = usedHeap();
+        HashProductRepository repository = new HashProductRepository(size);
+        List<Product> loaded = FileUtil.loadCSV(file.getPath(), codec::fromRecord).getRecords();
+        for (Product product : loaded) {
+            repository.add(canonicalize.apply(product));
+        }
+        loaded = null;
+        long bytes = usedHeap() - before;
+        System.out.printf("%-12s %10d %10d %12d%n", label, repository.size(), bytes / (1024 * 1024), bytes / size);
+    }
+    
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,95 @@
+package benchmark;
+
+import exception.InventoryException;
+import model.Product;
+import persistence.CsvPersistence;
+import persistence.InMemoryPersistence;
+import persistence.Persistence;
+import persistence.ProductCodec;
+import repository.HashProductRepository;
+import service.ProductService;
+import service.WarehouseInventory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WarehouseShardBenchmark {
+    private static final long DURATION_MILLIS = 2_000;
+    
+    public static void main(String[] args) throws Exception {
+        int products = args.length > 0 ? Integer.parseInt(args[0]) : 80_000;
+        int csvProducts = args.length > 1 ? Integer.parseInt(args[1]) : 8_000;
+        System.out.println("cores=" + Runtime.getRuntime().availableProcessors()
+            + ", one writer thread per shard, catalog split evenly across shards");
+        System.out.printf("%-8s %7s %16s %16s %14s%n", "storage", "shards", "adjust ops/s", "per shard ops/s", "report us");
+        for (int shards = 1; shards <= 8; shards *= 2) {
+            run("memory", products, shards);
+        }
+        for (int shards = 1; shards <= 8; shards *= 2) {
+            run("csv", csvProducts, shards);
+        }
+    }
+    
+    private static void run(String storage, int products, int shards) throws Exception {
+        File dir = Files.createTempDirectory("warehouse-shards").toFile();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            names.add("w" + i);
+        }
+        WarehouseInventory inventory = new WarehouseInventory(names, name -> new ProductService(
+            new HashProductRepository(), persistence(storage, new File(dir, name + ".csv")),
+            WarehouseInventory.metricsPrefix(name)));
+        
+        CatalogGenerator generator = new CatalogGenerator(42);
+        int perShard = products / shards;
+        for (int i = 0; i < perShard * shards; i++) {
+            Product product = generator.product(i);
+            product.setQuantity(1_000_000);
+            inventory.warehouse(names.get(i % shards)).addProduct(product);
+        }
+        
+        LongAdder operations = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(shards);
+        long deadline = System.currentTimeMillis() + DURATION_MILLIS;
+        for (int t = 0; t < shards; t++) {
+            int shard = t;
+            ProductService service = inventory.warehouse(names.get(shard));
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.currentTimeMillis() < deadline) {
+                    String id = CatalogGenerator.productId(random.nextInt(perShard) * shards + shard);
+                    try {
+                        service.adjustStock(id, random.nextBoolean() ? 1 : -1);
+                    } catch (InventoryException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    operations.increment();
+                }
+                finished.countDown();
+            }).start();
+        }
+        finished.await();
+        
+        long start = System.nanoTime();
+        inventory.getTotalInventoryValue();
+        inventory.getCategoryWiseCount();
+        inventory.getLowStockProducts(10);
+        long reportNanos = System.nanoTime() - start;
+        inventory.close();
+        
+        double perSecond = operations.sum() / (DURATION_MILLIS / 1000.0);
+        System.out.printf("%-8s %7d %16.0f %16.0f %14.0f%n", storage, shards, perSecond, perSecond / shards,
+            reportNanos / 1000.0);
+    }
+    
+    private static Persistence<Product> persistence(String storage, File file) {
+        return storage.equals("csv")
+            ? new CsvPersistence<>(file.getPath(), new ProductCodec())
+            : new InMemoryPersistence<>();
+    }
+}
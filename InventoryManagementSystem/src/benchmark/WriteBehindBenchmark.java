@@ -0,0 +1,91 @@
+package benchmark;
+
+import exception.InventoryException;
+import model.Product;
+import persistence.CsvPersistence;
+import persistence.Durability;
+import persistence.JournalPersistence;
+import persistence.Persistence;
+import persistence.ProductCodec;
+import persistence.WriteBehindPersistence;
+import repository.ConcurrentProductRepository;
+import service.ProductService;
+import util.FileUtil;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+public class WriteBehindBenchmark {
+    
+    public static void main(String[] args) throws Exception {
+        int catalog = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) * 1000 : 3_000;
+        
+        System.out.printf("catalog=%d threads=%d%n", catalog, threads);
+        System.out.printf("%-8s %-6s %14s %12s %10s%n", "storage", "mode", "mutations/s", "drain ms", "reloaded");
+        for (String storage : new String[] {"csv", "journal"}) {
+            for (Durability durability : Durability.values()) {
+                run(storage, durability, catalog, threads, millis);
+            }
+        }
+    }
+    
+    private static void run(String storage, Durability durability, int catalog, int threads, long millis) throws Exception {
+        File dir = Files.createTempDirectory("write-behind-bench").toFile();
+        String file = new File(dir, "products.csv").getPath();
+        ProductCodec codec = new ProductCodec();
+        CatalogGenerator generator = new CatalogGenerator(42);
+        List<String[]> rows = new ArrayList<>(catalog);
+        long initialTotal = 0;
+        for (int i = 0; i < catalog; i++) {
+            Product product = generator.product(i);
+            initialTotal += product.getQuantity();
+            rows.add(codec.toFields(product));
+        }
+        FileUtil.writeCSV(file, rows);
+        
+        ProductService service = new ProductService(new ConcurrentProductRepository(catalog),
+            new WriteBehindPersistence<>(open(storage, file, codec), codec, durability));
+        
+        LongAdder mutations = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(threads);
+        long deadline = System.currentTimeMillis() + millis;
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    while (System.currentTimeMillis() < deadline) {
+                        service.adjustStock(CatalogGenerator.productId(random.nextInt(catalog)), 1);
+                        mutations.increment();
+                    }
+                } catch (InventoryException e) {
+                    System.out.println("mutation failed: " + e.getMessage());
+                }
+                finished.countDown();
+            }).start();
+        }
+        finished.await();
+        
+        long start = System.nanoTime();
+        service.close();
+        long drainNanos = System.nanoTime() - start;
+        
+        ProductService reloaded = new ProductService(new ConcurrentProductRepository(catalog), open(storage, file, codec));
+        long total = reloaded.getAllProducts().stream().mapToLong(Product::getQuantity).sum();
+        reloaded.close();
+        
+        System.out.printf("%-8s %-6s %14.0f %12.1f %10s%n", storage, durability.name().toLowerCase(),
+            mutations.sum() / (millis / 1000.0), drainNanos / 1e6,
+            total == initialTotal + mutations.sum() ? "ok" : "MISMATCH");
+    }
+    
+    private static Persistence<Product> open(String storage, String file, ProductCodec codec) {
+        return storage.equals("journal") ? new JournalPersistence<>(file, codec) : new CsvPersistence<>(file, codec);
+    }
+}
@@ -0,0 +1,7 @@
+package exception;
+
+public class SupplierInUseException extends InventoryException {
+    public SupplierInUseException(String message) {
+        super("Supplier In Use: " + message);
+    }
+}
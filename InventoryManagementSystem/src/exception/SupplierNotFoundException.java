@@ -0,0 +1,7 @@
+package exception;
+
+public class SupplierNotFoundException extends InventoryException {
+    public SupplierNotFoundException(String message) {
+        super("Supplier Not Found: " + message);
+    }
+}
@@ -1,29 +1,178 @@
 package main;
 
+import metrics.MetricsRegistry;
+import model.ImportResult;
 import model.Product;
+import model.ProductPage;
+import model.ProductSort;
 import model.Supplier;
+import persistence.BinaryPersistence;
+import persistence.BinarySnapshotFormat;
+import persistence.CsvPersistence;
+import persistence.Durability;
+import persistence.JournalPersistence;
+import persistence.Persistence;
+import persistence.ProductBinaryFormat;
+import persistence.ProductCodec;
+import persistence.RecordCodec;
+import persistence.SupplierBinaryFormat;
+import persistence.SupplierCodec;
+import persistence.WriteBehindPersistence;
+import repository.ColumnarProductRepository;
+import repository.ConcurrentProductRepository;
+import repository.DiskProductRepository;
+import repository.HashProductRepository;
+import repository.ProductRepository;
+import server.InventoryHttpServer;
+import server.MetricsEndpoint;
+import service.ProductImporter;
 import service.ProductService;
 import service.SupplierService;
+import service.LedgerRetention;
+import service.StockLedger;
+import service.WarehouseInventory;
 import service.InventoryAlertThread;
+import service.LowStockMonitor;
+import service.StockThresholds;
+import util.BoundedCache;
+import util.FileUtil;
 import exception.*;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
 public class InventoryManagementSystem {
+    private static final int PAGE_SIZE = 50;
+    
     private ProductService productService;
     private SupplierService supplierService;
+    private WarehouseInventory warehouseInventory;
+    private StockLedger stockLedger;
+    private LowStockMonitor lowStockMonitor;
     private InventoryAlertThread alertThread;
     private Scanner scanner;
+    private MetricsEndpoint metricsEndpoint;
     
     public InventoryManagementSystem() {
-        this.productService = new ProductService();
-        this.supplierService = new SupplierService();
+        String storage = System.getProperty("inventory.storage", "csv");
+        this.productService = createProductService(storage, ProductService.PRODUCTS_FILE, "product");
+        List<String> warehouses = WarehouseInventory.parseNames(System.getProperty("inventory.warehouses", ""));
+        if (!warehouses.isEmpty()) {
+            this.warehouseInventory = new WarehouseInventory(warehouses, warehouse -> createProductService(storage,
+                WarehouseInventory.productsFile(warehouse), WarehouseInventory.metricsPrefix(warehouse)));
+        }
+        if (Boolean.getBoolean("inventory.ledger")) {
+            try {
+                this.stockLedger = new StockLedger(Paths.get(StockLedger.LEDGER_DIR), new LedgerRetention(
+                    Integer.getInteger("inventory.ledger.rawDays", LedgerRetention.DEFAULT_RAW_DAYS),
+                    Integer.getInteger("inventory.ledger.dailyDays", LedgerRetention.DEFAULT_DAILY_DAYS)));
+                productService.addChangeListener(stockLedger);
+            } catch (IOException e) {
+                System.out.println("Warning: Could not open stock ledger: " + e.getMessage());
+            }
+        }
+        this.supplierService = new SupplierService(
+            createPersistence(storage, SupplierService.SUPPLIERS_FILE, new SupplierCodec(), new SupplierBinaryFormat()));
+        productService.setSupplierService(supplierService);
+        if (warehouseInventory != null) {
+            for (String warehouse : warehouseInventory.getWarehouses()) {
+                warehouseInventory.warehouse(warehouse).setSupplierService(supplierService);
+            }
+        }
         this.scanner = new Scanner(System.in);
         
-        this.alertThread = new InventoryAlertThread(productService, 30, 10);
+        this.lowStockMonitor = new LowStockMonitor(productService, new StockThresholds(10));
+        this.alertThread = new InventoryAlertThread(lowStockMonitor);
         this.alertThread.start();
+        
+        MetricsRegistry.getDefault().registerMBean();
+        Integer metricsPort = Integer.getInteger("inventory.metrics.port");
+        if (metricsPort != null) {
+            try {
+                metricsEndpoint = new MetricsEndpoint(metricsPort);
+                metricsEndpoint.start();
+            } catch (IOException e) {
+                System.out.println("Warning: Could not start metrics endpoint: " + e.getMessage());
+            }
+        }
+    }
+    
+    private static ProductService createProductService(String storage, String filename, String metricsPrefix) {
+        if (System.getProperty("inventory.repository", "hash").equalsIgnoreCase("disk")) {
+            try {
+                Path base = Paths.get(filename.replaceFirst("\\.csv$", ""));
+                boolean created = !Files.exists(DiskProductRepository.dataFileFor(base));
+                DiskProductRepository repository = new DiskProductRepository(base,
+                    Long.getLong("inventory.cache.maxBytes", DiskProductRepository.DEFAULT_CACHE_BYTES),
+                    BoundedCache.Policy.parse(System.getProperty("inventory.cache.policy", "tinylfu")), metricsPrefix);
+                if (created && Files.exists(Paths.get(filename))) {
+                    importProducts(repository, filename);
+                }
+                return new ProductService(repository, repository.persistence(), metricsPrefix);
+            } catch (IOException e) {
+                System.out.println("Warning: Could not open disk catalog, using " + filename + ": " + e.getMessage());
+            }
+        }
+        return new ProductService(createRepository(),
+            createPersistence(storage, filename, new ProductCodec(), new ProductBinaryFormat()), metricsPrefix);
+    }
+    
+    private static void importProducts(DiskProductRepository repository, String filename) {
+        ProductCodec codec = new ProductCodec();
+        int[] skipped = new int[1];
+        try {
+            FileUtil.streamCSV(filename, record -> {
+                try {
+                    Product product = codec.fromRecord(record);
+                    if (product == null) {
+                        skipped[0]++;
+                    } else {
+                        repository.add(product);
+                    }
+                } catch (IllegalArgumentException e) {
+                    skipped[0]++;
+                }
+            }, FileUtil.SNAPSHOT_BACKUPS);
+            repository.flush();
+            System.out.println("Imported " + repository.size() + " products from " + filename
+                + (skipped[0] > 0 ? " (skipped " + skipped[0] + " invalid records)" : ""));
+        } catch (IOException | FileFormatException e) {
+            System.out.println("Warning: Could not import products from " + filename + ": " + e.getMessage());
+        }
+    }
+    
+    private static ProductRepository createRepository() {
+        return Boolean.getBoolean("inventory.concurrent")
+            ? new ConcurrentProductRepository()
+            : System.getProperty("inventory.repository", "hash").equalsIgnoreCase("columnar")
+            ? new ColumnarProductRepository() : new HashProductRepository();
+    }
+    
+    private static <T> Persistence<T> createPersistence(String storage, String filename,
+                                                        RecordCodec<T> codec, BinarySnapshotFormat<T> format) {
+        Persistence<T> persistence;
+        if (storage.equalsIgnoreCase("journal")) {
+            persistence = new JournalPersistence<>(filename, codec);
+        } else if (storage.equalsIgnoreCase("binary")) {
+            persistence = new BinaryPersistence<>(filename.replaceFirst("\\.csv$", "") + ".bin", format);
+        } else {
+            persistence = new CsvPersistence<>(filename, codec);
+        }
+        
+        Durability durability = Durability.parse(System.getProperty("inventory.durability", "sync"));
+        if (durability == Durability.SYNC) {
+            return persistence;
+        }
+        return new WriteBehindPersistence<>(persistence, codec, durability,
+            Integer.getInteger("inventory.writeBehind.maxBatch", WriteBehindPersistence.DEFAULT_MAX_BATCH_SIZE),
+            Long.getLong("inventory.writeBehind.maxDelayMillis", WriteBehindPersistence.DEFAULT_MAX_DELAY_MILLIS));
     }
     
     public void displayMenu() {
@@ -37,6 +186,7 @@ public class InventoryManagementSystem {
         System.out.println("7. Generate Reports");
         System.out.println("8. Supplier Management");
         System.out.println("9. Exit");
+        System.out.println("10. Import / Export Products");
         System.out.print("Choose an option: ");
     }
     
@@ -76,12 +226,22 @@ public class InventoryManagementSystem {
     
     public void viewAllProducts() {
         System.out.println("\n?? ALL PRODUCTS");
-        List<Product> products = productService.getAllProducts();
+        ProductPage page = productService.getProducts(ProductSort.ID, false, null, PAGE_SIZE);
         
-        if (products.isEmpty()) {
+        if (page.getProducts().isEmpty()) {
             System.out.println("No products found.");
-        } else {
-            products.forEach(System.out::println);
+            return;
+        }
+        while (true) {
+            page.getProducts().forEach(System.out::println);
+            if (!page.hasMore()) {
+                return;
+            }
+            System.out.print("-- Press Enter for more, or 'q' to return: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            page = productService.getProducts(ProductSort.ID, false, page.getNextCursor(), PAGE_SIZE);
         }
     }
     
@@ -90,6 +250,7 @@ public class InventoryManagementSystem {
         System.out.println("1. Search by ID");
         System.out.println("2. Search by Name");
         System.out.println("3. Search by Category");
+        System.out.println("4. Search by Supplier");
         System.out.print("Choose search type: ");
         
         try {
@@ -116,6 +277,13 @@ public class InventoryManagementSystem {
                     List<Product> categoryResults = productService.searchProductsByCategory(category);
                     displaySearchResults(categoryResults);
                     break;
+                
+                case 4:
+                    System.out.print("Enter Supplier ID: ");
+                    String supplierId = scanner.nextLine();
+                    List<Product> supplierResults = productService.searchProductsBySupplier(supplierId);
+                    displaySearchResults(supplierResults);
+                    break;
                     
                 default:
                     System.out.println("? Invalid choice.");
@@ -198,7 +366,7 @@ public class InventoryManagementSystem {
     
     public void viewLowStockProducts() {
         System.out.println("\n?? LOW STOCK PRODUCTS");
-        List<Product> lowStock = productService.getLowStockProducts(10);
+        List<Product> lowStock = lowStockMonitor.getLowStockProducts();
         
         if (lowStock.isEmpty()) {
             System.out.println("No low stock products. Good job!");
@@ -220,14 +388,37 @@ public class InventoryManagementSystem {
         categoryCount.forEach((category, count) -> 
             System.out.printf("   %s: %d product(s)%n", category, count));
         
-        List<Product> allProducts = productService.getAllProducts();
-        System.out.println("\nTotal Products: " + allProducts.size());
+        Map<String, Double> categoryValue = productService.getCategoryWiseValue();
+        System.out.println("\nCategory-wise Inventory Value:");
+        categoryValue.forEach((category, value) ->
+            System.out.printf("   %s: $%.2f%n", category, value));
+        
+        Map<String, Double> supplierValue = productService.getSupplierWiseValue();
+        System.out.println("\nSupplier-wise Inventory Value:");
+        supplierValue.forEach((supplier, value) ->
+            System.out.printf("   %s: $%.2f%n", supplier, value));
+        
+        System.out.println("\nTotal Products: " + productService.getProductCount());
+        
+        if (stockLedger != null) {
+            System.out.printf("%nStock Ledger: %d movement(s) in %d segment(s), %d bytes%n",
+                stockLedger.getEntryCount(), stockLedger.getSegmentCount(), stockLedger.getSizeBytes());
+        }
+        
+        if (warehouseInventory != null) {
+            System.out.println("\nWarehouse-wise Inventory Value:");
+            warehouseInventory.getWarehouseValues().forEach((warehouse, value) ->
+                System.out.printf("   %s: $%.2f (%d product(s))%n", warehouse, value,
+                    warehouseInventory.warehouse(warehouse).getProductCount()));
+            System.out.printf("   All warehouses: $%.2f%n", warehouseInventory.getTotalInventoryValue());
+        }
     }
     
     public void supplierManagement() {
         System.out.println("\n?? SUPPLIER MANAGEMENT");
         System.out.println("1. View All Suppliers");
         System.out.println("2. Add New Supplier");
+        System.out.println("3. Delete Supplier");
         System.out.print("Choose an option: ");
         
         try {
@@ -265,6 +456,24 @@ public class InventoryManagementSystem {
                     System.out.println("? Supplier added successfully!");
                     break;
                     
+                case 3:
+                    System.out.print("Enter Supplier ID: ");
+                    String supplierId = scanner.nextLine();
+                    
+                    boolean cascade = false;
+                    long products = supplierService.countProducts(supplierId);
+                    if (products > 0) {
+                        System.out.print("Supplier supplies " + products + " product(s). Delete them too? (y/n): ");
+                        cascade = scanner.nextLine().trim().equalsIgnoreCase("y");
+                        if (!cascade) {
+                            System.out.println("Supplier not deleted.");
+                            break;
+                        }
+                    }
+                    int deleted = supplierService.deleteSupplier(supplierId, cascade);
+                    System.out.println("? Supplier deleted" + (deleted > 0 ? " with " + deleted + " product(s)." : "."));
+                    break;
+                
                 default:
                     System.out.println("? Invalid choice.");
             }
@@ -275,16 +484,115 @@ public class InventoryManagementSystem {
         }
     }
     
+    public void importExport() {
+        System.out.println("\n?? IMPORT / EXPORT PRODUCTS");
+        System.out.println("1. Import Products from CSV");
+        System.out.println("2. Export Products to CSV");
+        System.out.print("Choose an option: ");
+        
+        try {
+            int choice = Integer.parseInt(scanner.nextLine());
+            
+            switch (choice) {
+                case 1:
+                    System.out.print("Enter CSV file to import: ");
+                    importProducts(Paths.get(scanner.nextLine().trim()));
+                    break;
+                
+                case 2:
+                    System.out.print("Enter CSV file to export to: ");
+                    exportProducts(Paths.get(scanner.nextLine().trim()));
+                    break;
+                
+                default:
+                    System.out.println("? Invalid choice.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("? Please enter a valid number.");
+        }
+    }
+    
+    public void importProducts(Path file) {
+        Path rejectReport = ProductImporter.newRejectReport();
+        try {
+            ImportResult result = new ProductImporter(productService, supplierService).importCsv(file, rejectReport);
+            System.out.println("? Imported " + result);
+            if (result.getRejected() > 0) {
+                result.getRejects().stream().limit(10).forEach(reject -> System.out.println("   " + reject));
+                System.out.println("   Rejected rows written to " + rejectReport);
+            }
+        } catch (IOException | InventoryException e) {
+            System.out.println("? Import failed: " + e.getMessage());
+        }
+    }
+    
+    public void exportProducts(Path file) {
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                long count = productService.exportProducts(out);
+                System.out.println("? Exported " + count + " products to " + file);
+            }
+        } catch (IOException e) {
+            System.out.println("? Export failed: " + e.getMessage());
+        }
+    }
+    
     public void shutdown() {
         System.out.println("\n?? Shutting down Inventory Management System...");
         alertThread.stopAlert();
+        if (metricsEndpoint != null) {
+            metricsEndpoint.stop();
+        }
+        productService.close();
+        if (stockLedger != null) {
+            stockLedger.close();
+        }
+        if (warehouseInventory != null) {
+            warehouseInventory.close();
+        }
+        supplierService.close();
         scanner.close();
         System.out.println("Thank you for using our system! ??");
     }
     
+    public void serve(int port) {
+        try {
+            InventoryHttpServer server = new InventoryHttpServer(productService, supplierService, warehouseInventory, stockLedger, port,
+                Integer.getInteger("inventory.server.maxPending", InventoryHttpServer.DEFAULT_MAX_PENDING));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                shutdown();
+            }));
+            server.start();
+            System.out.println("?? Inventory HTTP API listening on port " + server.getPort()
+                + (server.usesVirtualThreads() ? " (virtual threads)" : " (thread pool)"));
+        } catch (IOException e) {
+            System.out.println("? Could not start HTTP server: " + e.getMessage());
+            shutdown();
+        }
+    }
+    
     public static void main(String[] args) {
         InventoryManagementSystem system = new InventoryManagementSystem();
         
+        if (args.length > 0 && args[0].equals("--server")) {
+            InventoryHttpServer.useTcpNoDelay();
+            system.serve(args.length > 1 ? Integer.parseInt(args[1]) : InventoryHttpServer.DEFAULT_PORT);
+            return;
+        }
+        if (args.length > 1 && (args[0].equals("--import") || args[0].equals("--export"))) {
+            if (args[0].equals("--import")) {
+                system.importProducts(Paths.get(args[1]));
+            } else {
+                system.exportProducts(Paths.get(args[1]));
+            }
+            system.shutdown();
+            return;
+        }
+        
         try {
             while (true) {
                 system.displayMenu();
@@ -318,6 +626,9 @@ public class InventoryManagementSystem {
                     case "9":
                         system.shutdown();
                         return;
+                    case "10":
+                        system.importExport();
+                        break;
                     default:
                         System.out.println("? Invalid option. Please try again.");
                 }
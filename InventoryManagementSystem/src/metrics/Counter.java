@@ -0,0 +1,26 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter {
+    private final MetricsRegistry registry;
+    private final LongAdder count = new LongAdder();
+    
+    Counter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+    
+    public void increment() {
+        add(1);
+    }
+    
+    public void add(long amount) {
+        if (registry.isEnabled()) {
+            count.add(amount);
+        }
+    }
+    
+    public long get() {
+        return count.sum();
+    }
+}
@@ -0,0 +1,97 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class MetricsRegistry {
+    public static final String JMX_NAME = "inventory:type=Metrics";
+    
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+    
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("inventory.metrics"));
+    
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+    
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter(this));
+    }
+    
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram(this));
+    }
+    
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        counters.forEach((name, counter) -> snapshot.put(name, counter.get()));
+        gauges.forEach((name, gauge) -> snapshot.put(name, gauge.getAsLong()));
+        histograms.forEach((name, histogram) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", histogram.getCount());
+            stats.put("meanMicros", round(LatencyHistogram.toMicros((long) histogram.getMeanNanos())));
+            stats.put("p50Micros", round(LatencyHistogram.toMicros(histogram.getPercentileNanos(50))));
+            stats.put("p99Micros", round(LatencyHistogram.toMicros(histogram.getPercentileNanos(99))));
+            stats.put("p999Micros", round(LatencyHistogram.toMicros(histogram.getPercentileNanos(99.9))));
+            stats.put("maxMicros", round(LatencyHistogram.toMicros(histogram.getMaxNanos())));
+            snapshot.put(name, stats);
+        });
+        return snapshot;
+    }
+    
+    public Map<String, Object> flatten() {
+        Map<String, Object> flat = new TreeMap<>();
+        snapshot().forEach((name, value) -> {
+            if (value instanceof Map) {
+                ((Map<?, ?>) value).forEach((stat, statValue) -> flat.put(name + "." + stat, statValue));
+            } else {
+                flat.put(name, value);
+            }
+        });
+        return flat;
+    }
+    
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        flatten().forEach((name, value) -> text.append(name).append(' ').append(value).append('\n'));
+        return text.toString();
+    }
+    
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(JMX_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(this), name);
+            }
+        } catch (JMException e) {
+            System.out.println("Warning: Could not register metrics MBean: " + e.getMessage());
+        }
+    }
+    
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+}
@@ -0,0 +1,24 @@
+package model;
+
+public class ImportReject {
+    private final int line;
+    private final String productId;
+    private final String reason;
+    
+    public ImportReject(int line, String productId, String reason) {
+        this.line = line;
+        this.productId = productId;
+        this.reason = reason;
+    }
+    
+    public int getLine() { return line; }
+    
+    public String getProductId() { return productId; }
+    
+    public String getReason() { return reason; }
+    
+    @Override
+    public String toString() {
+        return String.format("line %d%s: %s", line, productId == null || productId.isEmpty() ? "" : " (" + productId + ")", reason);
+    }
+}
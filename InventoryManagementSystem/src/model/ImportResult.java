@@ -0,0 +1,39 @@
+package model;
+
+import java.util.List;
+
+public class ImportResult {
+    private final long rows;
+    private final long imported;
+    private final long rejected;
+    private final List<ImportReject> rejects;
+    private final long nanos;
+    
+    public ImportResult(long rows, long imported, long rejected, List<ImportReject> rejects, long nanos) {
+        this.rows = rows;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.rejects = rejects;
+        this.nanos = nanos;
+    }
+    
+    public long getRows() { return rows; }
+    
+    public long getImported() { return imported; }
+    
+    public long getRejected() { return rejected; }
+    
+    public List<ImportReject> getRejects() { return rejects; }
+    
+    public long getNanos() { return nanos; }
+    
+    public double getRowsPerSecond() {
+        return nanos == 0 ? 0 : rows / (nanos / 1_000_000_000.0);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d rows, %d imported, %d rejected in %d ms (%.0f rows/s)",
+                rows, imported, rejected, nanos / 1_000_000, getRowsPerSecond());
+    }
+}
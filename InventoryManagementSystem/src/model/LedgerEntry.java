@@ -0,0 +1,34 @@
+package model;
+
+import java.time.Instant;
+
+public class LedgerEntry {
+    private final long timestamp;
+    private final String productId;
+    private final String category;
+    private final int delta;
+    private final int quantity;
+    
+    public LedgerEntry(long timestamp, String productId, String category, int delta, int quantity) {
+        this.timestamp = timestamp;
+        this.productId = productId;
+        this.category = category;
+        this.delta = delta;
+        this.quantity = quantity;
+    }
+    
+    public long getTimestamp() { return timestamp; }
+    
+    public String getProductId() { return productId; }
+    
+    public String getCategory() { return category; }
+    
+    public int getDelta() { return delta; }
+    
+    public int getQuantity() { return quantity; }
+    
+    @Override
+    public String toString() {
+        return String.format("%s %s %+d -> %d (%s)", Instant.ofEpochMilli(timestamp), productId, delta, quantity, category);
+    }
+}
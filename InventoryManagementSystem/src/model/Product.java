@@ -1,5 +1,7 @@
 package model;
 
+import util.CsvWriter;
+
 public class Product {
     private String id;
     private String name;
@@ -19,6 +21,10 @@ public class Product {
         this.supplierId = supplierId;
     }
     
+    public Product(Product other) {
+        this(other.getId(), other.getName(), other.getCategory(), other.getQuantity(), other.getPrice(), other.getSupplierId());
+    }
+    
     public String getId() { return id; }
     public void setId(String id) { this.id = id; }
     
@@ -44,7 +50,7 @@ public class Product {
     }
     
     public String toCSV() {
-        return String.join(",",
+        return CsvWriter.toLine(
                 id, name, category, 
                 String.valueOf(quantity), 
                 String.valueOf(price), 
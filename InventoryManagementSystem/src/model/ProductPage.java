@@ -0,0 +1,19 @@
+package model;
+
+import java.util.List;
+
+public class ProductPage {
+    private final List<Product> products;
+    private final String nextCursor;
+    
+    public ProductPage(List<Product> products, String nextCursor) {
+        this.products = products;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<Product> getProducts() { return products; }
+    
+    public String getNextCursor() { return nextCursor; }
+    
+    public boolean hasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,17 @@
+package model;
+
+public enum ProductSort {
+    ID,
+    NAME,
+    QUANTITY,
+    VALUE;
+    
+    public static ProductSort parse(String value) {
+        for (ProductSort sort : values()) {
+            if (sort.name().equalsIgnoreCase(value)) {
+                return sort;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort: " + value);
+    }
+}
@@ -0,0 +1,20 @@
+package model;
+
+public class StockMovement {
+    private final String productId;
+    private final int delta;
+    
+    public StockMovement(String productId, int delta) {
+        this.productId = productId;
+        this.delta = delta;
+    }
+    
+    public String getProductId() { return productId; }
+    
+    public int getDelta() { return delta; }
+    
+    @Override
+    public String toString() {
+        return String.format("%s %+d", productId, delta);
+    }
+}
@@ -0,0 +1,38 @@
+package model;
+
+public class StockMovementResult {
+    private final StockMovement movement;
+    private final boolean applied;
+    private final int quantity;
+    private final String message;
+    
+    private StockMovementResult(StockMovement movement, boolean applied, int quantity, String message) {
+        this.movement = movement;
+        this.applied = applied;
+        this.quantity = quantity;
+        this.message = message;
+    }
+    
+    public static StockMovementResult applied(StockMovement movement, int quantity) {
+        return new StockMovementResult(movement, true, quantity, null);
+    }
+    
+    public static StockMovementResult rejected(StockMovement movement, int quantity, String message) {
+        return new StockMovementResult(movement, false, quantity, message);
+    }
+    
+    public StockMovement getMovement() { return movement; }
+    
+    public boolean isApplied() { return applied; }
+    
+    public int getQuantity() { return quantity; }
+    
+    public String getMessage() { return message; }
+    
+    @Override
+    public String toString() {
+        return applied
+            ? String.format("%s -> %d", movement, quantity)
+            : String.format("%s rejected: %s", movement, message);
+    }
+}
@@ -1,5 +1,7 @@
 package model;
 
+import util.CsvWriter;
+
 public class Supplier {
     private String id;
     private String name;
@@ -39,7 +41,7 @@ public class Supplier {
     }
     
     public String toCSV() {
-        return String.join(",",
+        return CsvWriter.toLine(
                 id, name, contact, email, phone);
     }
 }
@@ -0,0 +1,54 @@
+package persistence;
+
+import exception.FileFormatException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class BinaryPersistence<T> implements Persistence<T> {
+    private final Path file;
+    private final BinarySnapshotFormat<T> format;
+    private Supplier<? extends Collection<T>> snapshot;
+    
+    public BinaryPersistence(String filename, BinarySnapshotFormat<T> format) {
+        this.file = Paths.get(filename);
+        this.format = format;
+    }
+    
+    @Override
+    public void open(Consumer<T> loader, Supplier<? extends Collection<T>> snapshot) throws IOException, FileFormatException {
+        this.snapshot = snapshot;
+        if (Files.exists(file)) {
+            format.read(file).forEach(loader);
+        }
+    }
+    
+    @Override
+    public synchronized void put(T record) throws IOException {
+        format.write(file, snapshot.get());
+    }
+    
+    @Override
+    public synchronized void putAll(Collection<T> records) throws IOException {
+        format.write(file, snapshot.get());
+    }
+    
+    @Override
+    public synchronized void remove(String id) throws IOException {
+        format.write(file, snapshot.get());
+    }
+    
+    @Override
+    public synchronized void apply(Collection<T> puts, Collection<String> removals) throws IOException {
+        format.write(file, snapshot.get());
+    }
+    
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,195 @@
+package persistence;
+
+import exception.FileFormatException;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public abstract class BinarySnapshotFormat<T> {
+    private static final int MAGIC = 0x494D5342;
+    private static final int HEADER_SIZE = 11;
+    private static final int TRAILER_SIZE = 8;
+    public static final short VERSION = 1;
+    private static final Counter BYTES_READ = MetricsRegistry.getDefault().counter("binary.bytesRead");
+    private static final Counter BYTES_WRITTEN = MetricsRegistry.getDefault().counter("binary.bytesWritten");
+    
+    private final byte kind;
+    
+    protected BinarySnapshotFormat(byte kind) {
+        this.kind = kind;
+    }
+    
+    protected abstract void writeRecords(SnapshotOutput out, Collection<T> records) throws IOException;
+    
+    protected abstract void readRecords(SnapshotInput in, int count, List<T> records);
+    
+    public void write(Path file, Collection<T> records) throws IOException {
+        Path temp = Paths.get(file + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            SnapshotOutput out = new SnapshotOutput(channel);
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putByte(kind);
+            out.putInt(records.size());
+            writeRecords(out, records);
+            out.finish();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        BYTES_WRITTEN.add(Files.size(file));
+    }
+    
+    public List<T> read(Path file) throws IOException, FileFormatException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new FileFormatException("Truncated snapshot: " + file);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new FileFormatException("Snapshot too large: " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+        }
+        BYTES_READ.add(buffer.limit());
+        
+        int bodyEnd = buffer.limit() - TRAILER_SIZE;
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(0, bodyEnd));
+        if (buffer.getLong(bodyEnd) != checksum.getValue()) {
+            throw new FileFormatException("Checksum mismatch in snapshot " + file);
+        }
+        
+        if (buffer.getInt() != MAGIC) {
+            throw new FileFormatException("Not a binary snapshot: " + file);
+        }
+        short version = buffer.getShort();
+        if (version > VERSION) {
+            throw new FileFormatException("Unsupported snapshot version " + version + " in " + file);
+        }
+        if (buffer.get() != kind) {
+            throw new FileFormatException("Snapshot " + file + " holds a different record type");
+        }
+        
+        int count = buffer.getInt();
+        List<T> records = new ArrayList<>(count);
+        try {
+            readRecords(new SnapshotInput(buffer.limit(bodyEnd)), count, records);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new FileFormatException("Corrupt snapshot: " + file);
+        }
+        return records;
+    }
+    
+    protected static class SnapshotOutput {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        private final CRC32 checksum = new CRC32();
+        
+        private SnapshotOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+        
+        private void drain() throws IOException {
+            buffer.flip();
+            checksum.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        public void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+        
+        public void putShort(short value) throws IOException {
+            ensure(2);
+            buffer.putShort(value);
+        }
+        
+        public void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+        
+        public void putDouble(double value) throws IOException {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+        
+        public void putString(String value) throws IOException {
+            byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("String field longer than 65535 bytes");
+            }
+            ensure(2 + bytes.length);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+        
+        private void finish() throws IOException {
+            drain();
+            buffer.putLong(checksum.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+    
+    protected static class SnapshotInput {
+        private final ByteBuffer buffer;
+        private byte[] scratch = new byte[128];
+        
+        private SnapshotInput(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        public int getInt() {
+            return buffer.getInt();
+        }
+        
+        public double getDouble() {
+            return buffer.getDouble();
+        }
+        
+        public String getString() {
+            int length = Short.toUnsignedInt(buffer.getShort());
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
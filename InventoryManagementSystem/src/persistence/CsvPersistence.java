@@ -0,0 +1,72 @@
+package persistence;
+
+import exception.FileFormatException;
+import util.CsvLoadResult;
+import util.FileUtil;
+import util.ReadStats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class CsvPersistence<T> implements Persistence<T> {
+    private final String filename;
+    private final RecordCodec<T> codec;
+    private Supplier<? extends Collection<T>> snapshot;
+    private ReadStats lastLoadStats;
+    private List<String> loadErrors = new ArrayList<>();
+    
+    public CsvPersistence(String filename, RecordCodec<T> codec) {
+        this.filename = filename;
+        this.codec = codec;
+    }
+    
+    @Override
+    public void open(Consumer<T> loader, Supplier<? extends Collection<T>> snapshot) throws IOException, FileFormatException {
+        this.snapshot = snapshot;
+        CsvLoadResult<T> result = FileUtil.loadCSV(filename, codec::fromRecord, FileUtil.SNAPSHOT_BACKUPS);
+        result.getRecords().forEach(loader);
+        lastLoadStats = result.getStats();
+        loadErrors = result.getErrors();
+    }
+    
+    @Override
+    public List<String> getLoadErrors() {
+        return loadErrors;
+    }
+    
+    public ReadStats getLastLoadStats() {
+        return lastLoadStats;
+    }
+    
+    @Override
+    public synchronized void put(T record) throws IOException {
+        rewrite();
+    }
+    
+    @Override
+    public synchronized void putAll(Collection<T> records) throws IOException {
+        rewrite();
+    }
+    
+    @Override
+    public synchronized void remove(String id) throws IOException {
+        rewrite();
+    }
+    
+    @Override
+    public synchronized void apply(Collection<T> puts, Collection<String> removals) throws IOException {
+        rewrite();
+    }
+    
+    private void rewrite() throws IOException {
+        FileUtil.writeCSV(filename, snapshot.get(), codec::write);
+    }
+    
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,16 @@
+package persistence;
+
+public enum Durability {
+    SYNC,
+    GROUP,
+    ASYNC;
+    
+    public static Durability parse(String value) {
+        for (Durability durability : values()) {
+            if (durability.name().equalsIgnoreCase(value)) {
+                return durability;
+            }
+        }
+        throw new IllegalArgumentException("Unknown durability: " + value);
+    }
+}
@@ -0,0 +1,24 @@
+package persistence;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class InMemoryPersistence<T> implements Persistence<T> {
+    
+    @Override
+    public void open(Consumer<T> loader, Supplier<? extends Collection<T>> snapshot) {
+    }
+    
+    @Override
+    public void put(T record) {
+    }
+    
+    @Override
+    public void remove(String id) {
+    }
+    
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,393 @@
+package persistence;
+
+import exception.FileFormatException;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import util.CsvLoadResult;
+import util.CsvRecord;
+import util.CsvStreamReader;
+import util.CsvWriter;
+import util.FileUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+public class JournalPersistence<T> implements Persistence<T> {
+    private static final String PUT = "+";
+    private static final String REMOVE = "-";
+    private static final int MAX_HEADER_SIZE = 32;
+    private static final Counter BYTES_WRITTEN = MetricsRegistry.getDefault().counter("journal.bytesWritten");
+    
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final RecordCodec<T> codec;
+    private final int syncBatchSize;
+    private final long syncIntervalMillis;
+    private final int compactThreshold;
+    
+    private final Object lock = new Object();
+    private final Object compactLock = new Object();
+    private FileChannel journal;
+    private int unsynced;
+    private int entries;
+    private Supplier<? extends Collection<T>> snapshot;
+    private ScheduledExecutorService background;
+    private List<String> loadErrors = new ArrayList<>();
+    
+    public JournalPersistence(String snapshotFile, RecordCodec<T> codec) {
+        this(snapshotFile, codec, 64, 50, 10_000);
+    }
+    
+    public JournalPersistence(String snapshotFile, RecordCodec<T> codec,
+                              int syncBatchSize, long syncIntervalMillis, int compactThreshold) {
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.journalFile = Paths.get(snapshotFile.replaceFirst("\\.csv$", "") + ".journal");
+        this.compactingFile = Paths.get(journalFile + ".compacting");
+        this.codec = codec;
+        this.syncBatchSize = syncBatchSize;
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.compactThreshold = compactThreshold;
+    }
+    
+    @Override
+    public void open(Consumer<T> loader, Supplier<? extends Collection<T>> snapshot) throws IOException, FileFormatException {
+        this.snapshot = snapshot;
+        
+        Map<String, T> state = new LinkedHashMap<>();
+        CsvLoadResult<T> result = FileUtil.loadCSV(snapshotFile.toString(), codec::fromRecord, FileUtil.SNAPSHOT_BACKUPS);
+        for (T value : result.getRecords()) {
+            state.put(codec.idOf(value), value);
+        }
+        loadErrors = new ArrayList<>(result.getErrors());
+        
+        boolean interruptedCompaction = Files.exists(compactingFile);
+        boolean legacyJournal = false;
+        if (interruptedCompaction) {
+            legacyJournal = isLegacy(compactingFile);
+            replay(compactingFile, state);
+        }
+        legacyJournal |= isLegacy(journalFile);
+        entries = replay(journalFile, state);
+        state.values().forEach(loader);
+        
+        if (interruptedCompaction || legacyJournal) {
+            writeSnapshot(state.values());
+            Files.deleteIfExists(compactingFile);
+            Files.deleteIfExists(journalFile);
+            entries = 0;
+        }
+        
+        journal = openJournal();
+        background = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "journal-" + journalFile.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        background.scheduleWithFixedDelay(this::maintain, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    private int replay(Path file, Map<String, T> state) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        if (isLegacy(file)) {
+            return replayLegacy(file, state);
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Journal too large: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+            
+            int replayed = 0;
+            int valid = 0;
+            while (valid < buffer.limit()) {
+                byte[] payload = readFrame(buffer, valid);
+                if (payload == null) {
+                    break;
+                }
+                replayed += applyEntries(file, new ByteArrayInputStream(payload), state);
+                valid = buffer.position();
+            }
+            if (valid < size) {
+                System.out.println("Warning: Discarding " + (size - valid) + " torn bytes at the end of " + file);
+                channel.truncate(valid);
+                channel.force(true);
+            }
+            return replayed;
+        }
+    }
+    
+    /**
+     * Reads the frame starting at {@code offset}: an ASCII {@code length,crc32} header line followed by
+     * {@code length} bytes of CSV entries. Returns null if the frame is incomplete or fails its checksum.
+     */
+    private static byte[] readFrame(ByteBuffer buffer, int offset) {
+        int limit = Math.min(buffer.limit(), offset + MAX_HEADER_SIZE);
+        int newline = -1;
+        for (int i = offset; i < limit; i++) {
+            if (buffer.get(i) == '\n') {
+                newline = i;
+                break;
+            }
+        }
+        if (newline < 0) {
+            return null;
+        }
+        
+        byte[] header = new byte[newline - offset];
+        buffer.get(offset, header);
+        String[] parts = new String(header, StandardCharsets.US_ASCII).split(",");
+        int length;
+        long crc;
+        try {
+            if (parts.length != 2) {
+                return null;
+            }
+            length = Integer.parseInt(parts[0]);
+            crc = Long.parseLong(parts[1], 16);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (length < 0 || length > buffer.limit() - newline - 1) {
+            return null;
+        }
+        
+        byte[] payload = new byte[length];
+        buffer.get(newline + 1, payload);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        if (checksum.getValue() != crc) {
+            return null;
+        }
+        buffer.position(newline + 1 + length);
+        return payload;
+    }
+    
+    private int applyEntries(Path file, InputStream in, Map<String, T> state) throws IOException {
+        int[] replayed = {0};
+        try {
+            CsvStreamReader.read(in, record -> {
+                if (applyEntry(file, record, state)) {
+                    replayed[0]++;
+                }
+            });
+        } catch (FileFormatException e) {
+            loadErrors.add(file + ": " + e.getMessage());
+        }
+        return replayed[0];
+    }
+    
+    private boolean applyEntry(Path file, CsvRecord record, Map<String, T> state) {
+        String op = record.getString(0);
+        try {
+            if (PUT.equals(op) && record.size() > 1) {
+                String[] fields = record.toArray();
+                T value = codec.fromFields(Arrays.copyOfRange(fields, 1, fields.length));
+                if (value == null) {
+                    return false;
+                }
+                state.put(codec.idOf(value), value);
+                return true;
+            }
+            if (REMOVE.equals(op) && record.size() > 1) {
+                state.remove(record.getString(1));
+                return true;
+            }
+        } catch (RuntimeException e) {
+            loadErrors.add(file + " line " + record.getLineNumber() + ": " + e.getMessage());
+            return false;
+        }
+        loadErrors.add(file + " line " + record.getLineNumber() + ": unknown journal entry " + op);
+        return false;
+    }
+    
+    /**
+     * Journals written before entries were framed start directly with a {@code +} or {@code -} entry.
+     * They are replayed leniently and folded into the snapshot by {@link #open}.
+     */
+    private static boolean isLegacy(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer first = ByteBuffer.allocate(1);
+            if (channel.read(first) <= 0) {
+                return false;
+            }
+            byte b = first.get(0);
+            return b == '+' || b == '-';
+        }
+    }
+    
+    private int replayLegacy(Path file, Map<String, T> state) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return applyEntries(file, in, state);
+        }
+    }
+    
+    @Override
+    public List<String> getLoadErrors() {
+        return loadErrors;
+    }
+    
+    @Override
+    public void put(T record) throws IOException {
+        CsvWriter text = new CsvWriter();
+        codec.write(record, text.writeField(PUT));
+        append(text.toString());
+    }
+    
+    @Override
+    public void putAll(Collection<T> records) throws IOException {
+        apply(records, Collections.emptyList());
+    }
+    
+    @Override
+    public void remove(String id) throws IOException {
+        append(new CsvWriter().writeField(REMOVE).writeField(id).endRecord().toString());
+    }
+    
+    @Override
+    public void apply(Collection<T> puts, Collection<String> removals) throws IOException {
+        CsvWriter text = new CsvWriter();
+        for (T record : puts) {
+            codec.write(record, text.writeField(PUT));
+        }
+        for (String id : removals) {
+            text.writeField(REMOVE).writeField(id).endRecord();
+        }
+        append(text.toString(), puts.size() + removals.size());
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        synchronized (lock) {
+            if (unsynced > 0) {
+                sync();
+            }
+        }
+    }
+    
+    private void append(String entry) throws IOException {
+        append(entry, 1);
+    }
+    
+    private void append(String text, int count) throws IOException {
+        byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload);
+        ByteBuffer header = ByteBuffer.wrap((payload.length + "," + Long.toHexString(checksum.getValue()) + "\n")
+            .getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer body = ByteBuffer.wrap(payload);
+        ByteBuffer[] frame = {header, body};
+        BYTES_WRITTEN.add(header.remaining() + body.remaining());
+        synchronized (lock) {
+            if (journal == null) {
+                throw new IOException("Journal is not open: " + journalFile);
+            }
+            while (body.hasRemaining()) {
+                journal.write(frame);
+            }
+            entries += count;
+            unsynced += count;
+            if (unsynced >= syncBatchSize) {
+                sync();
+            }
+        }
+    }
+    
+    private void sync() throws IOException {
+        journal.force(false);
+        unsynced = 0;
+    }
+    
+    private void maintain() {
+        try {
+            boolean compactDue;
+            synchronized (lock) {
+                if (unsynced > 0) {
+                    sync();
+                }
+                compactDue = entries >= compactThreshold;
+            }
+            if (compactDue) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.out.println("Warning: Journal maintenance failed: " + e.getMessage());
+        }
+    }
+    
+    public void compact() throws IOException {
+        synchronized (compactLock) {
+            synchronized (lock) {
+                if (!Files.exists(compactingFile)) {
+                    sync();
+                    journal.close();
+                    Files.move(journalFile, compactingFile, StandardCopyOption.ATOMIC_MOVE);
+                    journal = openJournal();
+                    entries = 0;
+                }
+            }
+            
+            writeSnapshot(snapshot.get());
+            Files.delete(compactingFile);
+        }
+    }
+    
+    private void writeSnapshot(Collection<T> records) throws IOException {
+        FileUtil.writeCSV(snapshotFile.toString(), records, codec::write);
+    }
+    
+    private FileChannel openJournal() throws IOException {
+        return FileChannel.open(journalFile,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (background != null) {
+            background.shutdown();
+            try {
+                background.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (lock) {
+            if (journal != null) {
+                sync();
+                journal.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package persistence;
+
+import model.LedgerEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+public class LedgerLog implements Closeable {
+    private static final int MAGIC = 0x494D4C47;
+    private static final int HEADER_SIZE = 4;
+    private static final int MIN_RECORD_SIZE = 8 + 2 + 2 + 1 + 1;
+    
+    private final Path file;
+    private final long sequence;
+    private final FileChannel channel;
+    private final LedgerSegment.Output record = new LedgerSegment.Output(256);
+    private final LedgerSegment.Output frame = new LedgerSegment.Output(256);
+    private final CRC32 crc = new CRC32();
+    private final List<LedgerEntry> recovered;
+    private final boolean checksummed;
+    
+    private LedgerLog(Path file, long sequence, FileChannel channel, List<LedgerEntry> recovered, boolean checksummed) {
+        this.file = file;
+        this.sequence = sequence;
+        this.channel = channel;
+        this.recovered = recovered;
+        this.checksummed = checksummed;
+    }
+    
+    public static Path fileFor(Path directory, long sequence) {
+        return directory.resolve(String.format("active-%010d.log", sequence));
+    }
+    
+    public static LedgerLog open(Path directory, long sequence) throws IOException {
+        Files.createDirectories(directory);
+        Path file = fileFor(directory, sequence);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        List<LedgerEntry> entries = new ArrayList<>();
+        long valid = 0;
+        long size = channel.size();
+        boolean checksummed = true;
+        if (size > 0) {
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Ledger log too large: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+            checksummed = size >= HEADER_SIZE && buffer.getInt(0) == MAGIC;
+            if (checksummed) {
+                buffer.position(HEADER_SIZE);
+                valid = HEADER_SIZE;
+            }
+            CRC32 crc = new CRC32();
+            try {
+                while (buffer.hasRemaining()) {
+                    int length = (int) LedgerSegment.getVarint(buffer);
+                    int expected = checksummed ? buffer.getInt() : 0;
+                    if (length < MIN_RECORD_SIZE || length > buffer.remaining()) {
+                        break;
+                    }
+                    ByteBuffer body = buffer.slice(buffer.position(), length);
+                    if (checksummed) {
+                        crc.reset();
+                        crc.update(body.duplicate());
+                        if ((int) crc.getValue() != expected) {
+                            break;
+                        }
+                    }
+                    buffer.position(buffer.position() + length);
+                    entries.add(new LedgerEntry(body.getLong(), LedgerSegment.getString(body), LedgerSegment.getString(body),
+                        LedgerSegment.unzigzag(LedgerSegment.getVarint(body)),
+                        LedgerSegment.unzigzag(LedgerSegment.getVarint(body))));
+                    valid = buffer.position();
+                }
+            } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+                // torn record at the end of the log
+            }
+            if (valid < size) {
+                System.out.println("Warning: Discarding " + (size - valid) + " torn bytes at the end of " + file);
+                channel.truncate(valid);
+            }
+        }
+        if (valid == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC);
+            header.flip();
+            channel.truncate(0);
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            valid = HEADER_SIZE;
+            checksummed = true;
+        }
+        channel.position(valid);
+        return new LedgerLog(file, sequence, channel, entries, checksummed);
+    }
+    
+    public List<LedgerEntry> getRecoveredEntries() {
+        return recovered;
+    }
+    
+    public long getSequence() {
+        return sequence;
+    }
+    
+    public void append(LedgerEntry entry) throws IOException {
+        record.clear();
+        record.putLong(entry.getTimestamp());
+        record.putString(entry.getProductId());
+        record.putString(entry.getCategory());
+        record.putVarint(LedgerSegment.zigzag(entry.getDelta()));
+        record.putVarint(LedgerSegment.zigzag(entry.getQuantity()));
+        ByteBuffer body = record.flip();
+        
+        frame.clear();
+        frame.putVarint(body.remaining());
+        if (checksummed) {
+            crc.reset();
+            crc.update(body.duplicate());
+            frame.putInt((int) crc.getValue());
+        }
+        ByteBuffer header = frame.flip();
+        ByteBuffer[] buffers = {header, body};
+        while (body.hasRemaining()) {
+            channel.write(buffers);
+        }
+    }
+    
+    public void force() throws IOException {
+        channel.force(false);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    public void delete() throws IOException {
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,436 @@
+package persistence;
+
+import exception.FileFormatException;
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import model.LedgerEntry;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class LedgerSegment {
+    private static final int MAGIC = 0x494D534C;
+    public static final short VERSION = 1;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    private static final Counter BYTES_READ = MetricsRegistry.getDefault().counter("ledger.bytesRead");
+    private static final Counter BYTES_WRITTEN = MetricsRegistry.getDefault().counter("ledger.bytesWritten");
+    
+    public enum Granularity {
+        RAW,
+        DAILY,
+        MONTHLY;
+        
+        public long bucketOf(long timestamp) {
+            switch (this) {
+                case DAILY:
+                    return Math.floorDiv(timestamp, DAY_MILLIS) * DAY_MILLIS;
+                case MONTHLY:
+                    ZonedDateTime time = Instant.ofEpochMilli(timestamp).atZone(ZoneOffset.UTC);
+                    return time.toLocalDate().withDayOfMonth(1).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+                default:
+                    return timestamp;
+            }
+        }
+    }
+    
+    @FunctionalInterface
+    public interface EntryVisitor {
+        boolean visit(long timestamp, int product, int category, int delta, int quantity);
+    }
+    
+    private final Path file;
+    private final long sequence;
+    private final Granularity granularity;
+    private final long minTime;
+    private final long maxTime;
+    private final int entryCount;
+    private final long[] sources;
+    private final String[] productIds;
+    private final int[] opening;
+    private final int[] closing;
+    private final String[] categories;
+    private final long entriesOffset;
+    private final int entriesLength;
+    private final long size;
+    private Map<String, Integer> productIndex;
+    
+    private LedgerSegment(Path file, long sequence, Granularity granularity, long minTime, long maxTime,
+                          int entryCount, long[] sources, String[] productIds, int[] opening, int[] closing,
+                          String[] categories, long entriesOffset, int entriesLength, long size) {
+        this.file = file;
+        this.sequence = sequence;
+        this.granularity = granularity;
+        this.minTime = minTime;
+        this.maxTime = maxTime;
+        this.entryCount = entryCount;
+        this.sources = sources;
+        this.productIds = productIds;
+        this.opening = opening;
+        this.closing = closing;
+        this.categories = categories;
+        this.entriesOffset = entriesOffset;
+        this.entriesLength = entriesLength;
+        this.size = size;
+    }
+    
+    public static Path fileFor(Path directory, long sequence) {
+        return directory.resolve(String.format("segment-%010d.seg", sequence));
+    }
+    
+    public static LedgerSegment write(Path directory, long sequence, Granularity granularity,
+                                      List<LedgerEntry> entries, long[] sources) throws IOException {
+        Map<String, Integer> products = new HashMap<>();
+        Map<String, Integer> categoryIndex = new HashMap<>();
+        int[] productOf = new int[entries.size()];
+        int[] categoryOf = new int[entries.size()];
+        String[] ids = new String[Math.min(entries.size(), 1024)];
+        int[] opening = new int[ids.length];
+        int[] closing = new int[ids.length];
+        String[] categories = new String[Math.min(entries.size(), 64)];
+        for (int i = 0; i < entries.size(); i++) {
+            LedgerEntry entry = entries.get(i);
+            Integer product = products.get(entry.getProductId());
+            if (product == null) {
+                product = products.size();
+                products.put(entry.getProductId(), product);
+                if (product == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                    opening = Arrays.copyOf(opening, ids.length);
+                    closing = Arrays.copyOf(closing, ids.length);
+                }
+                ids[product] = entry.getProductId();
+                opening[product] = entry.getQuantity() - entry.getDelta();
+            }
+            closing[product] = entry.getQuantity();
+            productOf[i] = product;
+            
+            String category = String.valueOf(entry.getCategory());
+            Integer index = categoryIndex.get(category);
+            if (index == null) {
+                index = categoryIndex.size();
+                categoryIndex.put(category, index);
+                if (index == categories.length) {
+                    categories = Arrays.copyOf(categories, categories.length * 2);
+                }
+                categories[index] = category;
+            }
+            categoryOf[i] = index;
+        }
+        ids = Arrays.copyOf(ids, products.size());
+        opening = Arrays.copyOf(opening, ids.length);
+        closing = Arrays.copyOf(closing, ids.length);
+        categories = Arrays.copyOf(categories, categoryIndex.size());
+        
+        Output out = new Output(64 + entries.size() * 6 + ids.length * 24);
+        long minTime = entries.isEmpty() ? 0 : entries.get(0).getTimestamp();
+        long maxTime = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).getTimestamp();
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putByte((byte) granularity.ordinal());
+        out.putLong(sequence);
+        out.putLong(minTime);
+        out.putLong(maxTime);
+        out.putInt(entries.size());
+        out.putInt(sources.length);
+        for (long source : sources) {
+            out.putLong(source);
+        }
+        out.putInt(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            out.putString(ids[i]);
+            out.putVarint(zigzag(opening[i]));
+            out.putVarint(zigzag(closing[i]));
+        }
+        out.putInt(categories.length);
+        for (String category : categories) {
+            out.putString(category);
+        }
+        
+        int lengthPosition = out.position();
+        out.putInt(0);
+        int entriesStart = out.position();
+        long previous = minTime;
+        for (int i = 0; i < entries.size(); i++) {
+            LedgerEntry entry = entries.get(i);
+            out.putVarint(entry.getTimestamp() - previous);
+            out.putVarint(productOf[i]);
+            out.putVarint(categoryOf[i]);
+            out.putVarint(zigzag(entry.getDelta()));
+            previous = entry.getTimestamp();
+        }
+        int entriesLength = out.position() - entriesStart;
+        out.putIntAt(lengthPosition, entriesLength);
+        out.putChecksum();
+        
+        Path file = fileFor(directory, sequence);
+        Path temp = Paths.get(file + ".tmp");
+        Files.createDirectories(directory);
+        ByteBuffer bytes = out.flip();
+        long size = bytes.remaining();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        BYTES_WRITTEN.add(size);
+        return new LedgerSegment(file, sequence, granularity, minTime, maxTime, entries.size(), sources,
+            ids, opening, closing, categories, entriesStart, entriesLength, size);
+    }
+    
+    public static LedgerSegment open(Path file) throws IOException, FileFormatException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 8 || size > Integer.MAX_VALUE) {
+                throw new FileFormatException("Invalid ledger segment size: " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            buffer.flip();
+        }
+        BYTES_READ.add(buffer.limit());
+        
+        int bodyEnd = buffer.limit() - 8;
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.slice(0, bodyEnd));
+        if (buffer.getLong(bodyEnd) != checksum.getValue()) {
+            throw new FileFormatException("Checksum mismatch in ledger segment " + file);
+        }
+        
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new FileFormatException("Not a ledger segment: " + file);
+            }
+            short version = buffer.getShort();
+            if (version > VERSION) {
+                throw new FileFormatException("Unsupported ledger segment version " + version + " in " + file);
+            }
+            Granularity granularity = Granularity.values()[buffer.get()];
+            long sequence = buffer.getLong();
+            long minTime = buffer.getLong();
+            long maxTime = buffer.getLong();
+            int entryCount = buffer.getInt();
+            long[] sources = new long[buffer.getInt()];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = buffer.getLong();
+            }
+            String[] ids = new String[buffer.getInt()];
+            int[] opening = new int[ids.length];
+            int[] closing = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = getString(buffer);
+                opening[i] = unzigzag(getVarint(buffer));
+                closing[i] = unzigzag(getVarint(buffer));
+            }
+            String[] categories = new String[buffer.getInt()];
+            for (int i = 0; i < categories.length; i++) {
+                categories[i] = getString(buffer);
+            }
+            int entriesLength = buffer.getInt();
+            int entriesStart = buffer.position();
+            if (entriesStart + entriesLength != bodyEnd) {
+                throw new FileFormatException("Corrupt ledger segment: " + file);
+            }
+            return new LedgerSegment(file, sequence, granularity, minTime, maxTime, entryCount, sources,
+                ids, opening, closing, categories, entriesStart, entriesLength, buffer.limit());
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new FileFormatException("Corrupt ledger segment: " + file);
+        }
+    }
+    
+    public void forEach(EntryVisitor visitor) throws IOException {
+        ByteBuffer entries = ByteBuffer.allocate(entriesLength);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            while (entries.hasRemaining() && channel.read(entries, entriesOffset + entries.position()) >= 0) {
+            }
+        }
+        entries.flip();
+        BYTES_READ.add(entriesLength);
+        
+        int[] quantities = opening.clone();
+        long timestamp = minTime;
+        for (int i = 0; i < entryCount; i++) {
+            timestamp += getVarint(entries);
+            int product = (int) getVarint(entries);
+            int category = (int) getVarint(entries);
+            int delta = unzigzag(getVarint(entries));
+            quantities[product] += delta;
+            if (!visitor.visit(timestamp, product, category, delta, quantities[product])) {
+                return;
+            }
+        }
+    }
+    
+    public Path getFile() { return file; }
+    
+    public long getSequence() { return sequence; }
+    
+    public Granularity getGranularity() { return granularity; }
+    
+    public long getMinTime() { return minTime; }
+    
+    public long getMaxTime() { return maxTime; }
+    
+    public int getEntryCount() { return entryCount; }
+    
+    public long[] getSources() { return sources; }
+    
+    public long getSize() { return size; }
+    
+    public int getProductCount() { return productIds.length; }
+    
+    public String getProductId(int product) { return productIds[product]; }
+    
+    public int getOpeningQuantity(int product) { return opening[product]; }
+    
+    public int getClosingQuantity(int product) { return closing[product]; }
+    
+    public String[] getCategories() { return categories.clone(); }
+    
+    public String getCategory(int category) { return categories[category]; }
+    
+    public int indexOfCategory(String category) {
+        for (int i = 0; i < categories.length; i++) {
+            if (categories[i].equals(category)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    public synchronized int indexOfProduct(String productId) {
+        if (productIndex == null) {
+            productIndex = new HashMap<>(productIds.length * 2);
+            for (int i = 0; i < productIds.length; i++) {
+                productIndex.put(productIds[i], i);
+            }
+        }
+        Integer index = productIndex.get(productId);
+        return index == null ? -1 : index;
+    }
+    
+    static long zigzag(int value) {
+        return Integer.toUnsignedLong((value << 1) ^ (value >> 31));
+    }
+    
+    static int unzigzag(long value) {
+        int encoded = (int) value;
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+    
+    static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+    
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    static class Output {
+        private ByteBuffer buffer;
+        
+        Output(int capacity) {
+            this.buffer = ByteBuffer.allocate(Math.max(64, capacity));
+        }
+        
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+        
+        int position() {
+            return buffer.position();
+        }
+        
+        void putByte(byte value) {
+            ensure(1);
+            buffer.put(value);
+        }
+        
+        void putShort(short value) {
+            ensure(2);
+            buffer.putShort(value);
+        }
+        
+        void putInt(int value) {
+            ensure(4);
+            buffer.putInt(value);
+        }
+        
+        void putIntAt(int position, int value) {
+            buffer.putInt(position, value);
+        }
+        
+        void putLong(long value) {
+            ensure(8);
+            buffer.putLong(value);
+        }
+        
+        void putVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+        
+        void putString(String value) throws IOException {
+            byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > 0xFFFF) {
+                throw new IOException("String field longer than 65535 bytes");
+            }
+            ensure(2 + bytes.length);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+        
+        void putChecksum() {
+            CRC32 checksum = new CRC32();
+            checksum.update(buffer.array(), 0, buffer.position());
+            putLong(checksum.getValue());
+        }
+        
+        ByteBuffer flip() {
+            buffer.flip();
+            return buffer;
+        }
+        
+        void clear() {
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package persistence;
+
+import exception.FileFormatException;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class MeteredPersistence<T> implements Persistence<T> {
+    private final Persistence<T> delegate;
+    private final LatencyHistogram loadLatency;
+    private final LatencyHistogram saveLatency;
+    
+    public MeteredPersistence(Persistence<T> delegate, String prefix) {
+        this.delegate = delegate;
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.loadLatency = metrics.histogram(prefix + ".load");
+        this.saveLatency = metrics.histogram(prefix + ".save");
+    }
+    
+    @Override
+    public void open(Consumer<T> loader, Supplier<? extends Collection<T>> snapshot) throws IOException, FileFormatException {
+        long start = loadLatency.start();
+        try {
+            delegate.open(loader, snapshot);
+        } finally {
+            loadLatency.stop(start);
+        }
+    }
+    
+    @Override
+    public void put(T record) throws IOException {
+        long start = saveLatency.start();
+        try {
+            delegate.put(record);
+        } finally {
+            saveLatency.stop(start);
+        }
+    }
+    
+    @Override
+    public void putAll(Collection<T> records) throws IOException {
+        long start = saveLatency.start();
+        try {
+            delegate.putAll(records);
+        } finally {
+            saveLatency.stop(start);
+        }
+    }
+    
+    @Override
+    public void remove(String id) throws IOException {
+        long start = saveLatency.start();
+        try {
+            delegate.remove(id);
+        } finally {
+            saveLatency.stop(start);
+        }
+    }
+    
+    @Override
+    public void apply(Collection<T> puts, Collection<String> removals) throws IOException {
+        long start = saveLatency.start();
+        try {
+            delegate.apply(puts, removals);
+        } finally {
+            saveLatency.stop(start);
+        }
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+    
+    @Override
+    public List<String> getLoadErrors() {
+        return delegate.getLoadErrors();
+    }
+}
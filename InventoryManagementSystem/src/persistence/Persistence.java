@@ -0,0 +1,43 @@
+package persistence;
+
+import exception.FileFormatException;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public interface Persistence<T> {
+    
+    void open(Consumer<T> loader, Supplier<? extends Collection<T>> snapshot) throws IOException, FileFormatException;
+    
+    void put(T record) throws IOException;
+    
+    default void putAll(Collection<T> records) throws IOException {
+        for (T record : records) {
+            put(record);
+        }
+    }
+    
+    void remove(String id) throws IOException;
+    
+    default void apply(Collection<T> puts, Collection<String> removals) throws IOException {
+        if (!puts.isEmpty()) {
+            putAll(puts);
+        }
+        for (String id : removals) {
+            remove(id);
+        }
+    }
+    
+    default void flush() throws IOException {
+    }
+    
+    void close() throws IOException;
+    
+    default List<String> getLoadErrors() {
+        return Collections.emptyList();
+    }
+}
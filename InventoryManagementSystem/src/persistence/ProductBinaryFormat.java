@@ -0,0 +1,71 @@
+package persistence;
+
+import model.Product;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductBinaryFormat extends BinarySnapshotFormat<Product> {
+    
+    public ProductBinaryFormat() {
+        super((byte) 'P');
+    }
+    
+    @Override
+    protected void writeRecords(SnapshotOutput out, Collection<Product> products) throws IOException {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        for (Product product : products) {
+            intern(strings, table, product.getCategory());
+            intern(strings, table, product.getSupplierId());
+        }
+        
+        out.putInt(table.size());
+        for (String value : table) {
+            out.putString(value);
+        }
+        
+        for (Product product : products) {
+            out.putString(product.getId());
+            out.putString(product.getName());
+            out.putInt(strings.get(nullToEmpty(product.getCategory())));
+            out.putInt(product.getQuantity());
+            out.putDouble(product.getPrice());
+            out.putInt(strings.get(nullToEmpty(product.getSupplierId())));
+        }
+    }
+    
+    @Override
+    protected void readRecords(SnapshotInput in, int count, List<Product> products) {
+        String[] table = new String[in.getInt()];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = in.getString();
+        }
+        
+        for (int i = 0; i < count; i++) {
+            String id = in.getString();
+            String name = in.getString();
+            String category = table[in.getInt()];
+            int quantity = in.getInt();
+            double price = in.getDouble();
+            String supplierId = table[in.getInt()];
+            products.add(new Product(id, name, category, quantity, price, supplierId));
+        }
+    }
+    
+    private static void intern(Map<String, Integer> strings, List<String> table, String value) {
+        value = nullToEmpty(value);
+        if (!strings.containsKey(value)) {
+            strings.put(value, table.size());
+            table.add(value);
+        }
+    }
+    
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
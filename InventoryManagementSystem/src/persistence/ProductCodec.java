@@ -0,0 +1,62 @@
+package persistence;
+
+import model.Product;
+import util.CsvRecord;
+import util.CsvWriter;
+
+import java.io.IOException;
+
+public class ProductCodec implements RecordCodec<Product> {
+    
+    @Override
+    public String idOf(Product product) {
+        return product.getId();
+    }
+    
+    @Override
+    public String[] toFields(Product product) {
+        return new String[] {
+            product.getId(), product.getName(), product.getCategory(),
+            String.valueOf(product.getQuantity()),
+            String.valueOf(product.getPrice()),
+            product.getSupplierId()
+        };
+    }
+    
+    @Override
+    public void write(Product product, CsvWriter out) throws IOException {
+        out.writeField(product.getId())
+            .writeField(product.getName())
+            .writeField(product.getCategory())
+            .writeField(product.getQuantity())
+            .writeField(product.getPrice())
+            .writeField(product.getSupplierId())
+            .endRecord();
+    }
+    
+    @Override
+    public Product fromFields(String[] fields) {
+        if (fields.length < 6) {
+            return null;
+        }
+        return new Product(
+            fields[0], fields[1], fields[2],
+            Integer.parseInt(fields[3]),
+            Double.parseDouble(fields[4]),
+            fields[5]
+        );
+    }
+    
+    @Override
+    public Product fromRecord(CsvRecord record) {
+        if (record.size() < 6) {
+            return null;
+        }
+        return new Product(
+            record.getString(0), record.getString(1), record.getString(2),
+            record.getInt(3),
+            record.getDouble(4),
+            record.getString(5)
+        );
+    }
+}
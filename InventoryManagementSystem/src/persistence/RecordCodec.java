@@ -0,0 +1,23 @@
+package persistence;
+
+import util.CsvRecord;
+import util.CsvWriter;
+
+import java.io.IOException;
+
+public interface RecordCodec<T> {
+    
+    String idOf(T record);
+    
+    String[] toFields(T record);
+    
+    default void write(T record, CsvWriter out) throws IOException {
+        out.writeRecord(toFields(record));
+    }
+    
+    T fromFields(String[] fields);
+    
+    default T fromRecord(CsvRecord record) {
+        return fromFields(record.toArray());
+    }
+}
@@ -0,0 +1,32 @@
+package persistence;
+
+import model.Supplier;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+
+public class SupplierBinaryFormat extends BinarySnapshotFormat<Supplier> {
+    
+    public SupplierBinaryFormat() {
+        super((byte) 'S');
+    }
+    
+    @Override
+    protected void writeRecords(SnapshotOutput out, Collection<Supplier> suppliers) throws IOException {
+        for (Supplier supplier : suppliers) {
+            out.putString(supplier.getId());
+            out.putString(supplier.getName());
+            out.putString(supplier.getContact());
+            out.putString(supplier.getEmail());
+            out.putString(supplier.getPhone());
+        }
+    }
+    
+    @Override
+    protected void readRecords(SnapshotInput in, int count, List<Supplier> suppliers) {
+        for (int i = 0; i < count; i++) {
+            suppliers.add(new Supplier(in.getString(), in.getString(), in.getString(), in.getString(), in.getString()));
+        }
+    }
+}
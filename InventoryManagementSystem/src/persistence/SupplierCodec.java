@@ -0,0 +1,27 @@
+package persistence;
+
+import model.Supplier;
+
+public class SupplierCodec implements RecordCodec<Supplier> {
+    
+    @Override
+    public String idOf(Supplier supplier) {
+        return supplier.getId();
+    }
+    
+    @Override
+    public String[] toFields(Supplier supplier) {
+        return new String[] {
+            supplier.getId(), supplier.getName(), supplier.getContact(),
+            supplier.getEmail(), supplier.getPhone()
+        };
+    }
+    
+    @Override
+    public Supplier fromFields(String[] fields) {
+        if (fields.length < 5) {
+            return null;
+        }
+        return new Supplier(fields[0], fields[1], fields[2], fields[3], fields[4]);
+    }
+}
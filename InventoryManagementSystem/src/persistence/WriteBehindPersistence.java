@@ -0,0 +1,329 @@
+package persistence;
+
+import exception.FileFormatException;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public class WriteBehindPersistence<T> implements Persistence<T> {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 256;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 50;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final LatencyHistogram BATCH_LATENCY = METRICS.histogram("writeBehind.batch");
+    private static final Counter BATCHES = METRICS.counter("writeBehind.batches");
+    private static final Counter CHANGES = METRICS.counter("writeBehind.changes");
+    private static final Counter COALESCED = METRICS.counter("writeBehind.coalesced");
+    private static final Counter FAILURES = METRICS.counter("writeBehind.failures");
+    
+    private final Persistence<T> delegate;
+    private final RecordCodec<T> codec;
+    private final Durability durability;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    
+    private final Object lock = new Object();
+    private Map<String, T> pending = new LinkedHashMap<>();
+    private long pendingSince;
+    private long enqueued;
+    private long written;
+    private long failedUpTo;
+    private IOException failure;
+    private long retryAt;
+    private int flushWaiters;
+    private boolean closed;
+    private boolean stopped;
+    private Thread writer;
+    
+    public WriteBehindPersistence(Persistence<T> delegate, RecordCodec<T> codec, Durability durability) {
+        this(delegate, codec, durability, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_DELAY_MILLIS);
+    }
+    
+    public WriteBehindPersistence(Persistence<T> delegate, RecordCodec<T> codec, Durability durability,
+                                  int maxBatchSize, long maxDelayMillis) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.delegate = delegate;
+        this.codec = codec;
+        this.durability = durability;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+    }
+    
+    public Durability getDurability() {
+        return durability;
+    }
+    
+    @Override
+    public void open(Consumer<T> loader, Supplier<? extends Collection<T>> snapshot) throws IOException, FileFormatException {
+        delegate.open(loader, snapshot);
+        if (durability != Durability.SYNC) {
+            writer = new Thread(this::runWriter, "write-behind-" + delegate.getClass().getSimpleName());
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+    
+    @Override
+    public List<String> getLoadErrors() {
+        return delegate.getLoadErrors();
+    }
+    
+    @Override
+    public void put(T record) throws IOException {
+        if (durability == Durability.SYNC) {
+            delegate.put(record);
+            return;
+        }
+        complete(enqueue(codec.idOf(record), copyOf(record)));
+    }
+    
+    @Override
+    public void putAll(Collection<T> records) throws IOException {
+        if (durability == Durability.SYNC) {
+            delegate.putAll(records);
+            return;
+        }
+        long seq = 0;
+        for (T record : records) {
+            seq = enqueue(codec.idOf(record), copyOf(record));
+        }
+        complete(seq);
+    }
+    
+    @Override
+    public void remove(String id) throws IOException {
+        if (durability == Durability.SYNC) {
+            delegate.remove(id);
+            return;
+        }
+        complete(enqueue(id, null));
+    }
+    
+    @Override
+    public void apply(Collection<T> puts, Collection<String> removals) throws IOException {
+        if (durability == Durability.SYNC) {
+            delegate.apply(puts, removals);
+            return;
+        }
+        long seq = 0;
+        for (T record : puts) {
+            seq = enqueue(codec.idOf(record), copyOf(record));
+        }
+        for (String id : removals) {
+            seq = enqueue(id, null);
+        }
+        complete(seq);
+    }
+    
+    private T copyOf(T record) {
+        return codec.fromFields(codec.toFields(record));
+    }
+    
+    private long enqueue(String id, T record) throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                throw new IOException("Write-behind storage is closed");
+            }
+            if (pending.isEmpty()) {
+                pendingSince = System.nanoTime();
+            } else if (pending.containsKey(id)) {
+                COALESCED.increment();
+            }
+            pending.put(id, record);
+            if (durability == Durability.GROUP || pending.size() >= maxBatchSize) {
+                lock.notifyAll();
+            }
+            return ++enqueued;
+        }
+    }
+    
+    private void complete(long seq) throws IOException {
+        if (seq == 0) {
+            return;
+        }
+        if (durability == Durability.GROUP) {
+            awaitWritten(seq);
+            return;
+        }
+        synchronized (lock) {
+            if (failure != null) {
+                throw new IOException("Background write failed: " + failure.getMessage(), failure);
+            }
+        }
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        if (durability == Durability.SYNC) {
+            delegate.flush();
+            return;
+        }
+        long seq;
+        synchronized (lock) {
+            seq = enqueued;
+            flushWaiters++;
+            lock.notifyAll();
+        }
+        try {
+            awaitWritten(seq);
+        } finally {
+            synchronized (lock) {
+                flushWaiters--;
+            }
+        }
+    }
+    
+    private void awaitWritten(long seq) throws IOException {
+        synchronized (lock) {
+            while (written < seq) {
+                if (failure != null && failedUpTo >= seq) {
+                    throw new IOException("Write failed: " + failure.getMessage(), failure);
+                }
+                if (stopped) {
+                    throw new IOException("Write-behind storage is closed");
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for write");
+                }
+            }
+        }
+    }
+    
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+    
+    private void runWriter() {
+        while (true) {
+            Map<String, T> batch;
+            long batchSeq;
+            synchronized (lock) {
+                try {
+                    while (!batchDue()) {
+                        if (closed && (pending.isEmpty() || failure != null && retryAt != 0)) {
+                            stopped = true;
+                            lock.notifyAll();
+                            return;
+                        }
+                        long waitNanos = pending.isEmpty() ? 0 : Math.max(1,
+                            Math.max(retryAt, pendingSince + maxDelayNanos) - System.nanoTime());
+                        if (waitNanos == 0) {
+                            lock.wait();
+                        } else {
+                            TimeUnit.NANOSECONDS.timedWait(lock, waitNanos);
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                    stopped = true;
+                    lock.notifyAll();
+                    return;
+                }
+                batch = pending;
+                batchSeq = enqueued;
+                pending = new LinkedHashMap<>();
+            }
+            
+            IOException error = write(batch);
+            
+            synchronized (lock) {
+                if (error == null) {
+                    written = batchSeq;
+                    failure = null;
+                    retryAt = 0;
+                } else {
+                    FAILURES.increment();
+                    failure = error;
+                    failedUpTo = batchSeq;
+                    retryAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(RETRY_DELAY_MILLIS);
+                    batch.putAll(pending);
+                    pending = batch;
+                    pendingSince = System.nanoTime();
+                    System.out.println("Warning: Background write failed, " + batch.size()
+                        + " changes pending: " + error.getMessage());
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+    
+    private boolean batchDue() {
+        if (pending.isEmpty()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (retryAt != 0) {
+            return !closed && now >= retryAt;
+        }
+        return closed || flushWaiters > 0 || durability == Durability.GROUP
+            || pending.size() >= maxBatchSize || now - pendingSince >= maxDelayNanos;
+    }
+    
+    private IOException write(Map<String, T> batch) {
+        List<T> puts = new ArrayList<>(batch.size());
+        List<String> removals = new ArrayList<>();
+        batch.forEach((id, record) -> {
+            if (record == null) {
+                removals.add(id);
+            } else {
+                puts.add(record);
+            }
+        });
+        
+        long start = BATCH_LATENCY.start();
+        try {
+            delegate.apply(puts, removals);
+            delegate.flush();
+            BATCHES.increment();
+            CHANGES.add(batch.size());
+            return null;
+        } catch (IOException e) {
+            return e;
+        } catch (RuntimeException e) {
+            return new IOException(e.getMessage(), e);
+        } finally {
+            BATCH_LATENCY.stop(start);
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            synchronized (lock) {
+                closed = true;
+                retryAt = 0;
+                lock.notifyAll();
+            }
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (lock) {
+                if (!pending.isEmpty()) {
+                    System.out.println("Warning: " + pending.size() + " changes were not written"
+                        + (failure != null ? ": " + failure.getMessage() : ""));
+                }
+            }
+        }
+        delegate.close();
+    }
+}
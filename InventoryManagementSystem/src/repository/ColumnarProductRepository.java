@@ -0,0 +1,309 @@
+package repository;
+
+import model.Product;
+import util.SymbolTable;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+public class ColumnarProductRepository implements ProductRepository {
+    private final SymbolTable categories = new SymbolTable();
+    private final SymbolTable suppliers = new SymbolTable();
+    
+    private String[] ids;
+    private String[] names;
+    private int[] quantities;
+    private double[] prices;
+    private int[] categoryCodes;
+    private int[] supplierCodes;
+    private int rowCount;
+    private int size;
+    
+    private int[] freeRows = new int[16];
+    private int freeCount;
+    
+    private int[] slots;
+    
+    public ColumnarProductRepository() {
+        this(16);
+    }
+    
+    public ColumnarProductRepository(int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        ids = new String[capacity];
+        names = new String[capacity];
+        quantities = new int[capacity];
+        prices = new double[capacity];
+        categoryCodes = new int[capacity];
+        supplierCodes = new int[capacity];
+        slots = new int[Integer.highestOneBit(capacity * 2 - 1) << 1];
+    }
+    
+    @Override
+    public Product findById(String id) {
+        int slot = slotOf(id);
+        return slot < 0 ? null : materialize(slots[slot] - 1);
+    }
+    
+    @Override
+    public boolean contains(String id) {
+        return slotOf(id) >= 0;
+    }
+    
+    @Override
+    public void add(Product product) {
+        int slot = slotOf(product.getId());
+        if (slot >= 0) {
+            write(slots[slot] - 1, product);
+            return;
+        }
+        
+        int row;
+        if (freeCount > 0) {
+            row = freeRows[--freeCount];
+        } else {
+            if (rowCount == ids.length) {
+                grow(rowCount * 2);
+            }
+            row = rowCount++;
+        }
+        ids[row] = product.getId();
+        write(row, product);
+        size++;
+        insertSlot(row);
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+    }
+    
+    @Override
+    public void update(Product product) {
+        int slot = slotOf(product.getId());
+        if (slot >= 0) {
+            write(slots[slot] - 1, product);
+        }
+    }
+    
+    @Override
+    public boolean requiresExclusiveUpdates() {
+        return true;
+    }
+    
+    @Override
+    public Product remove(String id) {
+        int slot = slotOf(id);
+        if (slot < 0) {
+            return null;
+        }
+        int row = slots[slot] - 1;
+        Product removed = materialize(row);
+        deleteSlot(slot);
+        
+        ids[row] = null;
+        names[row] = null;
+        quantities[row] = 0;
+        prices[row] = 0;
+        categoryCodes[row] = -1;
+        supplierCodes[row] = -1;
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeCount * 2);
+        }
+        freeRows[freeCount++] = row;
+        size--;
+        return removed;
+    }
+    
+    @Override
+    public Collection<Product> findAll() {
+        return new AbstractCollection<Product>() {
+            @Override
+            public Iterator<Product> iterator() {
+                return new Iterator<Product>() {
+                    private int next = advance(0);
+                    
+                    private int advance(int row) {
+                        while (row < rowCount && ids[row] == null) {
+                            row++;
+                        }
+                        return row;
+                    }
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return next < rowCount;
+                    }
+                    
+                    @Override
+                    public Product next() {
+                        if (next >= rowCount) {
+                            throw new NoSuchElementException();
+                        }
+                        Product product = materialize(next);
+                        next = advance(next + 1);
+                        return product;
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public List<Product> findByQuantityBelow(int threshold) {
+        List<Product> found = new ArrayList<>();
+        int[] quantities = this.quantities;
+        for (int row = 0; row < rowCount; row++) {
+            if (quantities[row] < threshold && ids[row] != null) {
+                found.add(materialize(row));
+            }
+        }
+        return found;
+    }
+    
+    public long countQuantityBelow(int threshold) {
+        int[] quantities = this.quantities;
+        long count = 0;
+        for (int row = 0; row < rowCount; row++) {
+            count += quantities[row] < threshold ? 1 : 0;
+        }
+        return threshold > 0 ? count - freeCount : count;
+    }
+    
+    public long getTotalQuantity() {
+        int[] quantities = this.quantities;
+        long total = 0;
+        for (int row = 0; row < rowCount; row++) {
+            total += quantities[row];
+        }
+        return total;
+    }
+    
+    public double getTotalValue() {
+        int[] quantities = this.quantities;
+        double[] prices = this.prices;
+        double total = 0;
+        for (int row = 0; row < rowCount; row++) {
+            total += quantities[row] * prices[row];
+        }
+        return total;
+    }
+    
+    public Map<String, Double> getValueByCategory() {
+        double[] totals = new double[categories.size()];
+        int[] quantities = this.quantities;
+        double[] prices = this.prices;
+        int[] codes = categoryCodes;
+        for (int row = 0; row < rowCount; row++) {
+            if (codes[row] >= 0) {
+                totals[codes[row]] += quantities[row] * prices[row];
+            }
+        }
+        
+        Map<String, Double> byCategory = new TreeMap<>();
+        for (int code = 0; code < totals.length; code++) {
+            if (totals[code] != 0) {
+                byCategory.put(categories.symbol(code), totals[code]);
+            }
+        }
+        return byCategory;
+    }
+    
+    public int getCategoryCount() {
+        return categories.size();
+    }
+    
+    public int getSupplierCount() {
+        return suppliers.size();
+    }
+    
+    private Product materialize(int row) {
+        return new Product(ids[row], names[row], categories.symbol(categoryCodes[row]),
+            quantities[row], prices[row], suppliers.symbol(supplierCodes[row]));
+    }
+    
+    private void write(int row, Product product) {
+        names[row] = product.getName();
+        quantities[row] = product.getQuantity();
+        prices[row] = product.getPrice();
+        categoryCodes[row] = categories.code(product.getCategory());
+        supplierCodes[row] = suppliers.code(product.getSupplierId());
+    }
+    
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        supplierCodes = Arrays.copyOf(supplierCodes, capacity);
+    }
+    
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    private int slotOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        int mask = slots.length - 1;
+        for (int slot = hash(id) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (id.equals(ids[slots[slot] - 1])) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+    
+    private void insertSlot(int row) {
+        int mask = slots.length - 1;
+        int slot = hash(ids[row]) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = row + 1;
+    }
+    
+    private void deleteSlot(int slot) {
+        int mask = slots.length - 1;
+        int hole = slot;
+        slots[hole] = 0;
+        for (int next = (hole + 1) & mask; slots[next] != 0; next = (next + 1) & mask) {
+            int home = hash(ids[slots[next] - 1]) & mask;
+            boolean movable = hole <= next
+                ? home <= hole || home > next
+                : home <= hole && home > next;
+            if (movable) {
+                slots[hole] = slots[next];
+                slots[next] = 0;
+                hole = next;
+            }
+        }
+    }
+    
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        for (int row = 0; row < rowCount; row++) {
+            if (ids[row] != null) {
+                insertSlot(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package repository;
+
+import model.Product;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ConcurrentProductRepository implements ProductRepository {
+    private final ConcurrentHashMap<String, Product> products;
+    
+    public ConcurrentProductRepository() {
+        this.products = new ConcurrentHashMap<>();
+    }
+    
+    public ConcurrentProductRepository(int expectedSize) {
+        this.products = new ConcurrentHashMap<>(expectedSize);
+    }
+    
+    @Override
+    public Product findById(String id) {
+        return products.get(id);
+    }
+    
+    @Override
+    public boolean contains(String id) {
+        return products.containsKey(id);
+    }
+    
+    @Override
+    public void add(Product product) {
+        products.put(product.getId(), product);
+    }
+    
+    @Override
+    public void update(Product product) {
+        products.replace(product.getId(), product);
+    }
+    
+    @Override
+    public Product remove(String id) {
+        return products.remove(id);
+    }
+    
+    @Override
+    public Collection<Product> findAll() {
+        return Collections.unmodifiableCollection(products.values());
+    }
+    
+    @Override
+    public int size() {
+        return products.size();
+    }
+    
+    @Override
+    public boolean isConcurrent() {
+        return true;
+    }
+}
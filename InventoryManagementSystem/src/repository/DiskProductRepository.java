@@ -0,0 +1,761 @@
+package repository;
+
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import model.Product;
+import persistence.Persistence;
+import util.BoundedCache;
+import util.SymbolTable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+public class DiskProductRepository implements ProductRepository, Closeable {
+    public static final long DEFAULT_CACHE_BYTES = 64L * 1024 * 1024;
+    private static final int MAGIC = 0x494D5044;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    private static final int FRAME_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+    private static final int SCAN_BUFFER_SIZE = 1 << 20;
+    private static final long COMPACT_MIN_GARBAGE = 64L * 1024 * 1024;
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int ENTRY_BYTES = 184;
+    
+    private final Path dataFile;
+    private final Path directory;
+    private final String baseName;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final BoundedCache<String, Product> cache;
+    private final SymbolTable categories = new SymbolTable();
+    private final SymbolTable suppliers = new SymbolTable();
+    private final CRC32 writeCrc = new CRC32();
+    private final Counter diskReads;
+    private final Counter diskWrites;
+    private final Counter compactions;
+    private FileChannel data;
+    private OffsetIndex index;
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(256);
+    private long dataEnd;
+    private long garbage;
+    private int size;
+    private boolean dirty;
+    
+    public DiskProductRepository(Path base) throws IOException {
+        this(base, DEFAULT_CACHE_BYTES, BoundedCache.Policy.TINY_LFU, "product");
+    }
+    
+    public DiskProductRepository(Path base, long cacheBytes, BoundedCache.Policy policy, String metricsPrefix)
+            throws IOException {
+        Path absolute = base.toAbsolutePath();
+        this.directory = absolute.getParent();
+        this.baseName = absolute.getFileName().toString();
+        this.dataFile = dataFileFor(absolute);
+        this.cache = new BoundedCache<>(cacheBytes, policy, DiskProductRepository::weigh, metricsPrefix + ".cache");
+        
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.diskReads = metrics.counter(metricsPrefix + ".disk.reads");
+        this.diskWrites = metrics.counter(metricsPrefix + ".disk.writes");
+        this.compactions = metrics.counter(metricsPrefix + ".disk.compactions");
+        metrics.gauge(metricsPrefix + ".disk.bytes", () -> dataEnd);
+        open();
+    }
+    
+    public static Path dataFileFor(Path base) {
+        return base.resolveSibling(base.getFileName() + ".dat");
+    }
+    
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(Paths.get(dataFile + ".tmp"));
+        data = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (data.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+                header.flip();
+                writeFully(header, 0);
+            } else {
+                ByteBuffer header = readFully(0, HEADER_SIZE);
+                if (header.getInt() != MAGIC || header.getShort() != VERSION) {
+                    throw new IOException("Not a product data file: " + dataFile);
+                }
+            }
+            
+            long generation = latestIndexGeneration();
+            OffsetIndex latest = generation == 0 ? null : OffsetIndex.open(indexFile(generation), generation);
+            if (latest != null && latest.isClean() && latest.getDataEnd() == data.size()) {
+                index = latest;
+                size = (int) latest.getSize();
+                dataEnd = latest.getDataEnd();
+                garbage = latest.getGarbage();
+            } else {
+                if (latest != null) {
+                    latest.delete();
+                } else if (generation > 0) {
+                    deleteQuietly(indexFile(generation));
+                }
+                rebuild(generation + 1);
+            }
+        } catch (IOException | RuntimeException e) {
+            data.close();
+            if (index != null) {
+                index.close();
+            }
+            throw e;
+        }
+    }
+    
+    private long latestIndexGeneration() throws IOException {
+        Path latestFile = null;
+        long latestGeneration = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, baseName + ".*.idx")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long generation;
+                try {
+                    generation = Long.parseLong(name.substring(baseName.length() + 1, name.length() - 4));
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (generation > latestGeneration) {
+                    if (latestFile != null) {
+                        deleteQuietly(latestFile);
+                    }
+                    latestFile = file;
+                    latestGeneration = generation;
+                } else {
+                    deleteQuietly(file);
+                }
+            }
+        }
+        return latestGeneration;
+    }
+    
+    private Path indexFile(long generation) {
+        return directory.resolve(baseName + "." + generation + ".idx");
+    }
+    
+    private void rebuild(long generation) throws IOException {
+        long fileSize = data.size();
+        index = OffsetIndex.create(indexFile(generation), generation, OffsetIndex.capacityFor(fileSize / 40));
+        size = 0;
+        garbage = 0;
+        dataEnd = HEADER_SIZE;
+        RecordScanner scanner = new RecordScanner(data, fileSize);
+        while (scanner.next()) {
+            ByteBuffer body = scanner.body();
+            byte kind = body.get();
+            String id = getString(body);
+            int hash = hash(id);
+            long slot = slotOf(id, hash);
+            if (kind == PUT) {
+                putSlot(slot, hash, scanner.offset(), scanner.length());
+            } else {
+                garbage += scanner.length();
+                if (slot >= 0) {
+                    removeSlot(slot);
+                }
+            }
+            dataEnd = scanner.offset() + scanner.length();
+        }
+        if (dataEnd < fileSize) {
+            System.out.println("Warning: Truncated " + (fileSize - dataEnd) + " unreadable bytes from " + dataFile);
+            data.truncate(dataEnd);
+            data.force(true);
+        }
+        index.save(size, dataEnd, garbage);
+    }
+    
+    private void putSlot(long slot, int hash, long offset, int length) throws IOException {
+        if (slot >= 0) {
+            garbage += index.lengthAt(slot);
+            index.set(slot, hash, offset, length);
+            return;
+        }
+        if (index.isFull(size + 1L)) {
+            grow();
+        }
+        index.set(index.freeSlot(hash), hash, offset, length);
+        size++;
+    }
+    
+    private void removeSlot(long slot) {
+        garbage += index.lengthAt(slot);
+        index.clear(slot);
+        size--;
+    }
+    
+    private void grow() throws IOException {
+        OffsetIndex grown = OffsetIndex.create(indexFile(index.getGeneration() + 1), index.getGeneration() + 1,
+            index.getCapacity() * 2);
+        index.copyTo(grown);
+        index.delete();
+        index = grown;
+    }
+    
+    @Override
+    public Product findById(String id) {
+        if (id == null) {
+            return null;
+        }
+        Product cached = cache.get(id);
+        if (cached != null) {
+            return new Product(cached);
+        }
+        lock.readLock().lock();
+        try {
+            int hash = hash(id);
+            for (long slot = index.home(hash); !index.isEmpty(slot); slot = index.next(slot)) {
+                if (index.hashAt(slot) == hash) {
+                    Product product = read(index.offsetAt(slot), index.lengthAt(slot));
+                    if (id.equals(product.getId())) {
+                        cache.put(id, new Product(product));
+                        return product;
+                    }
+                }
+            }
+            return null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public boolean contains(String id) {
+        if (id == null) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return slotOf(id, hash(id)) >= 0;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to look up product " + id, e);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public void add(Product product) {
+        write(product, true);
+    }
+    
+    @Override
+    public void update(Product product) {
+        write(product, false);
+    }
+    
+    private void write(Product product, boolean insert) {
+        lock.writeLock().lock();
+        try {
+            int hash = hash(product.getId());
+            long slot = slotOf(product.getId(), hash);
+            if (slot < 0 && !insert) {
+                return;
+            }
+            long offset = append(encode(product));
+            putSlot(slot, hash, offset, (int) (dataEnd - offset));
+            cache.put(product.getId(), new Product(product));
+            compactIfNeeded();
+        } catch (IOException e) {
+            cache.invalidate(product.getId());
+            throw new UncheckedIOException("Failed to write product " + product.getId(), e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public Product remove(String id) {
+        if (id == null) {
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            int hash = hash(id);
+            long slot = slotOf(id, hash);
+            if (slot < 0) {
+                return null;
+            }
+            Product removed = read(index.offsetAt(slot), index.lengthAt(slot));
+            long offset = append(encodeRemove(id));
+            garbage += dataEnd - offset;
+            removeSlot(slot);
+            cache.invalidate(id);
+            compactIfNeeded();
+            return removed;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to remove product " + id, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @Override
+    public Collection<Product> findAll() {
+        return new AbstractCollection<Product>() {
+            @Override
+            public Iterator<Product> iterator() {
+                lock.readLock().lock();
+                try {
+                    return new ProductIterator(data, dataEnd);
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+            
+            @Override
+            public int size() {
+                return DiskProductRepository.this.size();
+            }
+        };
+    }
+    
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @Override
+    public boolean isDiskResident() {
+        return true;
+    }
+    
+    public long getDataSize() {
+        lock.readLock().lock();
+        try {
+            return dataEnd;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public long getGarbageSize() {
+        lock.readLock().lock();
+        try {
+            return garbage;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public BoundedCache<String, Product> getCache() {
+        return cache;
+    }
+    
+    public Persistence<Product> persistence() {
+        return new Persistence<Product>() {
+            @Override
+            public void open(Consumer<Product> loader, Supplier<? extends Collection<Product>> snapshot) {
+            }
+            
+            @Override
+            public void put(Product record) {
+            }
+            
+            @Override
+            public void remove(String id) {
+            }
+            
+            @Override
+            public void flush() throws IOException {
+                DiskProductRepository.this.flush();
+            }
+            
+            @Override
+            public void close() throws IOException {
+                DiskProductRepository.this.close();
+            }
+        };
+    }
+    
+    public void flush() throws IOException {
+        lock.readLock().lock();
+        try {
+            data.force(false);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public void compact() throws IOException {
+        lock.writeLock().lock();
+        try {
+            long generation = index.getGeneration() + 1;
+            OffsetIndex compacted = OffsetIndex.create(indexFile(generation), generation, OffsetIndex.capacityFor(size));
+            Path temp = Paths.get(dataFile + ".tmp");
+            long end = HEADER_SIZE;
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer header = readFully(0, HEADER_SIZE);
+                while (header.hasRemaining()) {
+                    out.write(header, header.position());
+                }
+                RecordScanner scanner = new RecordScanner(data, dataEnd);
+                while (scanner.next()) {
+                    ByteBuffer body = scanner.body();
+                    if (body.get() != PUT) {
+                        continue;
+                    }
+                    int hash = hash(getString(body));
+                    if (index.isCurrent(hash, scanner.offset())) {
+                        compacted.set(compacted.freeSlot(hash), hash, end, scanner.length());
+                        ByteBuffer record = scanner.record();
+                        while (record.hasRemaining()) {
+                            end += out.write(record, end);
+                        }
+                    }
+                }
+                out.force(true);
+            } catch (IOException | RuntimeException e) {
+                compacted.delete();
+                throw e;
+            }
+            
+            data.close();
+            Files.move(temp, dataFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            data = FileChannel.open(dataFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            index.delete();
+            index = compacted;
+            dataEnd = end;
+            garbage = 0;
+            compactions.increment();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void compactIfNeeded() {
+        if (garbage > COMPACT_MIN_GARBAGE && garbage > dataEnd - garbage) {
+            try {
+                compact();
+            } catch (IOException e) {
+                System.out.println("Warning: Could not compact " + dataFile + ": " + e.getMessage());
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (!data.isOpen()) {
+                return;
+            }
+            data.force(true);
+            index.save(size, dataEnd, garbage);
+            index.close();
+            data.close();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private long slotOf(String id, int hash) throws IOException {
+        for (long slot = index.home(hash); !index.isEmpty(slot); slot = index.next(slot)) {
+            if (index.hashAt(slot) == hash) {
+                ByteBuffer body = readBody(index.offsetAt(slot), index.lengthAt(slot));
+                body.get();
+                if (id.equals(getString(body))) {
+                    return slot;
+                }
+            }
+        }
+        return -1;
+    }
+    
+    private Product read(long offset, int length) {
+        try {
+            ByteBuffer body = readBody(offset, length);
+            body.get();
+            return decode(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read product at offset " + offset + " of " + dataFile, e);
+        }
+    }
+    
+    private ByteBuffer readBody(long offset, int length) throws IOException {
+        diskReads.increment();
+        ByteBuffer record = readFully(offset, length);
+        int bodyLength = record.getInt();
+        int crc = record.getInt();
+        CRC32 check = new CRC32();
+        check.update(record.duplicate());
+        if (bodyLength != length - FRAME_SIZE || (int) check.getValue() != crc) {
+            throw new IOException("Corrupt product record at offset " + offset + " of " + dataFile);
+        }
+        return record;
+    }
+    
+    private ByteBuffer readFully(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (data.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of " + dataFile);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+    
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += data.write(buffer, position);
+        }
+    }
+    
+    private long append(ByteBuffer record) throws IOException {
+        if (!dirty) {
+            index.markDirty();
+            dirty = true;
+        }
+        long offset = dataEnd;
+        writeFully(record, offset);
+        dataEnd = offset + record.limit();
+        diskWrites.increment();
+        return offset;
+    }
+    
+    private ByteBuffer encode(Product product) {
+        ByteBuffer buffer = startRecord();
+        buffer.put(PUT);
+        putString(product.getId());
+        putString(product.getName());
+        putString(product.getCategory());
+        ensure(12).putInt(product.getQuantity()).putDouble(product.getPrice());
+        putString(product.getSupplierId());
+        return finishRecord();
+    }
+    
+    private ByteBuffer encodeRemove(String id) {
+        startRecord().put(REMOVE);
+        putString(id);
+        return finishRecord();
+    }
+    
+    private ByteBuffer startRecord() {
+        writeBuffer.clear();
+        writeBuffer.position(FRAME_SIZE);
+        return writeBuffer;
+    }
+    
+    private ByteBuffer finishRecord() {
+        int length = writeBuffer.position();
+        if (length > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Product record too large: " + length + " bytes");
+        }
+        writeCrc.reset();
+        writeCrc.update(writeBuffer.array(), FRAME_SIZE, length - FRAME_SIZE);
+        writeBuffer.putInt(0, length - FRAME_SIZE);
+        writeBuffer.putInt(4, (int) writeCrc.getValue());
+        writeBuffer.flip();
+        return writeBuffer;
+    }
+    
+    private ByteBuffer ensure(int bytes) {
+        if (writeBuffer.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(writeBuffer.capacity() * 2, writeBuffer.position() + bytes));
+            writeBuffer.flip();
+            grown.put(writeBuffer);
+            writeBuffer = grown;
+        }
+        return writeBuffer;
+    }
+    
+    private void putString(String value) {
+        if (value == null) {
+            ensure(4).putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length).putInt(bytes.length).put(bytes);
+    }
+    
+    private Product decode(ByteBuffer body) {
+        String id = getString(body);
+        String name = getString(body);
+        String category = categories.canonical(getString(body));
+        int quantity = body.getInt();
+        double price = body.getDouble();
+        String supplierId = suppliers.canonical(getString(body));
+        return new Product(id, name, category, quantity, price, supplierId);
+    }
+    
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+    
+    private static int hash(String id) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+    
+    private static int weigh(Product product) {
+        return ENTRY_BYTES + length(product.getId()) + length(product.getName());
+    }
+    
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("Warning: Could not delete old product index " + file + ": " + e.getMessage());
+        }
+    }
+    
+    private static class RecordScanner {
+        private final FileChannel channel;
+        private final long end;
+        private final CRC32 crc = new CRC32();
+        private ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        private long bufferStart = HEADER_SIZE;
+        private long offset;
+        private int length;
+        private ByteBuffer record;
+        
+        RecordScanner(FileChannel channel, long end) {
+            this.channel = channel;
+            this.end = end;
+            buffer.limit(0);
+        }
+        
+        boolean next() throws IOException {
+            long position = bufferStart + buffer.position();
+            if (!fill(FRAME_SIZE)) {
+                return false;
+            }
+            int bodyLength = buffer.getInt(buffer.position());
+            int checksum = buffer.getInt(buffer.position() + 4);
+            if (bodyLength <= 0 || bodyLength > MAX_RECORD_SIZE || !fill(FRAME_SIZE + bodyLength)) {
+                return false;
+            }
+            record = buffer.slice(buffer.position(), FRAME_SIZE + bodyLength);
+            crc.reset();
+            crc.update(buffer.slice(buffer.position() + FRAME_SIZE, bodyLength));
+            if ((int) crc.getValue() != checksum) {
+                return false;
+            }
+            buffer.position(buffer.position() + FRAME_SIZE + bodyLength);
+            offset = position;
+            length = FRAME_SIZE + bodyLength;
+            return true;
+        }
+        
+        private boolean fill(int needed) throws IOException {
+            if (buffer.remaining() >= needed) {
+                return true;
+            }
+            long position = bufferStart + buffer.position();
+            if (end - position < needed) {
+                return false;
+            }
+            if (buffer.capacity() < needed) {
+                buffer = ByteBuffer.allocate(needed);
+            }
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    return false;
+                }
+            }
+            buffer.flip();
+            bufferStart = position;
+            return buffer.remaining() >= needed;
+        }
+        
+        long offset() { return offset; }
+        
+        int length() { return length; }
+        
+        ByteBuffer record() { return record.duplicate(); }
+        
+        ByteBuffer body() {
+            return record.slice(FRAME_SIZE, length - FRAME_SIZE);
+        }
+    }
+    
+    private class ProductIterator implements Iterator<Product> {
+        private final FileChannel channel;
+        private final RecordScanner scanner;
+        private Product next;
+        
+        ProductIterator(FileChannel channel, long end) {
+            this.channel = channel;
+            this.scanner = new RecordScanner(channel, end);
+        }
+        
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            lock.readLock().lock();
+            try {
+                if (channel != data) {
+                    throw new ConcurrentModificationException("Product file was compacted during iteration");
+                }
+                while (scanner.next()) {
+                    ByteBuffer body = scanner.body();
+                    if (body.get() != PUT) {
+                        continue;
+                    }
+                    Product product = decode(body);
+                    if (index.isCurrent(hash(product.getId()), scanner.offset())) {
+                        next = product;
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to scan " + dataFile, e);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        
+        @Override
+        public Product next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Product product = next;
+            next = null;
+            return product;
+        }
+    }
+}
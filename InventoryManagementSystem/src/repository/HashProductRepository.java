@@ -0,0 +1,55 @@
+package repository;
+
+import model.Product;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class HashProductRepository implements ProductRepository {
+    private final Map<String, Product> products;
+    
+    public HashProductRepository() {
+        this.products = new LinkedHashMap<>();
+    }
+    
+    public HashProductRepository(int expectedSize) {
+        this.products = new LinkedHashMap<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+    }
+    
+    @Override
+    public Product findById(String id) {
+        return products.get(id);
+    }
+    
+    @Override
+    public boolean contains(String id) {
+        return products.containsKey(id);
+    }
+    
+    @Override
+    public void add(Product product) {
+        products.put(product.getId(), product);
+    }
+    
+    @Override
+    public void update(Product product) {
+        products.replace(product.getId(), product);
+    }
+    
+    @Override
+    public Product remove(String id) {
+        return products.remove(id);
+    }
+    
+    @Override
+    public Collection<Product> findAll() {
+        return Collections.unmodifiableCollection(products.values());
+    }
+    
+    @Override
+    public int size() {
+        return products.size();
+    }
+}
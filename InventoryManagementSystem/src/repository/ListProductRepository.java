@@ -0,0 +1,63 @@
+package repository;
+
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+public class ListProductRepository implements ProductRepository {
+    private final List<Product> products;
+    
+    public ListProductRepository() {
+        this.products = new ArrayList<>();
+    }
+    
+    @Override
+    public Product findById(String id) {
+        return products.stream()
+            .filter(p -> p.getId().equals(id))
+            .findFirst()
+            .orElse(null);
+    }
+    
+    @Override
+    public boolean contains(String id) {
+        return products.stream().anyMatch(p -> p.getId().equals(id));
+    }
+    
+    @Override
+    public void add(Product product) {
+        products.add(product);
+    }
+    
+    @Override
+    public void update(Product product) {
+        for (int i = 0; i < products.size(); i++) {
+            if (products.get(i).getId().equals(product.getId())) {
+                products.set(i, product);
+                return;
+            }
+        }
+    }
+    
+    @Override
+    public Product remove(String id) {
+        Product product = findById(id);
+        if (product != null) {
+            products.remove(product);
+        }
+        return product;
+    }
+    
+    @Override
+    public Collection<Product> findAll() {
+        return Collections.unmodifiableList(products);
+    }
+    
+    @Override
+    public int size() {
+        return products.size();
+    }
+}
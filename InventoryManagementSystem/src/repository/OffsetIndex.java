@@ -0,0 +1,220 @@
+package repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class OffsetIndex implements Closeable {
+    private static final int MAGIC = 0x494D5049;
+    private static final short VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int SLOT_SIZE = 16;
+    private static final int CHUNK_SHIFT = 22;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    static final long MIN_CAPACITY = 1L << 12;
+    static final long MAX_CAPACITY = 1L << 32;
+    
+    private final Path file;
+    private final long generation;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer[] chunks;
+    private final long capacity;
+    private final long mask;
+    
+    private OffsetIndex(Path file, long generation, FileChannel channel, long capacity) throws IOException {
+        this.file = file;
+        this.generation = generation;
+        this.channel = channel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        this.chunks = new MappedByteBuffer[(int) ((capacity + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long slots = Math.min(capacity - ((long) i << CHUNK_SHIFT), 1L << CHUNK_SHIFT);
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE,
+                HEADER_SIZE + ((long) i << CHUNK_SHIFT) * SLOT_SIZE, slots * SLOT_SIZE);
+        }
+    }
+    
+    static OffsetIndex create(Path file, long generation, long capacity) throws IOException {
+        if (Long.bitCount(capacity) != 1 || capacity < MIN_CAPACITY || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Index capacity must be a power of two: " + capacity);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            OffsetIndex index = new OffsetIndex(file, generation, channel, capacity);
+            index.header.putInt(0, MAGIC);
+            index.header.putShort(4, VERSION);
+            index.header.putLong(8, capacity);
+            return index;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    static OffsetIndex open(Path file, long generation) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() >= HEADER_SIZE) {
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                long capacity = header.getLong(8);
+                if (header.getInt(0) == MAGIC && header.getShort(4) == VERSION && Long.bitCount(capacity) == 1
+                        && capacity >= MIN_CAPACITY && capacity <= MAX_CAPACITY
+                        && channel.size() == HEADER_SIZE + capacity * SLOT_SIZE) {
+                    return new OffsetIndex(file, generation, channel, capacity);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        channel.close();
+        return null;
+    }
+    
+    static long capacityFor(long entries) {
+        long needed = Math.max(MIN_CAPACITY, entries * 10 / 7 + 1);
+        if (needed > MAX_CAPACITY) {
+            throw new IllegalStateException("Product index cannot hold " + entries + " entries");
+        }
+        return Long.highestOneBit(needed - 1) << 1;
+    }
+    
+    Path getFile() { return file; }
+    
+    long getGeneration() { return generation; }
+    
+    long getCapacity() { return capacity; }
+    
+    boolean isFull(long entries) {
+        return entries * 10 >= capacity * 7;
+    }
+    
+    boolean isClean() { return header.get(6) == 1; }
+    
+    long getSize() { return header.getLong(16); }
+    
+    long getDataEnd() { return header.getLong(24); }
+    
+    long getGarbage() { return header.getLong(32); }
+    
+    void markDirty() {
+        if (header.get(6) != 0) {
+            header.put(6, (byte) 0);
+            header.force();
+        }
+    }
+    
+    void save(long size, long dataEnd, long garbage) {
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+        header.putLong(16, size);
+        header.putLong(24, dataEnd);
+        header.putLong(32, garbage);
+        header.put(6, (byte) 1);
+        header.force();
+    }
+    
+    long home(int hash) {
+        return (hash & 0xFFFFFFFFL) & mask;
+    }
+    
+    long next(long slot) {
+        return (slot + 1) & mask;
+    }
+    
+    boolean isEmpty(long slot) {
+        return chunk(slot).getLong(position(slot)) == 0;
+    }
+    
+    long offsetAt(long slot) {
+        return chunk(slot).getLong(position(slot)) - 1;
+    }
+    
+    int hashAt(long slot) {
+        return chunk(slot).getInt(position(slot) + 8);
+    }
+    
+    int lengthAt(long slot) {
+        return chunk(slot).getInt(position(slot) + 12);
+    }
+    
+    void set(long slot, int hash, long offset, int length) {
+        MappedByteBuffer chunk = chunk(slot);
+        int position = position(slot);
+        chunk.putInt(position + 8, hash);
+        chunk.putInt(position + 12, length);
+        chunk.putLong(position, offset + 1);
+    }
+    
+    long freeSlot(int hash) {
+        long slot = home(hash);
+        while (!isEmpty(slot)) {
+            slot = next(slot);
+        }
+        return slot;
+    }
+    
+    boolean isCurrent(int hash, long offset) {
+        for (long slot = home(hash); !isEmpty(slot); slot = next(slot)) {
+            if (offsetAt(slot) == offset) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    void clear(long slot) {
+        long hole = slot;
+        for (long next = next(hole); !isEmpty(next); next = next(next)) {
+            long home = home(hashAt(next));
+            boolean movable = hole <= next
+                ? home <= hole || home > next
+                : home <= hole && home > next;
+            if (movable) {
+                set(hole, hashAt(next), offsetAt(next), lengthAt(next));
+                hole = next;
+            }
+        }
+        chunk(hole).putLong(position(hole), 0);
+    }
+    
+    void copyTo(OffsetIndex target) {
+        for (long slot = 0; slot < capacity; slot++) {
+            if (!isEmpty(slot)) {
+                int hash = hashAt(slot);
+                target.set(target.freeSlot(hash), hash, offsetAt(slot), lengthAt(slot));
+            }
+        }
+    }
+    
+    private MappedByteBuffer chunk(long slot) {
+        return chunks[(int) (slot >>> CHUNK_SHIFT)];
+    }
+    
+    private static int position(long slot) {
+        return (int) (slot & CHUNK_MASK) * SLOT_SIZE;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    void delete() {
+        try {
+            close();
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.out.println("Warning: Could not delete old product index " + file + ": " + e.getMessage());
+        }
+    }
+}
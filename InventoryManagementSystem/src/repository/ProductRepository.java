@@ -0,0 +1,45 @@
+package repository;
+
+import model.Product;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductRepository {
+    
+    Product findById(String id);
+    
+    boolean contains(String id);
+    
+    void add(Product product);
+    
+    void update(Product product);
+    
+    Product remove(String id);
+    
+    Collection<Product> findAll();
+    
+    int size();
+    
+    default List<Product> findByQuantityBelow(int threshold) {
+        List<Product> found = new ArrayList<>();
+        for (Product product : findAll()) {
+            if (product.getQuantity() < threshold) {
+                found.add(product);
+            }
+        }
+        return found;
+    }
+    
+    default boolean isConcurrent() {
+        return false;
+    }
+    
+    default boolean requiresExclusiveUpdates() {
+        return !isConcurrent();
+    }
+    
+    default boolean isDiskResident() {
+        return false;
+    }
+}
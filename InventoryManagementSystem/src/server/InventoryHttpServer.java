@@ -0,0 +1,724 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import exception.FileFormatException;
+import exception.InvalidProductException;
+import exception.InventoryException;
+import exception.ProductNotFoundException;
+import exception.SupplierInUseException;
+import exception.SupplierNotFoundException;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.ImportReject;
+import model.ImportResult;
+import model.LedgerEntry;
+import model.Product;
+import model.ProductPage;
+import model.ProductSort;
+import model.StockMovement;
+import model.StockMovementResult;
+import model.Supplier;
+import service.ProductImporter;
+import service.ProductService;
+import service.StockLedger;
+import service.SupplierService;
+import service.WarehouseInventory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+public class InventoryHttpServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_PENDING = 1024;
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_BODY_BYTES = 1 << 20;
+    
+    private final ProductService productService;
+    private final SupplierService supplierService;
+    private final WarehouseInventory warehouses;
+    private final StockLedger ledger;
+    private final HttpServer server;
+    private final ExecutorService workers;
+    private final Semaphore pending;
+    private final boolean virtualThreads;
+    private final LatencyHistogram requestLatency = MetricsRegistry.getDefault().histogram("http.request");
+    private final Counter rejectedRequests = MetricsRegistry.getDefault().counter("http.rejected");
+    
+    public InventoryHttpServer(ProductService productService, SupplierService supplierService,
+                               int port, int maxPending) throws IOException {
+        this(productService, supplierService, null, null, port, maxPending);
+    }
+    
+    public InventoryHttpServer(ProductService productService, SupplierService supplierService,
+                               WarehouseInventory warehouses, StockLedger ledger,
+                               int port, int maxPending) throws IOException {
+        this.productService = productService;
+        this.supplierService = supplierService;
+        this.warehouses = warehouses;
+        this.ledger = ledger;
+        this.pending = new Semaphore(maxPending);
+        
+        ExecutorService virtual = virtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.workers = virtual != null ? virtual
+            : Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors() * 4));
+        
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        this.server.createContext("/", this::dispatch);
+    }
+    
+    // JVM-wide: the JDK server reads this once, so call it from main before the first server is created
+    public static void useTcpNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+    
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    public void stop() {
+        server.stop(1);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    private void dispatch(HttpExchange exchange) {
+        if (!pending.tryAcquire()) {
+            rejectedRequests.increment();
+            send(exchange, 503, error("Server busy, try again later"));
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    handle(exchange);
+                } finally {
+                    pending.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.release();
+            send(exchange, 503, error("Server is shutting down"));
+        }
+    }
+    
+    private void handle(HttpExchange exchange) {
+        long start = requestLatency.start();
+        int status;
+        Object body;
+        try {
+            String method = exchange.getRequestMethod();
+            String[] path = segments(exchange.getRequestURI().getPath());
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            Response response = route(method, path, query, exchange);
+            status = response.status;
+            body = response.body;
+        } catch (HttpStatusException e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (ProductNotFoundException | SupplierNotFoundException e) {
+            status = 404;
+            body = error(e.getMessage());
+        } catch (SupplierInUseException e) {
+            status = 409;
+            body = error(e.getMessage());
+        } catch (InvalidProductException | FileFormatException | IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (InventoryException | IOException | RuntimeException e) {
+            status = 500;
+            body = error(e.getMessage());
+        } catch (Throwable e) {
+            status = 500;
+            body = error(e.toString());
+        }
+        send(exchange, status, body);
+        requestLatency.stop(start);
+    }
+    
+    private Response route(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws InventoryException, IOException {
+        if (path.length == 0) {
+            throw new HttpStatusException(404, "Unknown resource");
+        }
+        switch (path[0]) {
+            case "products":
+                return products(productService, method, path, query, exchange);
+            case "warehouses":
+                return warehouses(method, path, query, exchange);
+            case "stock-transfers":
+                requireMethod(method, "POST");
+                return new Response(200, transfer(asObject(readBody(exchange))));
+            case "stock-levels":
+                requireMethod(method, "GET");
+                if (path.length != 2) {
+                    throw new HttpStatusException(404, "Unknown resource");
+                }
+                return new Response(200, requireWarehouses().getStockLevels(path[1]));
+            case "suppliers":
+                return suppliers(method, path, query, exchange);
+            case "stock-movements":
+                requireMethod(method, "POST");
+                return new Response(200, movements(readBody(exchange)));
+            case "reports":
+                return reports(method, path, query);
+            case "ledger":
+                requireMethod(method, "GET");
+                return ledger(path, query);
+            case "metrics":
+                requireMethod(method, "GET");
+                return metrics(query);
+            default:
+                throw new HttpStatusException(404, "Unknown resource: /" + path[0]);
+        }
+    }
+    
+    private Response products(ProductService service, String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws InventoryException, IOException {
+        if (path.length == 2 && path[1].equals("import") && method.equals("POST")) {
+            return new Response(200, importProducts(service, exchange));
+        }
+        if (path.length == 2 && path[1].equals("export") && method.equals("GET")) {
+            return new Response(200, (CsvBody) service::exportProducts);
+        }
+        if (path.length == 1) {
+            if (method.equals("POST")) {
+                Product product = toProduct(asObject(readBody(exchange)), new Product());
+                service.addProduct(product);
+                return new Response(201, productJson(service.searchProductById(product.getId())));
+            }
+            requireMethod(method, "GET");
+            if (query.containsKey("category") || query.containsKey("supplier")
+                    || query.containsKey("name") || query.containsKey("prefix")) {
+                return new Response(200, productsJson(findProducts(service, query)));
+            }
+            return new Response(200, pageJson(service.getProducts(
+                ProductSort.parse(query.getOrDefault("sort", "id")),
+                query.getOrDefault("order", "asc").equalsIgnoreCase("desc"),
+                query.get("cursor"),
+                Integer.parseInt(query.getOrDefault("limit", String.valueOf(DEFAULT_PAGE_SIZE))))));
+        }
+        
+        String id = path[1];
+        if (path.length == 3 && path[2].equals("stock")) {
+            requireMethod(method, "POST");
+            Object delta = asObject(readBody(exchange)).get("delta");
+            int quantity = service.adjustStock(id, toInt(delta, "delta"));
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", id);
+            result.put("quantity", quantity);
+            return new Response(200, result);
+        }
+        if (path.length != 2) {
+            throw new HttpStatusException(404, "Unknown resource");
+        }
+        
+        switch (method) {
+            case "GET":
+                return new Response(200, productJson(service.searchProductById(id)));
+            case "PUT":
+                Product updated = toProduct(asObject(readBody(exchange)), service.searchProductById(id));
+                service.updateProduct(id, updated);
+                return new Response(200, productJson(service.searchProductById(id)));
+            case "DELETE":
+                service.deleteProduct(id);
+                return new Response(204, null);
+            default:
+                throw new HttpStatusException(405, "Method not allowed: " + method);
+        }
+    }
+    
+    private static List<Product> findProducts(ProductService service, Map<String, String> query) {
+        if (query.containsKey("category")) {
+            return service.searchProductsByCategory(query.get("category"));
+        }
+        if (query.containsKey("supplier")) {
+            return service.searchProductsBySupplier(query.get("supplier"));
+        }
+        if (query.containsKey("name")) {
+            return query.containsKey("limit")
+                ? service.searchProductsByName(query.get("name"), Integer.parseInt(query.get("limit")))
+                : service.searchProductsByName(query.get("name"));
+        }
+        return service.searchProductsByNamePrefix(query.get("prefix"),
+            Integer.parseInt(query.getOrDefault("limit", "10")));
+    }
+    
+    private Response warehouses(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws InventoryException, IOException {
+        WarehouseInventory inventory = requireWarehouses();
+        if (path.length == 1) {
+            requireMethod(method, "GET");
+            Map<String, Double> values = inventory.getWarehouseValues();
+            List<Object> json = new ArrayList<>();
+            for (String warehouse : inventory.getWarehouses()) {
+                Map<String, Object> summary = new LinkedHashMap<>();
+                summary.put("name", warehouse);
+                summary.put("productCount", inventory.warehouse(warehouse).getProductCount());
+                summary.put("totalValue", values.get(warehouse));
+                json.add(summary);
+            }
+            return new Response(200, json);
+        }
+        if (!inventory.hasWarehouse(path[1])) {
+            throw new HttpStatusException(404, "Unknown warehouse: " + path[1]);
+        }
+        if (path.length < 3 || !path[2].equals("products")) {
+            throw new HttpStatusException(404, "Unknown resource");
+        }
+        return products(inventory.warehouse(path[1]), method, Arrays.copyOfRange(path, 2, path.length), query, exchange);
+    }
+    
+    private Map<String, Object> transfer(Map<?, ?> json) throws InventoryException {
+        String from = toText(json.get("from"));
+        String to = toText(json.get("to"));
+        String productId = toText(json.get("productId"));
+        int quantity = toInt(json.get("quantity"), "quantity");
+        WarehouseInventory inventory = requireWarehouses();
+        for (String warehouse : new String[] {from, to}) {
+            if (warehouse == null || !inventory.hasWarehouse(warehouse)) {
+                throw new HttpStatusException(404, "Unknown warehouse: " + warehouse);
+            }
+        }
+        inventory.transferStock(from, to, productId, quantity);
+        
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("productId", productId);
+        result.put("stockLevels", inventory.getStockLevels(productId));
+        return result;
+    }
+    
+    private Response ledger(String[] path, Map<String, String> query) throws IOException {
+        if (ledger == null) {
+            throw new HttpStatusException(404, "Stock ledger is not enabled");
+        }
+        long from = toTimestamp(query.get("from"), Long.MIN_VALUE);
+        long to = toTimestamp(query.get("to"), Long.MAX_VALUE);
+        if (path.length == 4 && path[1].equals("products") && path[3].equals("quantity")) {
+            long at = toTimestamp(query.get("at"), System.currentTimeMillis());
+            OptionalInt quantity = ledger.quantityAt(path[2], at);
+            if (quantity.isEmpty()) {
+                throw new HttpStatusException(404, "No ledger history for " + path[2]);
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("productId", path[2]);
+            result.put("at", Instant.ofEpochMilli(at).toString());
+            result.put("quantity", quantity.getAsInt());
+            return new Response(200, result);
+        }
+        if (path.length == 3 && path[1].equals("products")) {
+            return new Response(200, ledgerJson(ledger.getProductMovements(path[2], from, to)));
+        }
+        if (path.length == 3 && path[1].equals("categories")) {
+            return new Response(200, ledgerJson(ledger.getCategoryMovements(path[2], from, to)));
+        }
+        throw new HttpStatusException(404, "Unknown resource");
+    }
+    
+    private static long toTimestamp(String value, long defaultValue) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return value.chars().allMatch(Character::isDigit) ? Long.parseLong(value) : Instant.parse(value).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid timestamp: " + value);
+        }
+    }
+    
+    private static List<Object> ledgerJson(List<LedgerEntry> entries) {
+        List<Object> json = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            Map<String, Object> movement = new LinkedHashMap<>();
+            movement.put("timestamp", Instant.ofEpochMilli(entry.getTimestamp()).toString());
+            movement.put("productId", entry.getProductId());
+            movement.put("category", entry.getCategory());
+            movement.put("delta", entry.getDelta());
+            movement.put("quantity", entry.getQuantity());
+            json.add(movement);
+        }
+        return json;
+    }
+    
+    private WarehouseInventory requireWarehouses() {
+        if (warehouses == null) {
+            throw new HttpStatusException(404, "No warehouses configured");
+        }
+        return warehouses;
+    }
+    
+    private Response suppliers(String method, String[] path, Map<String, String> query, HttpExchange exchange)
+            throws InventoryException, IOException {
+        if (path.length == 1) {
+            if (method.equals("POST")) {
+                Supplier supplier = toSupplier(asObject(readBody(exchange)));
+                try {
+                    supplierService.addSupplier(supplier);
+                } catch (InventoryException e) {
+                    throw new HttpStatusException(400, e.getMessage());
+                }
+                return new Response(201, supplierJson(supplier));
+            }
+            requireMethod(method, "GET");
+            List<Object> suppliers = new ArrayList<>();
+            for (Supplier supplier : supplierService.getAllSuppliers()) {
+                suppliers.add(supplierJson(supplier));
+            }
+            return new Response(200, suppliers);
+        }
+        if (path.length != 2) {
+            throw new HttpStatusException(404, "Unknown resource");
+        }
+        if (method.equals("DELETE")) {
+            boolean cascade = Boolean.parseBoolean(query.getOrDefault("cascade", "false"));
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("id", path[1]);
+            result.put("deletedProducts", supplierService.deleteSupplier(path[1], cascade));
+            return new Response(200, result);
+        }
+        requireMethod(method, "GET");
+        Supplier supplier = supplierService.findSupplier(path[1]);
+        if (supplier == null) {
+            throw new HttpStatusException(404, "Supplier Not Found: ID: " + path[1]);
+        }
+        return new Response(200, supplierJson(supplier));
+    }
+    
+    private Map<String, Object> importProducts(ProductService service, HttpExchange exchange)
+            throws InventoryException, IOException {
+        Path rejectReport = ProductImporter.newRejectReport();
+        ImportResult result;
+        try (InputStream in = exchange.getRequestBody()) {
+            result = new ProductImporter(service, supplierService).importCsv(in, rejectReport);
+        }
+        
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("rows", result.getRows());
+        json.put("imported", result.getImported());
+        json.put("rejected", result.getRejected());
+        json.put("millis", result.getNanos() / 1_000_000);
+        if (result.getRejected() > 0) {
+            json.put("rejectReport", rejectReport.toString());
+        }
+        List<Object> rejects = new ArrayList<>();
+        for (ImportReject reject : result.getRejects()) {
+            Map<String, Object> rejectJson = new LinkedHashMap<>();
+            rejectJson.put("line", reject.getLine());
+            rejectJson.put("productId", reject.getProductId());
+            rejectJson.put("reason", reject.getReason());
+            rejects.add(rejectJson);
+        }
+        json.put("rejects", rejects);
+        return json;
+    }
+    
+    private List<Object> movements(Object body) throws InventoryException {
+        Object list = body instanceof Map ? ((Map<?, ?>) body).get("movements") : body;
+        if (!(list instanceof List)) {
+            throw new IllegalArgumentException("Expected a list of movements");
+        }
+        List<StockMovement> movements = new ArrayList<>();
+        for (Object element : (List<?>) list) {
+            if (!(element instanceof Map)) {
+                throw new IllegalArgumentException("Expected a movement object");
+            }
+            Map<?, ?> movement = (Map<?, ?>) element;
+            movements.add(new StockMovement(toText(movement.get("productId")), toInt(movement.get("delta"), "delta")));
+        }
+        
+        List<Object> results = new ArrayList<>();
+        for (StockMovementResult result : productService.applyMovements(movements)) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("productId", result.getMovement().getProductId());
+            json.put("delta", result.getMovement().getDelta());
+            json.put("applied", result.isApplied());
+            json.put("quantity", result.getQuantity());
+            if (result.getMessage() != null) {
+                json.put("message", result.getMessage());
+            }
+            results.add(json);
+        }
+        return results;
+    }
+    
+    private Response reports(String method, String[] path, Map<String, String> query) {
+        requireMethod(method, "GET");
+        if (path.length == 2 && path[1].equals("summary")) {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("productCount", productService.getProductCount());
+            summary.put("totalValue", productService.getTotalInventoryValue());
+            summary.put("categoryCounts", productService.getCategoryWiseCount());
+            summary.put("categoryValues", productService.getCategoryWiseValue());
+            summary.put("supplierValues", productService.getSupplierWiseValue());
+            return new Response(200, summary);
+        }
+        if (path.length == 2 && path[1].equals("warehouses")) {
+            WarehouseInventory inventory = requireWarehouses();
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("productCount", inventory.getProductCount());
+            summary.put("totalValue", inventory.getTotalInventoryValue());
+            summary.put("warehouseValues", inventory.getWarehouseValues());
+            summary.put("categoryCounts", inventory.getCategoryWiseCount());
+            summary.put("categoryValues", inventory.getCategoryWiseValue());
+            return new Response(200, summary);
+        }
+        if (path.length == 2 && path[1].equals("warehouse-low-stock")) {
+            int threshold = Integer.parseInt(query.getOrDefault("threshold", "10"));
+            Map<String, Object> lowStock = new LinkedHashMap<>();
+            requireWarehouses().getLowStockProducts(threshold)
+                .forEach((warehouse, products) -> lowStock.put(warehouse, productsJson(products)));
+            return new Response(200, lowStock);
+        }
+        if (path.length == 2 && path[1].equals("low-stock")) {
+            int threshold = Integer.parseInt(query.getOrDefault("threshold", "10"));
+            return new Response(200, productsJson(productService.getLowStockProducts(threshold)));
+        }
+        throw new HttpStatusException(404, "Unknown report");
+    }
+    
+    static Response metrics(Map<String, String> query) {
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        return query.getOrDefault("format", "text").equalsIgnoreCase("json")
+            ? new Response(200, metrics.snapshot())
+            : new Response(200, new Text(metrics.toText()));
+    }
+    
+    private static Product toProduct(Map<?, ?> json, Product product) {
+        if (json.containsKey("id")) {
+            product.setId(toText(json.get("id")));
+        }
+        if (json.containsKey("name")) {
+            product.setName(toText(json.get("name")));
+        }
+        if (json.containsKey("category")) {
+            product.setCategory(toText(json.get("category")));
+        }
+        if (json.containsKey("quantity")) {
+            product.setQuantity(toInt(json.get("quantity"), "quantity"));
+        }
+        if (json.containsKey("price")) {
+            Object price = json.get("price");
+            if (!(price instanceof Number)) {
+                throw new IllegalArgumentException("Field 'price' must be a number");
+            }
+            product.setPrice(((Number) price).doubleValue());
+        }
+        if (json.containsKey("supplierId")) {
+            product.setSupplierId(toText(json.get("supplierId")));
+        }
+        return product;
+    }
+    
+    private static Supplier toSupplier(Map<?, ?> json) {
+        return new Supplier(toText(json.get("id")), toText(json.get("name")), toText(json.get("contact")),
+            toText(json.get("email")), toText(json.get("phone")));
+    }
+    
+    private static String toText(Object value) {
+        return value == null ? null : value.toString();
+    }
+    
+    private static int toInt(Object value, String field) {
+        if (!(value instanceof Long) || (Long) value != ((Long) value).intValue()) {
+            throw new IllegalArgumentException("Field '" + field + "' must be an integer");
+        }
+        return ((Long) value).intValue();
+    }
+    
+    private static Map<?, ?> asObject(Object body) {
+        if (!(body instanceof Map)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return (Map<?, ?>) body;
+    }
+    
+    private static List<Object> productsJson(List<Product> products) {
+        List<Object> json = new ArrayList<>(products.size());
+        for (Product product : products) {
+            json.add(productJson(product));
+        }
+        return json;
+    }
+    
+    private static Map<String, Object> pageJson(ProductPage page) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("products", productsJson(page.getProducts()));
+        json.put("nextCursor", page.getNextCursor());
+        return json;
+    }
+    
+    private static Map<String, Object> productJson(Product product) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", product.getId());
+        json.put("name", product.getName());
+        json.put("category", product.getCategory());
+        json.put("quantity", product.getQuantity());
+        json.put("price", product.getPrice());
+        json.put("supplierId", product.getSupplierId());
+        return json;
+    }
+    
+    private static Map<String, Object> supplierJson(Supplier supplier) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("id", supplier.getId());
+        json.put("name", supplier.getName());
+        json.put("contact", supplier.getContact());
+        json.put("email", supplier.getEmail());
+        json.put("phone", supplier.getPhone());
+        return json;
+    }
+    
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("error", message);
+        return json;
+    }
+    
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new HttpStatusException(405, "Method not allowed: " + method);
+        }
+    }
+    
+    private static Object readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new HttpStatusException(413, "Request body exceeds " + MAX_BODY_BYTES + " bytes");
+            }
+            return Json.parse(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+    
+    private static String[] segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        return segments.toArray(new String[0]);
+    }
+    
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new LinkedHashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+    
+    static void send(HttpExchange exchange, int status, Object body) {
+        try {
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+            } else if (body instanceof CsvBody) {
+                exchange.getResponseHeaders().set("Content-Type", "text/csv; charset=utf-8");
+                exchange.sendResponseHeaders(status, 0);
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+                    ((CsvBody) body).writeTo(out);
+                }
+            } else {
+                boolean text = body instanceof Text;
+                byte[] bytes = (text ? body.toString() : Json.write(body)).getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type",
+                    text ? "text/plain; charset=utf-8" : "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Warning: Could not send response: " + e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    static class Response {
+        final int status;
+        final Object body;
+        
+        Response(int status, Object body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+    
+    private static class Text {
+        private final String text;
+        
+        Text(String text) {
+            this.text = text;
+        }
+        
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+    
+    private interface CsvBody {
+        void writeTo(Writer out) throws IOException;
+    }
+    
+    private static class HttpStatusException extends RuntimeException {
+        private final int status;
+        
+        HttpStatusException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package server;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MetricsEndpoint {
+    private final HttpServer server;
+    
+    public MetricsEndpoint(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            Map<String, String> query = new LinkedHashMap<>();
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null && rawQuery.contains("format=json")) {
+                query.put("format", "json");
+            }
+            InventoryHttpServer.Response response = InventoryHttpServer.metrics(query);
+            InventoryHttpServer.send(exchange, response.status, response.body);
+        });
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    public void stop() {
+        server.stop(0);
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+}
@@ -0,0 +1,92 @@
+package service;
+
+import model.Product;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class InventoryAggregates implements ProductChangeListener {
+    private static final double VALUE_SCALE = 10_000.0;
+    
+    private final LongAdder productCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+    private final ConcurrentHashMap<String, Totals> categories = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Totals> suppliers = new ConcurrentHashMap<>();
+    
+    @Override
+    public void productChanged(Product before, Product after) {
+        if (before != null) {
+            apply(before, -1);
+        }
+        if (after != null) {
+            apply(after, 1);
+        }
+    }
+    
+    private void apply(Product product, int sign) {
+        long value = valueOf(product);
+        productCount.add(sign);
+        totalValue.add(sign * value);
+        merge(categories, String.valueOf(product.getCategory()), sign, value);
+        merge(suppliers, String.valueOf(product.getSupplierId()), sign, value);
+    }
+    
+    private static void merge(ConcurrentHashMap<String, Totals> totals, String key, int sign, long value) {
+        totals.compute(key, (k, current) -> {
+            long count = (current == null ? 0 : current.count) + sign;
+            long sum = (current == null ? 0 : current.value) + sign * value;
+            return count == 0 ? null : new Totals(count, sum);
+        });
+    }
+    
+    static long valueOf(Product product) {
+        return Math.round(product.getQuantity() * product.getPrice() * VALUE_SCALE);
+    }
+    
+    public long getProductCount() {
+        return productCount.sum();
+    }
+    
+    public int getCategoryCount() {
+        return categories.size();
+    }
+    
+    public double getTotalValue() {
+        return totalValue.sum() / VALUE_SCALE;
+    }
+    
+    public Map<String, Long> getCategoryCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        categories.forEach((category, totals) -> counts.put(category, totals.count));
+        return counts;
+    }
+    
+    public Map<String, Double> getCategoryValues() {
+        Map<String, Double> values = new TreeMap<>();
+        categories.forEach((category, totals) -> values.put(category, totals.value / VALUE_SCALE));
+        return values;
+    }
+    
+    public long getSupplierProductCount(String supplierId) {
+        Totals totals = suppliers.get(String.valueOf(supplierId));
+        return totals == null ? 0 : totals.count;
+    }
+    
+    public Map<String, Double> getSupplierValues() {
+        Map<String, Double> values = new TreeMap<>();
+        suppliers.forEach((supplier, totals) -> values.put(supplier, totals.value / VALUE_SCALE));
+        return values;
+    }
+    
+    private static class Totals {
+        private final long count;
+        private final long value;
+        
+        private Totals(long count, long value) {
+            this.count = count;
+            this.value = value;
+        }
+    }
+}
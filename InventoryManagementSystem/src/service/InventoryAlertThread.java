@@ -1,18 +1,21 @@
 package service;
 
-import model.Product;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+
+import java.util.ArrayList;
 import java.util.List;
 
 public class InventoryAlertThread extends Thread {
-    private ProductService productService;
-    private int checkInterval;
-    private int lowStockThreshold;
+    private LowStockMonitor monitor;
     private volatile boolean running;
+    private final Counter lowAlerts = MetricsRegistry.getDefault().counter("alerts.low");
+    private final Counter restockAlerts = MetricsRegistry.getDefault().counter("alerts.restocked");
+    private final LatencyHistogram alertLatency = MetricsRegistry.getDefault().histogram("alerts.latency");
     
-    public InventoryAlertThread(ProductService productService, int checkInterval, int lowStockThreshold) {
-        this.productService = productService;
-        this.checkInterval = checkInterval * 1000;
-        this.lowStockThreshold = lowStockThreshold;
+    public InventoryAlertThread(LowStockMonitor monitor) {
+        this.monitor = monitor;
         this.running = true;
         this.setDaemon(true);
     }
@@ -21,19 +24,32 @@ public class InventoryAlertThread extends Thread {
     public void run() {
         while (running) {
             try {
-                List<Product> lowStockProducts = productService.getLowStockProducts(lowStockThreshold);
+                List<LowStockEvent> events = new ArrayList<>();
+                events.add(monitor.takeEvent());
+                events.addAll(monitor.drainEvents());
+                
+                List<LowStockEvent> low = new ArrayList<>();
+                List<LowStockEvent> restocked = new ArrayList<>();
+                for (LowStockEvent event : events) {
+                    (event.getType() == LowStockEvent.Type.LOW ? low : restocked).add(event);
+                }
                 
-                if (!lowStockProducts.isEmpty()) {
-                    synchronized (System.out) {
+                synchronized (System.out) {
+                    if (!low.isEmpty()) {
                         System.out.println("\n?? LOW STOCK ALERT! The following products are running low:");
-                        lowStockProducts.forEach(p -> 
+                        low.forEach(e ->
                             System.out.printf("   %s (ID: %s) - Only %d left!%n", 
-                                p.getName(), p.getId(), p.getQuantity()));
+                                e.getProduct().getName(), e.getProduct().getId(), e.getProduct().getQuantity()));
                         System.out.println("Please restock these items soon!\n");
                     }
+                    restocked.forEach(e ->
+                        System.out.printf("%n? Restocked: %s (ID: %s) - now %d in stock%n",
+                            e.getProduct().getName(), e.getProduct().getId(), e.getProduct().getQuantity()));
                 }
-                
-                Thread.sleep(checkInterval);
+                lowAlerts.add(low.size());
+                restockAlerts.add(restocked.size());
+                long now = System.nanoTime();
+                events.forEach(e -> alertLatency.record(now - e.getTimestampNanos()));
                 
             } catch (InterruptedException e) {
                 System.out.println("Inventory alert thread interrupted");
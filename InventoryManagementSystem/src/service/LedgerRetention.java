@@ -0,0 +1,35 @@
+package service;
+
+import persistence.LedgerSegment;
+
+public class LedgerRetention {
+    public static final int DEFAULT_RAW_DAYS = 90;
+    public static final int DEFAULT_DAILY_DAYS = 730;
+    private static final long DAY_MILLIS = 24L * 60 * 60 * 1000;
+    
+    private final int rawDays;
+    private final int dailyDays;
+    
+    public LedgerRetention(int rawDays, int dailyDays) {
+        if (rawDays < 1 || dailyDays < rawDays) {
+            throw new IllegalArgumentException("Ledger retention needs 1 <= raw days <= daily days");
+        }
+        this.rawDays = rawDays;
+        this.dailyDays = dailyDays;
+    }
+    
+    public int getRawDays() { return rawDays; }
+    
+    public int getDailyDays() { return dailyDays; }
+    
+    public LedgerSegment.Granularity rollupTarget(LedgerSegment segment, long now) {
+        switch (segment.getGranularity()) {
+            case RAW:
+                return segment.getMaxTime() < now - rawDays * DAY_MILLIS ? LedgerSegment.Granularity.DAILY : null;
+            case DAILY:
+                return segment.getMaxTime() < now - dailyDays * DAY_MILLIS ? LedgerSegment.Granularity.MONTHLY : null;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package service;
+
+import model.Product;
+
+public class LowStockEvent {
+    public enum Type { LOW, RESTOCKED }
+    
+    private final Type type;
+    private final Product product;
+    private final int threshold;
+    private final long timestampNanos;
+    
+    public LowStockEvent(Type type, Product product, int threshold) {
+        this.type = type;
+        this.product = product;
+        this.threshold = threshold;
+        this.timestampNanos = System.nanoTime();
+    }
+    
+    public Type getType() { return type; }
+    
+    public Product getProduct() { return product; }
+    
+    public int getThreshold() { return threshold; }
+    
+    public long getTimestampNanos() { return timestampNanos; }
+}
@@ -0,0 +1,95 @@
+package service;
+
+import exception.ProductNotFoundException;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class LowStockMonitor implements ProductChangeListener {
+    private final ProductService productService;
+    private final StockThresholds thresholds;
+    private final Set<String> lowStockIds = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<LowStockEvent> events = new LinkedBlockingQueue<>();
+    private final LatencyHistogram scanLatency = MetricsRegistry.getDefault().histogram("alerts.scan");
+    
+    public LowStockMonitor(ProductService productService, StockThresholds thresholds) {
+        this.productService = productService;
+        this.thresholds = thresholds;
+        productService.addChangeListener(this);
+        MetricsRegistry.getDefault().gauge("alerts.lowStockProducts", lowStockIds::size);
+    }
+    
+    @Override
+    public void productChanged(Product before, Product after) {
+        if (after == null) {
+            lowStockIds.remove(before.getId());
+            return;
+        }
+        evaluate(after);
+    }
+    
+    private void evaluate(Product product) {
+        int threshold = thresholds.thresholdFor(product);
+        if (product.getQuantity() < threshold) {
+            if (lowStockIds.add(product.getId())) {
+                events.offer(new LowStockEvent(LowStockEvent.Type.LOW, product, threshold));
+            }
+        } else if (lowStockIds.remove(product.getId())) {
+            events.offer(new LowStockEvent(LowStockEvent.Type.RESTOCKED, product, threshold));
+        }
+    }
+    
+    public StockThresholds getThresholds() {
+        return thresholds;
+    }
+    
+    public void thresholdsChanged() {
+        long start = scanLatency.start();
+        for (Product product : productService.getAllProducts()) {
+            String id = product.getId();
+            productService.withCurrentProduct(id, current -> {
+                if (current == null) {
+                    lowStockIds.remove(id);
+                } else {
+                    evaluate(current);
+                }
+            });
+        }
+        scanLatency.stop(start);
+    }
+    
+    public LowStockEvent takeEvent() throws InterruptedException {
+        return events.take();
+    }
+    
+    public List<LowStockEvent> drainEvents() {
+        List<LowStockEvent> drained = new ArrayList<>();
+        events.drainTo(drained);
+        return drained;
+    }
+    
+    public boolean isLowStock(String productId) {
+        return lowStockIds.contains(productId);
+    }
+    
+    public List<Product> getLowStockProducts() {
+        List<Product> lowStock = new ArrayList<>();
+        for (String id : lowStockIds) {
+            try {
+                lowStock.add(productService.searchProductById(id));
+            } catch (ProductNotFoundException e) {
+                lowStockIds.remove(id);
+            }
+        }
+        lowStock.sort(Comparator.comparing(Product::getId));
+        return lowStock;
+    }
+}
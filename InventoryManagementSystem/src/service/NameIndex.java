@@ -0,0 +1,365 @@
+package service;
+
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class NameIndex implements ProductChangeListener {
+    private static final int COMPACT_MIN = 1024;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docs = new HashMap<>();
+    private final Map<Long, IntList> trigrams = new HashMap<>();
+    private final TreeMap<String, IntList> sortedNames = new TreeMap<>();
+    private final IntList freeDocs = new IntList();
+    private final IntList deadDocs = new IntList();
+    private String[] ids = new String[16];
+    private String[] names = new String[16];
+    private int docCount;
+    
+    @Override
+    public void productChanged(Product before, Product after) {
+        if (before != null && after != null && Objects.equals(before.getName(), after.getName())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (before != null) {
+                remove(before.getId());
+            }
+            if (after != null) {
+                add(after.getId(), normalize(after.getName()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    private void add(String id, String name) {
+        int doc;
+        if (freeDocs.size() > 0) {
+            doc = freeDocs.removeLast();
+        } else {
+            if (docCount == ids.length) {
+                ids = Arrays.copyOf(ids, docCount * 2);
+                names = Arrays.copyOf(names, docCount * 2);
+            }
+            doc = docCount++;
+        }
+        ids[doc] = id;
+        names[doc] = name;
+        docs.put(id, doc);
+        
+        for (long trigram : trigramsOf(name)) {
+            trigrams.computeIfAbsent(trigram, k -> new IntList()).add(doc);
+        }
+        sortedNames.computeIfAbsent(name, k -> new IntList()).add(doc);
+    }
+    
+    private void remove(String id) {
+        Integer doc = docs.remove(id);
+        if (doc == null) {
+            return;
+        }
+        ids[doc] = null;
+        names[doc] = null;
+        deadDocs.add(doc);
+        if (deadDocs.size() >= Math.max(COMPACT_MIN, docs.size() / 4)) {
+            compact();
+        }
+    }
+    
+    private void compact() {
+        trigrams.values().removeIf(postings -> postings.retainLive(ids) == 0);
+        sortedNames.values().removeIf(sameName -> sameName.retainLive(ids) == 0);
+        for (int i = 0; i < deadDocs.size(); i++) {
+            freeDocs.add(deadDocs.get(i));
+        }
+        deadDocs.clear();
+    }
+    
+    public List<String> findContaining(String query) {
+        String needle = normalize(query);
+        lock.readLock().lock();
+        try {
+            List<String> found = new ArrayList<>();
+            IntList candidates = candidatesFor(needle);
+            if (candidates == null) {
+                for (int doc = 0; doc < docCount; doc++) {
+                    if (names[doc] != null && names[doc].contains(needle)) {
+                        found.add(ids[doc]);
+                    }
+                }
+            } else {
+                for (int i = 0; i < candidates.size(); i++) {
+                    int doc = candidates.get(i);
+                    if (names[doc] != null && names[doc].contains(needle)) {
+                        found.add(ids[doc]);
+                    }
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public List<String> findByPrefix(String prefix, int limit) {
+        String start = normalize(prefix);
+        lock.readLock().lock();
+        try {
+            List<String> found = new ArrayList<>();
+            SortedMap<String, IntList> matches = sortedNames.subMap(start, start + Character.MAX_VALUE);
+            for (IntList sameName : matches.values()) {
+                for (int i = 0; i < sameName.size() && found.size() < limit; i++) {
+                    String id = ids[sameName.get(i)];
+                    if (id != null) {
+                        found.add(id);
+                    }
+                }
+                if (found.size() >= limit) {
+                    break;
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public List<String> findTop(String query, int limit) {
+        String needle = normalize(query);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, (a, b) -> b.compareTo(a));
+            IntList candidates = candidatesFor(needle);
+            int total = candidates == null ? docCount : candidates.size();
+            for (int i = 0; i < total; i++) {
+                int doc = candidates == null ? i : candidates.get(i);
+                String name = names[doc];
+                if (name == null) {
+                    continue;
+                }
+                int position = name.indexOf(needle);
+                if (position < 0) {
+                    continue;
+                }
+                best.add(new Match(ids[doc], name, rank(name, position)));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            
+            List<Match> ordered = new ArrayList<>(best);
+            ordered.sort(null);
+            List<String> found = new ArrayList<>(ordered.size());
+            for (Match match : ordered) {
+                found.add(match.id);
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    static List<Product> scanContaining(Iterable<Product> products, String query) {
+        String needle = normalize(query);
+        List<Product> found = new ArrayList<>();
+        for (Product product : products) {
+            if (normalize(product.getName()).contains(needle)) {
+                found.add(product);
+            }
+        }
+        return found;
+    }
+    
+    static List<Product> scanTop(Iterable<Product> products, String query, int limit) {
+        String needle = normalize(query);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, (a, b) -> b.compareTo(a));
+        for (Product product : products) {
+            String name = normalize(product.getName());
+            int position = name.indexOf(needle);
+            if (position < 0) {
+                continue;
+            }
+            best.add(new Match(product, name, rank(name, position)));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        return ordered(best, null);
+    }
+    
+    static List<Product> scanByPrefix(Iterable<Product> products, String prefix, int limit) {
+        String start = normalize(prefix);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        Comparator<Match> byName = Comparator.comparing((Match match) -> match.name).thenComparing(match -> match.id);
+        PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, byName.reversed());
+        for (Product product : products) {
+            String name = normalize(product.getName());
+            if (!name.startsWith(start)) {
+                continue;
+            }
+            best.add(new Match(product, name, 0));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        return ordered(best, byName);
+    }
+    
+    private static List<Product> ordered(PriorityQueue<Match> best, Comparator<Match> order) {
+        List<Match> matches = new ArrayList<>(best);
+        matches.sort(order);
+        List<Product> found = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            found.add(match.product);
+        }
+        return found;
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private IntList candidatesFor(String needle) {
+        if (needle.length() < 3) {
+            return null;
+        }
+        IntList smallest = null;
+        for (long trigram : trigramsOf(needle)) {
+            IntList postings = trigrams.get(trigram);
+            if (postings == null) {
+                return new IntList();
+            }
+            if (smallest == null || postings.size() < smallest.size()) {
+                smallest = postings;
+            }
+        }
+        return smallest;
+    }
+    
+    private static int rank(String name, int position) {
+        if (position == 0) {
+            return 0;
+        }
+        return Character.isLetterOrDigit(name.charAt(position - 1)) ? 2 : 1;
+    }
+    
+    private static String normalize(String name) {
+        return String.valueOf(name).toLowerCase();
+    }
+    
+    private static long[] trigramsOf(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] keys = new long[text.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+    
+    private static class Match implements Comparable<Match> {
+        private final String id;
+        private final String name;
+        private final int rank;
+        private final Product product;
+        
+        Match(String id, String name, int rank) {
+            this.id = id;
+            this.name = name;
+            this.rank = rank;
+            this.product = null;
+        }
+        
+        Match(Product product, String name, int rank) {
+            this.id = product.getId();
+            this.name = name;
+            this.rank = rank;
+            this.product = product;
+        }
+        
+        @Override
+        public int compareTo(Match other) {
+            if (rank != other.rank) {
+                return Integer.compare(rank, other.rank);
+            }
+            if (name.length() != other.name.length()) {
+                return Integer.compare(name.length(), other.name.length());
+            }
+            int byName = name.compareTo(other.name);
+            return byName != 0 ? byName : id.compareTo(other.id);
+        }
+    }
+    
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+        
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+        
+        int get(int index) {
+            return values[index];
+        }
+        
+        int size() {
+            return size;
+        }
+        
+        int removeLast() {
+            return values[--size];
+        }
+        
+        void clear() {
+            size = 0;
+        }
+        
+        int retainLive(String[] ids) {
+            int live = 0;
+            for (int i = 0; i < size; i++) {
+                if (ids[values[i]] != null) {
+                    values[live++] = values[i];
+                }
+            }
+            size = live;
+            return live;
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package service;
+
+import model.Product;
+
+@FunctionalInterface
+public interface ProductChangeListener {
+    
+    void productChanged(Product before, Product after);
+}
@@ -0,0 +1,335 @@
+package service;
+
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.ImportReject;
+import model.ImportResult;
+import model.Product;
+import persistence.ProductCodec;
+import util.CsvStreamReader;
+import util.CsvWriter;
+import exception.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ProductImporter {
+    public static final int DEFAULT_BATCH_SIZE = 1024;
+    public static final int DEFAULT_QUEUE_BATCHES = 16;
+    public static final int DEFAULT_COMMIT_SIZE = 65536;
+    public static final String REJECTS_DIR = "data/imports";
+    private static final DateTimeFormatter REPORT_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final AtomicInteger REPORTS = new AtomicInteger();
+    private static final int REJECT_SAMPLE = 100;
+    private static final List<Row> END = new ArrayList<>();
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final Counter IMPORTED = METRICS.counter("import.imported");
+    private static final Counter REJECTED = METRICS.counter("import.rejected");
+    private static final LatencyHistogram IMPORT_LATENCY = METRICS.histogram("import.run");
+    
+    private final ProductService productService;
+    private final SupplierService supplierService;
+    private final int batchSize;
+    private final int queueBatches;
+    private final int commitSize;
+    
+    public ProductImporter(ProductService productService, SupplierService supplierService) {
+        this(productService, supplierService, DEFAULT_BATCH_SIZE, DEFAULT_QUEUE_BATCHES, DEFAULT_COMMIT_SIZE);
+    }
+    
+    public ProductImporter(ProductService productService, SupplierService supplierService,
+                           int batchSize, int queueBatches, int commitSize) {
+        if (batchSize <= 0 || queueBatches <= 0 || commitSize <= 0) {
+            throw new IllegalArgumentException("Import batch sizes must be positive");
+        }
+        this.productService = productService;
+        this.supplierService = supplierService;
+        this.batchSize = batchSize;
+        this.queueBatches = queueBatches;
+        this.commitSize = commitSize;
+    }
+    
+    public static Path newRejectReport() {
+        return Paths.get(REJECTS_DIR, "rejects-" + LocalDateTime.now().format(REPORT_TIME)
+            + "-" + REPORTS.incrementAndGet() + ".csv");
+    }
+    
+    public ImportResult importCsv(Path file, Path rejectReport) throws IOException, FileFormatException, InventoryException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return importCsv(in, rejectReport);
+        }
+    }
+    
+    public ImportResult importCsv(InputStream in, Path rejectReport) throws IOException, FileFormatException, InventoryException {
+        if (rejectReport.getParent() != null) {
+            Files.createDirectories(rejectReport.getParent());
+        }
+        ImportResult result;
+        try (Writer report = Files.newBufferedWriter(rejectReport, StandardCharsets.UTF_8)) {
+            result = importCsv(in, report);
+        }
+        if (result.getRejected() == 0) {
+            Files.deleteIfExists(rejectReport);
+        }
+        return result;
+    }
+    
+    public ImportResult importCsv(InputStream in, Writer rejectReport) throws IOException, FileFormatException, InventoryException {
+        long start = IMPORT_LATENCY.start();
+        Run run = new Run(rejectReport);
+        Thread validator = new Thread(run::validate, "import-validate");
+        Thread applier = new Thread(run::apply, "import-apply");
+        validator.setDaemon(true);
+        applier.setDaemon(true);
+        validator.start();
+        applier.start();
+        
+        try {
+            run.parse(in);
+        } finally {
+            put(run.parsed, END);
+            join(validator);
+            join(applier);
+            IMPORT_LATENCY.stop(start);
+        }
+        run.rethrow();
+        return new ImportResult(run.rows, run.imported, run.rejected, run.sample, System.nanoTime() - start);
+    }
+    
+    private static <T> void put(BlockingQueue<T> queue, T value) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(value);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private static <T> T take(BlockingQueue<T> queue) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return queue.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private static void join(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private class Run {
+        private final BlockingQueue<List<Row>> parsed = new ArrayBlockingQueue<>(queueBatches);
+        private final BlockingQueue<List<Row>> validated = new ArrayBlockingQueue<>(queueBatches);
+        private final ProductCodec codec = new ProductCodec();
+        private final CsvWriter report;
+        private final List<ImportReject> sample = new ArrayList<>();
+        private List<Row> batch = new ArrayList<>(batchSize);
+        private volatile Exception failure;
+        private long rows;
+        private long imported;
+        private long rejected;
+        
+        Run(Writer rejectReport) {
+            this.report = new CsvWriter(rejectReport);
+        }
+        
+        void parse(InputStream in) throws IOException, FileFormatException {
+            CsvStreamReader.read(in, record -> {
+                rows++;
+                if (failure != null) {
+                    return;
+                }
+                Row row = new Row(record.getLineNumber());
+                try {
+                    row.product = codec.fromRecord(record);
+                    if (row.product == null) {
+                        row.error = "Expected 6 fields but found " + record.size();
+                    }
+                } catch (NumberFormatException e) {
+                    row.error = "Invalid number: " + e.getMessage();
+                }
+                if (row.error != null) {
+                    row.fields = record.toArray();
+                }
+                
+                batch.add(row);
+                if (batch.size() >= batchSize) {
+                    put(parsed, batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            });
+            if (!batch.isEmpty()) {
+                put(parsed, batch);
+            }
+        }
+        
+        void validate() {
+            List<Row> next;
+            while ((next = take(parsed)) != END) {
+                if (failure == null) {
+                    try {
+                        for (Row row : next) {
+                            if (row.error == null) {
+                                row.error = validationError(row.product);
+                            }
+                        }
+                    } catch (RuntimeException e) {
+                        fail(e);
+                    }
+                }
+                put(validated, next);
+            }
+            put(validated, END);
+        }
+        
+        private String validationError(Product product) {
+            String error = ProductService.validationError(product);
+            if (error == null && !supplierService.hasSupplier(product.getSupplierId())) {
+                error = "Unknown supplier: " + product.getSupplierId();
+            }
+            return error;
+        }
+        
+        void apply() {
+            List<Row> pending = new ArrayList<>();
+            List<Row> next;
+            while ((next = take(validated)) != END) {
+                if (failure != null) {
+                    continue;
+                }
+                try {
+                    for (Row row : next) {
+                        if (row.error != null) {
+                            reject(row);
+                        } else {
+                            pending.add(row);
+                        }
+                    }
+                    if (pending.size() >= commitSize) {
+                        commit(pending);
+                        pending.clear();
+                    }
+                } catch (IOException | InventoryException | RuntimeException e) {
+                    fail(e);
+                }
+            }
+            
+            if (failure == null) {
+                try {
+                    commit(pending);
+                    report.flush();
+                } catch (IOException | InventoryException | RuntimeException e) {
+                    fail(e);
+                }
+            }
+        }
+        
+        private void commit(List<Row> pending) throws IOException, InventoryException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            List<Product> products = new ArrayList<>(pending.size());
+            for (Row row : pending) {
+                products.add(row.product);
+            }
+            List<String> errors = productService.addProducts(products);
+            
+            long committed = 0;
+            for (int i = 0; i < pending.size(); i++) {
+                Row row = pending.get(i);
+                row.error = errors.get(i);
+                if (row.error == null) {
+                    committed++;
+                } else {
+                    reject(row);
+                }
+            }
+            imported += committed;
+            IMPORTED.add(committed);
+        }
+        
+        private void reject(Row row) throws IOException {
+            String[] fields = row.fields != null ? row.fields : codec.toFields(row.product);
+            String id = row.product != null ? row.product.getId() : fields.length > 0 ? fields[0] : null;
+            if (sample.size() < REJECT_SAMPLE) {
+                sample.add(new ImportReject(row.line, id, row.error));
+            }
+            rejected++;
+            REJECTED.increment();
+            
+            report.writeField(row.line).writeField(row.error);
+            for (String field : fields) {
+                report.writeField(field);
+            }
+            report.endRecord();
+        }
+        
+        private synchronized void fail(Exception e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+        
+        void rethrow() throws IOException, InventoryException {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure instanceof InventoryException) {
+                throw (InventoryException) failure;
+            }
+            if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            }
+        }
+    }
+    
+    private static class Row {
+        private final int line;
+        private Product product;
+        private String[] fields;
+        private String error;
+        
+        Row(int line) {
+            this.line = line;
+        }
+    }
+}
@@ -1,36 +1,110 @@
 package service;
 
 import model.Product;
-import util.FileUtil;
+import model.ProductPage;
+import model.ProductSort;
+import model.StockMovement;
+import model.StockMovementResult;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import persistence.CsvPersistence;
+import persistence.MeteredPersistence;
+import persistence.Persistence;
+import persistence.ProductCodec;
+import repository.HashProductRepository;
+import repository.ProductRepository;
+import util.CsvWriter;
+import util.StripedLock;
+import util.SymbolTable;
 import exception.*;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 public class ProductService {
-    private static final String PRODUCTS_FILE = "data/products.csv";
-    private List<Product> products;
+    public static final String PRODUCTS_FILE = "data/products.csv";
+    private static final int STREAM_PAGE_SIZE = 65_536;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    
+    private ProductRepository products;
+    private Persistence<Product> persistence;
+    private volatile SupplierService supplierService;
+    private final ReentrantReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private final StripedLock productLocks = new StripedLock(256);
+    private final List<ProductChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final InventoryAggregates aggregates = new InventoryAggregates();
+    private final SecondaryIndexes indexes = new SecondaryIndexes();
+    private final NameIndex nameIndex = new NameIndex();
+    private final SymbolTable categories = new SymbolTable();
+    private final SymbolTable suppliers = new SymbolTable();
+    private final Map<ProductSort, SortedProductIndex> sortedIndexes = new EnumMap<>(ProductSort.class);
+    private final LatencyHistogram addLatency;
+    private final LatencyHistogram updateLatency;
+    private final LatencyHistogram deleteLatency;
+    private final LatencyHistogram stockLatency;
+    private final LatencyHistogram movementsLatency;
+    private final LatencyHistogram searchByIdLatency;
+    private final LatencyHistogram searchByNameLatency;
+    private final LatencyHistogram searchByCategoryLatency;
+    private final LatencyHistogram searchBySupplierLatency;
+    private final LatencyHistogram pageLatency;
+    private final LatencyHistogram lowStockLatency;
+    private final LatencyHistogram reportLatency;
+    private final LatencyHistogram bulkAddLatency;
+    private final LatencyHistogram exportLatency;
     
     public ProductService() {
-        this.products = new ArrayList<>();
+        this(new HashProductRepository());
+    }
+    
+    public ProductService(ProductRepository repository) {
+        this(repository, new CsvPersistence<>(PRODUCTS_FILE, new ProductCodec()));
+    }
+    
+    public ProductService(ProductRepository repository, Persistence<Product> persistence) {
+        this(repository, persistence, "product");
+    }
+    
+    public ProductService(ProductRepository repository, Persistence<Product> persistence, String metricsPrefix) {
+        this.products = repository;
+        this.persistence = new MeteredPersistence<>(persistence, metricsPrefix);
+        this.addLatency = METRICS.histogram(metricsPrefix + ".add");
+        this.updateLatency = METRICS.histogram(metricsPrefix + ".update");
+        this.deleteLatency = METRICS.histogram(metricsPrefix + ".delete");
+        this.stockLatency = METRICS.histogram(metricsPrefix + ".adjustStock");
+        this.movementsLatency = METRICS.histogram(metricsPrefix + ".applyMovements");
+        this.searchByIdLatency = METRICS.histogram(metricsPrefix + ".searchById");
+        this.searchByNameLatency = METRICS.histogram(metricsPrefix + ".searchByName");
+        this.searchByCategoryLatency = METRICS.histogram(metricsPrefix + ".searchByCategory");
+        this.searchBySupplierLatency = METRICS.histogram(metricsPrefix + ".searchBySupplier");
+        this.pageLatency = METRICS.histogram(metricsPrefix + ".page");
+        this.lowStockLatency = METRICS.histogram(metricsPrefix + ".lowStock");
+        this.reportLatency = METRICS.histogram(metricsPrefix + ".report");
+        this.bulkAddLatency = METRICS.histogram(metricsPrefix + ".addProducts");
+        this.exportLatency = METRICS.histogram(metricsPrefix + ".export");
         loadProducts();
+        addChangeListener(aggregates);
+        if (!products.isDiskResident()) {
+            addChangeListener(indexes);
+            addChangeListener(nameIndex);
+        }
+        METRICS.gauge(metricsPrefix + ".count", aggregates::getProductCount);
+        METRICS.gauge(metricsPrefix + ".categories", aggregates::getCategoryCount);
     }
     
     private void loadProducts() {
         try {
-            List<String[]> records = FileUtil.readCSV(PRODUCTS_FILE);
-            for (String[] record : records) {
-                if (record.length >= 6) {
-                    Product product = new Product(
-                        record[0], record[1], record[2],
-                        Integer.parseInt(record[3]),
-                        Double.parseDouble(record[4]),
-                        record[5]
-                    );
-                    products.add(product);
-                }
-            }
+            persistence.open(product -> products.add(canonicalize(product)), this::snapshotProducts);
+            persistence.getLoadErrors().forEach(error ->
+                System.out.println("Warning: Skipped product record: " + error));
         } catch (IOException | FileFormatException e) {
             System.out.println("Warning: Could not load products: " + e.getMessage());
         } catch (NumberFormatException e) {
@@ -38,114 +112,767 @@ public class ProductService {
         }
     }
     
-    private void saveProducts() throws IOException {
-        List<String[]> data = products.stream()
-            .map(Product::toCSV)
-            .map(csv -> csv.split(","))
-            .collect(Collectors.toList());
-        FileUtil.writeCSV(PRODUCTS_FILE, data);
+    private Product canonicalize(Product product) {
+        product.setCategory(categories.canonical(product.getCategory()));
+        product.setSupplierId(suppliers.canonical(product.getSupplierId()));
+        return product;
     }
     
-    public void addProduct(Product product) throws InventoryException {
+    private List<Product> snapshotProducts() {
+        snapshotLock.writeLock().lock();
+        try {
+            List<Product> snapshot = new ArrayList<>(products.size());
+            for (Product product : products.findAll()) {
+                snapshot.add(new Product(product));
+            }
+            return snapshot;
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+    
+    public void setSupplierService(SupplierService supplierService) {
+        this.supplierService = supplierService;
+        supplierService.addProductService(this);
+    }
+    
+    private String supplierError(String supplierId) {
+        SupplierService known = supplierService;
+        return known == null || known.hasSupplier(supplierId) ? null : "Unknown supplier: " + supplierId;
+    }
+    
+    private List<Lock> lockSuppliers(Collection<String> supplierIds) {
+        SupplierService known = supplierService;
+        List<Lock> locks = known == null ? Collections.emptyList() : known.referenceLocks(supplierIds);
+        locks.forEach(Lock::lock);
+        return locks;
+    }
+    
+    private static void unlockAll(List<Lock> locks) {
+        for (int i = locks.size() - 1; i >= 0; i--) {
+            locks.get(i).unlock();
+        }
+    }
+    
+    public void addChangeListener(ProductChangeListener listener) {
+        snapshotLock.writeLock().lock();
+        try {
+            for (Product product : products.findAll()) {
+                listener.productChanged(null, new Product(product));
+            }
+            listeners.add(listener);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+    
+    public void removeChangeListener(ProductChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private void fireChange(Product before, Product after) {
+        for (ProductChangeListener listener : listeners) {
+            listener.productChanged(before, after);
+        }
+    }
+    
+    private Lock structuralLock() {
+        return products.isConcurrent() ? snapshotLock.readLock() : snapshotLock.writeLock();
+    }
+    
+    private Lock updateLock() {
+        return products.requiresExclusiveUpdates() ? snapshotLock.writeLock() : snapshotLock.readLock();
+    }
+    
+    private Lock searchLock() {
+        return products.isDiskResident() ? snapshotLock.writeLock() : snapshotLock.readLock();
+    }
+    
+    public void flush() throws InventoryException {
+        try {
+            persistence.flush();
+        } catch (IOException e) {
+            throw new InventoryException("Failed to save products: " + e.getMessage());
+        }
+    }
+    
+    public void close() {
+        try {
+            persistence.close();
+        } catch (IOException e) {
+            System.out.println("Warning: Could not close product storage: " + e.getMessage());
+        }
+    }
+    
+    public static String validationError(Product product) {
         if (product.getId() == null || product.getId().trim().isEmpty()) {
-            throw new InvalidProductException("Product ID cannot be empty");
+            return "Product ID cannot be empty";
         }
         if (product.getName() == null || product.getName().trim().isEmpty()) {
-            throw new InvalidProductException("Product name cannot be empty");
+            return "Product name cannot be empty";
         }
         if (product.getQuantity() < 0) {
-            throw new InvalidProductException("Quantity cannot be negative");
+            return "Quantity cannot be negative";
         }
         if (product.getPrice() < 0) {
-            throw new InvalidProductException("Price cannot be negative");
+            return "Price cannot be negative";
+        }
+        return null;
+    }
+    
+    public void addProduct(Product product) throws InventoryException {
+        String error = validationError(product);
+        if (error != null) {
+            throw new InvalidProductException(error);
         }
         
-        if (products.stream().anyMatch(p -> p.getId().equals(product.getId()))) {
-            throw new InvalidProductException("Product with ID " + product.getId() + " already exists");
+        long start = addLatency.start();
+        List<Lock> supplierLocks = lockSuppliers(Collections.singleton(product.getSupplierId()));
+        Lock productLock = productLocks.get(product.getId());
+        productLock.lock();
+        try {
+            error = supplierError(product.getSupplierId());
+            if (error != null) {
+                throw new InvalidProductException(error);
+            }
+            
+            Lock lock = structuralLock();
+            lock.lock();
+            try {
+                if (products.contains(product.getId())) {
+                    throw new InvalidProductException("Product with ID " + product.getId() + " already exists");
+                }
+                products.add(canonicalize(product));
+                fireChange(null, new Product(product));
+            } finally {
+                lock.unlock();
+            }
+            
+            try {
+                persistence.put(product);
+            } catch (IOException e) {
+                throw new InventoryException("Failed to save product: " + e.getMessage());
+            }
+        } finally {
+            productLock.unlock();
+            unlockAll(supplierLocks);
+            addLatency.stop(start);
+        }
+    }
+    
+    public List<String> addProducts(List<Product> batch) throws InventoryException {
+        long start = bulkAddLatency.start();
+        Set<String> ids = new HashSet<>();
+        Set<String> supplierIds = new HashSet<>();
+        for (Product product : batch) {
+            if (validationError(product) == null) {
+                ids.add(product.getId());
+                supplierIds.add(product.getSupplierId());
+            }
         }
         
-        products.add(product);
+        List<Lock> supplierLocks = lockSuppliers(supplierIds);
+        List<Lock> locks = productLocks.getAll(ids);
+        locks.forEach(Lock::lock);
         try {
-            saveProducts();
-        } catch (IOException e) {
-            throw new InventoryException("Failed to save product: " + e.getMessage());
+            List<String> errors = new ArrayList<>(batch.size());
+            List<Product> added = new ArrayList<>(ids.size());
+            
+            Lock lock = structuralLock();
+            lock.lock();
+            try {
+                for (Product product : batch) {
+                    String error = validationError(product);
+                    if (error == null) {
+                        error = supplierError(product.getSupplierId());
+                    }
+                    if (error == null && products.contains(product.getId())) {
+                        error = "Product with ID " + product.getId() + " already exists";
+                    }
+                    if (error == null) {
+                        products.add(canonicalize(product));
+                        fireChange(null, new Product(product));
+                        added.add(product);
+                    }
+                    errors.add(error);
+                }
+            } finally {
+                lock.unlock();
+            }
+            
+            if (!added.isEmpty()) {
+                try {
+                    persistence.putAll(added);
+                } catch (IOException e) {
+                    throw new InventoryException("Failed to save products: " + e.getMessage());
+                }
+            }
+            return errors;
+        } finally {
+            unlockAll(locks);
+            unlockAll(supplierLocks);
+            bulkAddLatency.stop(start);
+        }
+    }
+    
+    public long exportProducts(Writer out) throws IOException {
+        long start = exportLatency.start();
+        ProductCodec codec = new ProductCodec();
+        CsvWriter writer = new CsvWriter(out);
+        long count = 0;
+        try {
+            if (products.isDiskResident()) {
+                Lock lock = searchLock();
+                lock.lock();
+                try {
+                    for (Product product : products.findAll()) {
+                        codec.write(product, writer);
+                        count++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            } else {
+                Iterator<Product> all = streamProducts(ProductSort.ID).iterator();
+                while (all.hasNext()) {
+                    codec.write(all.next(), writer);
+                    count++;
+                }
+            }
+            writer.flush();
+            return count;
+        } finally {
+            exportLatency.stop(start);
         }
     }
     
     public List<Product> getAllProducts() {
-        return new ArrayList<>(products);
+        return snapshotProducts();
+    }
+    
+    public ProductPage getProducts(ProductSort sort, boolean descending, String cursor, int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        long start = pageLatency.start();
+        if (products.isDiskResident()) {
+            try {
+                return scanPage(sort, descending, cursor, pageSize);
+            } finally {
+                pageLatency.stop(start);
+            }
+        }
+        SortedProductIndex index = sortedIndex(sort);
+        snapshotLock.readLock().lock();
+        try {
+            List<Product> page = new ArrayList<>(Math.min(pageSize, 1024));
+            Iterator<SortedProductIndex.SortKey> keys = index.keysAfter(cursor, descending).iterator();
+            SortedProductIndex.SortKey last = null;
+            while (page.size() < pageSize && keys.hasNext()) {
+                SortedProductIndex.SortKey key = keys.next();
+                Product product = products.findById(key.id);
+                if (product != null) {
+                    page.add(new Product(product));
+                    last = key;
+                }
+            }
+            String nextCursor = last != null && keys.hasNext() ? index.encode(last, descending) : null;
+            return new ProductPage(page, nextCursor);
+        } finally {
+            snapshotLock.readLock().unlock();
+            pageLatency.stop(start);
+        }
+    }
+    
+    private ProductPage scanPage(ProductSort sort, boolean descending, String cursor, int pageSize) {
+        Lock lock = searchLock();
+        lock.lock();
+        try {
+            return SortedProductIndex.scanPage(sort, products.findAll(), cursor, descending, pageSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public Stream<Product> streamProducts(ProductSort sort) {
+        if (products.isDiskResident()) {
+            return Stream.iterate(scanPage(sort, false, null, STREAM_PAGE_SIZE), Objects::nonNull,
+                    page -> page.hasMore() ? scanPage(sort, false, page.getNextCursor(), STREAM_PAGE_SIZE) : null)
+                .flatMap(page -> page.getProducts().stream());
+        }
+        return sortedIndex(sort).keysAfter(null, false).stream()
+            .map(key -> findCopy(key.id))
+            .filter(Objects::nonNull);
+    }
+    
+    private Product findCopy(String id) {
+        snapshotLock.readLock().lock();
+        try {
+            Product product = products.findById(id);
+            return product == null ? null : new Product(product);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+    
+    private SortedProductIndex sortedIndex(ProductSort sort) {
+        synchronized (sortedIndexes) {
+            SortedProductIndex index = sortedIndexes.get(sort);
+            if (index == null) {
+                index = new SortedProductIndex(sort);
+                addChangeListener(index);
+                sortedIndexes.put(sort, index);
+            }
+            return index;
+        }
     }
     
     public Product searchProductById(String id) throws ProductNotFoundException {
-        return products.stream()
-            .filter(p -> p.getId().equals(id))
-            .findFirst()
-            .orElseThrow(() -> new ProductNotFoundException("ID: " + id));
+        long start = searchByIdLatency.start();
+        snapshotLock.readLock().lock();
+        try {
+            return new Product(requireProduct(id));
+        } finally {
+            snapshotLock.readLock().unlock();
+            searchByIdLatency.stop(start);
+        }
+    }
+    
+    void withCurrentProduct(String id, Consumer<Product> action) {
+        Lock productLock = productLocks.get(id);
+        productLock.lock();
+        try {
+            Product product;
+            snapshotLock.readLock().lock();
+            try {
+                product = products.findById(id);
+            } finally {
+                snapshotLock.readLock().unlock();
+            }
+            action.accept(product == null ? null : new Product(product));
+        } finally {
+            productLock.unlock();
+        }
+    }
+    
+    private Product requireProduct(String id) throws ProductNotFoundException {
+        Product product = products.findById(id);
+        if (product == null) {
+            throw new ProductNotFoundException("ID: " + id);
+        }
+        return product;
     }
     
     public List<Product> searchProductsByName(String name) {
-        return products.stream()
-            .filter(p -> p.getName().toLowerCase().contains(name.toLowerCase()))
-            .collect(Collectors.toList());
+        long start = searchByNameLatency.start();
+        Lock lock = searchLock();
+        lock.lock();
+        try {
+            return sortById(products.isDiskResident()
+                ? NameIndex.scanContaining(products.findAll(), name)
+                : lookupAll(nameIndex.findContaining(name)));
+        } finally {
+            lock.unlock();
+            searchByNameLatency.stop(start);
+        }
+    }
+    
+    public List<Product> searchProductsByName(String name, int limit) {
+        long start = searchByNameLatency.start();
+        Lock lock = searchLock();
+        lock.lock();
+        try {
+            return products.isDiskResident()
+                ? NameIndex.scanTop(products.findAll(), name, limit)
+                : lookupAll(nameIndex.findTop(name, limit));
+        } finally {
+            lock.unlock();
+            searchByNameLatency.stop(start);
+        }
+    }
+    
+    public List<Product> searchProductsByNamePrefix(String prefix, int limit) {
+        long start = searchByNameLatency.start();
+        Lock lock = searchLock();
+        lock.lock();
+        try {
+            return products.isDiskResident()
+                ? NameIndex.scanByPrefix(products.findAll(), prefix, limit)
+                : lookupAll(nameIndex.findByPrefix(prefix, limit));
+        } finally {
+            lock.unlock();
+            searchByNameLatency.stop(start);
+        }
     }
     
     public List<Product> searchProductsByCategory(String category) {
-        return products.stream()
-            .filter(p -> p.getCategory().equalsIgnoreCase(category))
-            .collect(Collectors.toList());
+        long start = searchByCategoryLatency.start();
+        Lock lock = searchLock();
+        lock.lock();
+        try {
+            if (products.isDiskResident()) {
+                String key = SecondaryIndexes.categoryKey(category);
+                return sortById(scan(product -> key.equals(SecondaryIndexes.categoryKey(product.getCategory()))));
+            }
+            return sortById(lookupAll(indexes.getProductIdsByCategory(category)));
+        } finally {
+            lock.unlock();
+            searchByCategoryLatency.stop(start);
+        }
+    }
+    
+    public List<Product> searchProductsBySupplier(String supplierId) {
+        long start = searchBySupplierLatency.start();
+        Lock lock = searchLock();
+        lock.lock();
+        try {
+            if (products.isDiskResident()) {
+                String key = String.valueOf(supplierId);
+                return sortById(scan(product -> key.equals(String.valueOf(product.getSupplierId()))));
+            }
+            return sortById(lookupAll(indexes.getProductIdsBySupplier(supplierId)));
+        } finally {
+            lock.unlock();
+            searchBySupplierLatency.stop(start);
+        }
+    }
+    
+    private List<Product> scan(Predicate<Product> filter) {
+        List<Product> found = new ArrayList<>();
+        for (Product product : products.findAll()) {
+            if (filter.test(product)) {
+                found.add(product);
+            }
+        }
+        return found;
+    }
+    
+    private List<Product> lookupAll(Collection<String> ids) {
+        List<Product> found = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Product product = products.findById(id);
+            if (product != null) {
+                found.add(new Product(product));
+            }
+        }
+        return found;
+    }
+    
+    private static List<Product> sortById(List<Product> found) {
+        found.sort(Comparator.comparing(Product::getId));
+        return found;
     }
     
     public void updateProduct(String id, Product updatedProduct) throws InventoryException {
-        Product existingProduct = searchProductById(id);
+        long start = updateLatency.start();
+        List<Lock> supplierLocks = lockSuppliers(Collections.singleton(updatedProduct.getSupplierId()));
+        Lock productLock = productLocks.get(id);
+        productLock.lock();
+        try {
+            Product existingProduct;
+            Product updated;
+            Lock lock = updateLock();
+            lock.lock();
+            try {
+                existingProduct = requireProduct(id);
+        
+                if (updatedProduct.getQuantity() < 0) {
+                    throw new InvalidProductException("Quantity cannot be negative");
+                }
+                if (updatedProduct.getPrice() < 0) {
+                    throw new InvalidProductException("Price cannot be negative");
+                }
+                if (!Objects.equals(updatedProduct.getSupplierId(), existingProduct.getSupplierId())) {
+                    String error = supplierError(updatedProduct.getSupplierId());
+                    if (error != null) {
+                        throw new InvalidProductException(error);
+                    }
+                }
+        
+                updated = new Product(existingProduct);
+                updated.setName(updatedProduct.getName());
+                updated.setCategory(categories.canonical(updatedProduct.getCategory()));
+                updated.setQuantity(updatedProduct.getQuantity());
+                updated.setPrice(updatedProduct.getPrice());
+                updated.setSupplierId(suppliers.canonical(updatedProduct.getSupplierId()));
+                products.update(updated);
+                fireChange(new Product(existingProduct), new Product(updated));
+            } finally {
+                lock.unlock();
+            }
         
-        if (updatedProduct.getQuantity() < 0) {
-            throw new InvalidProductException("Quantity cannot be negative");
+            try {
+                persistence.put(updated);
+            } catch (IOException e) {
+                throw new InventoryException("Failed to update product: " + e.getMessage());
+            }
+        } finally {
+            productLock.unlock();
+            unlockAll(supplierLocks);
+            updateLatency.stop(start);
         }
-        if (updatedProduct.getPrice() < 0) {
-            throw new InvalidProductException("Price cannot be negative");
+    }
+    
+    public int adjustStock(String id, int delta) throws InventoryException {
+        long start = stockLatency.start();
+        Lock productLock = productLocks.get(id);
+        productLock.lock();
+        try {
+            Product product;
+            int quantity;
+            Lock lock = updateLock();
+            lock.lock();
+            try {
+                Product existing = requireProduct(id);
+                long adjusted = (long) existing.getQuantity() + delta;
+                if (adjusted < 0) {
+                    throw new InvalidProductException("Insufficient stock for " + id + ": only "
+                        + existing.getQuantity() + " left");
+                }
+                if (adjusted > Integer.MAX_VALUE) {
+                    throw new InvalidProductException("Quantity too large for " + id);
+                }
+                quantity = (int) adjusted;
+                product = new Product(existing);
+                product.setQuantity(quantity);
+                products.update(product);
+                fireChange(new Product(existing), new Product(product));
+            } finally {
+                lock.unlock();
+            }
+            
+            try {
+                persistence.put(product);
+            } catch (IOException e) {
+                throw new InventoryException("Failed to update stock: " + e.getMessage());
+            }
+            return quantity;
+        } finally {
+            productLock.unlock();
+            stockLatency.stop(start);
+        }
+    }
+    
+    public List<StockMovementResult> applyMovements(List<StockMovement> movements) throws InventoryException {
+        long start = movementsLatency.start();
+        Set<String> ids = new HashSet<>();
+        for (StockMovement movement : movements) {
+            ids.add(movement.getProductId());
         }
         
-        existingProduct.setName(updatedProduct.getName());
-        existingProduct.setCategory(updatedProduct.getCategory());
-        existingProduct.setQuantity(updatedProduct.getQuantity());
-        existingProduct.setPrice(updatedProduct.getPrice());
-        existingProduct.setSupplierId(updatedProduct.getSupplierId());
-        
+        List<Lock> locks = productLocks.getAll(ids);
+        locks.forEach(Lock::lock);
         try {
-            saveProducts();
-        } catch (IOException e) {
-            throw new InventoryException("Failed to update product: " + e.getMessage());
+            List<StockMovementResult> results = new ArrayList<>(movements.size());
+            Map<String, Product> changed = new LinkedHashMap<>();
+            
+            Lock lock = updateLock();
+            lock.lock();
+            try {
+                for (StockMovement movement : movements) {
+                    Product product = products.findById(movement.getProductId());
+                    if (product == null) {
+                        results.add(StockMovementResult.rejected(movement, 0, "Product not found"));
+                        continue;
+                    }
+                    
+                    long adjusted = (long) product.getQuantity() + movement.getDelta();
+                    if (adjusted < 0) {
+                        results.add(StockMovementResult.rejected(movement, product.getQuantity(),
+                            "Insufficient stock: only " + product.getQuantity() + " left"));
+                    } else if (adjusted > Integer.MAX_VALUE) {
+                        results.add(StockMovementResult.rejected(movement, product.getQuantity(), "Quantity too large"));
+                    } else {
+                        Product updated = new Product(product);
+                        updated.setQuantity((int) adjusted);
+                        products.update(updated);
+                        fireChange(new Product(product), new Product(updated));
+                        changed.put(updated.getId(), updated);
+                        results.add(StockMovementResult.applied(movement, updated.getQuantity()));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+            
+            if (!changed.isEmpty()) {
+                try {
+                    persistence.putAll(changed.values());
+                } catch (IOException e) {
+                    throw new InventoryException("Failed to save stock movements: " + e.getMessage());
+                }
+            }
+            return results;
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+            movementsLatency.stop(start);
+        }
+    }
+    
+    public int incrementStock(String id, int amount) throws InventoryException {
+        if (amount < 0) {
+            throw new InvalidProductException("Increment cannot be negative");
+        }
+        return adjustStock(id, amount);
+    }
+    
+    public int decrementStock(String id, int amount) throws InventoryException {
+        if (amount < 0) {
+            throw new InvalidProductException("Decrement cannot be negative");
         }
+        return adjustStock(id, -amount);
     }
     
     public void deleteProduct(String id) throws InventoryException {
-        Product product = searchProductById(id);
-        products.remove(product);
+        long start = deleteLatency.start();
+        Lock productLock = productLocks.get(id);
+        productLock.lock();
+        try {
+            Lock lock = structuralLock();
+            lock.lock();
+            try {
+                Product removed = products.remove(id);
+                if (removed == null) {
+                    throw new ProductNotFoundException("ID: " + id);
+                }
+                fireChange(new Product(removed), null);
+            } finally {
+                lock.unlock();
+            }
         
+            try {
+                persistence.remove(id);
+            } catch (IOException e) {
+                throw new InventoryException("Failed to delete product: " + e.getMessage());
+            }
+        } finally {
+            productLock.unlock();
+            deleteLatency.stop(start);
+        }
+    }
+    
+    public long countProductsBySupplier(String supplierId) {
+        return aggregates.getSupplierProductCount(supplierId);
+    }
+    
+    public int deleteProductsBySupplier(String supplierId) throws InventoryException {
+        long start = deleteLatency.start();
+        String key = String.valueOf(supplierId);
+        List<String> ids = new ArrayList<>();
+        Lock lock = searchLock();
+        lock.lock();
         try {
-            saveProducts();
-        } catch (IOException e) {
-            throw new InventoryException("Failed to delete product: " + e.getMessage());
+            if (products.isDiskResident()) {
+                for (Product product : scan(product -> key.equals(String.valueOf(product.getSupplierId())))) {
+                    ids.add(product.getId());
+                }
+            } else {
+                ids.addAll(indexes.getProductIdsBySupplier(supplierId));
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (ids.isEmpty()) {
+            deleteLatency.stop(start);
+            return 0;
+        }
+        
+        List<Lock> locks = productLocks.getAll(ids);
+        locks.forEach(Lock::lock);
+        try {
+            List<String> removed = new ArrayList<>(ids.size());
+            Lock structural = structuralLock();
+            structural.lock();
+            try {
+                for (String id : ids) {
+                    Product product = products.findById(id);
+                    if (product != null && key.equals(String.valueOf(product.getSupplierId()))) {
+                        Product before = new Product(product);
+                        products.remove(id);
+                        fireChange(before, null);
+                        removed.add(id);
+                    }
+                }
+            } finally {
+                structural.unlock();
+            }
+            
+            if (!removed.isEmpty()) {
+                try {
+                    persistence.apply(List.of(), removed);
+                } catch (IOException e) {
+                    throw new InventoryException("Failed to delete products: " + e.getMessage());
+                }
+            }
+            return removed.size();
+        } finally {
+            for (int i = locks.size() - 1; i >= 0; i--) {
+                locks.get(i).unlock();
+            }
+            deleteLatency.stop(start);
         }
     }
     
     public List<Product> getLowStockProducts(int threshold) {
-        return products.stream()
-            .filter(p -> p.getQuantity() < threshold)
-            .collect(Collectors.toList());
+        long start = lowStockLatency.start();
+        snapshotLock.writeLock().lock();
+        try {
+            return products.findByQuantityBelow(threshold).stream()
+                .map(Product::new)
+                .collect(Collectors.toList());
+        } finally {
+            snapshotLock.writeLock().unlock();
+            lowStockLatency.stop(start);
+        }
     }
     
     public double getTotalInventoryValue() {
-        return products.stream()
-            .mapToDouble(p -> p.getQuantity() * p.getPrice())
-            .sum();
+        long start = reportLatency.start();
+        snapshotLock.writeLock().lock();
+        try {
+            return aggregates.getTotalValue();
+        } finally {
+            snapshotLock.writeLock().unlock();
+            reportLatency.stop(start);
+        }
     }
     
     public Map<String, Long> getCategoryWiseCount() {
-        return products.stream()
-            .collect(Collectors.groupingBy(
-                Product::getCategory,
-                Collectors.counting()
-            ));
+        long start = reportLatency.start();
+        snapshotLock.writeLock().lock();
+        try {
+            return aggregates.getCategoryCounts();
+        } finally {
+            snapshotLock.writeLock().unlock();
+            reportLatency.stop(start);
+        }
+    }
+    
+    public Map<String, Double> getCategoryWiseValue() {
+        long start = reportLatency.start();
+        snapshotLock.writeLock().lock();
+        try {
+            return aggregates.getCategoryValues();
+        } finally {
+            snapshotLock.writeLock().unlock();
+            reportLatency.stop(start);
+        }
+    }
+    
+    public Map<String, Double> getSupplierWiseValue() {
+        long start = reportLatency.start();
+        snapshotLock.writeLock().lock();
+        try {
+            return aggregates.getSupplierValues();
+        } finally {
+            snapshotLock.writeLock().unlock();
+            reportLatency.stop(start);
+        }
+    }
+    
+    public long getProductCount() {
+        return aggregates.getProductCount();
     }
-}
+}
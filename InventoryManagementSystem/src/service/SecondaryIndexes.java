@@ -0,0 +1,78 @@
+package service;
+
+import model.Product;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SecondaryIndexes implements ProductChangeListener {
+    private final ConcurrentHashMap<String, Set<String>> byCategory = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> bySupplier = new ConcurrentHashMap<>();
+    
+    @Override
+    public void productChanged(Product before, Product after) {
+        String beforeCategory = before == null ? null : categoryKey(before.getCategory());
+        String afterCategory = after == null ? null : categoryKey(after.getCategory());
+        if (!Objects.equals(beforeCategory, afterCategory) || after == null || before == null) {
+            if (before != null) {
+                remove(byCategory, beforeCategory, before.getId());
+            }
+            if (after != null) {
+                add(byCategory, afterCategory, after.getId());
+            }
+        }
+        
+        String beforeSupplier = before == null ? null : String.valueOf(before.getSupplierId());
+        String afterSupplier = after == null ? null : String.valueOf(after.getSupplierId());
+        if (!Objects.equals(beforeSupplier, afterSupplier) || after == null || before == null) {
+            if (before != null) {
+                remove(bySupplier, beforeSupplier, before.getId());
+            }
+            if (after != null) {
+                add(bySupplier, afterSupplier, after.getId());
+            }
+        }
+    }
+    
+    private static void add(ConcurrentHashMap<String, Set<String>> index, String key, String id) {
+        index.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(id);
+            return ids;
+        });
+    }
+    
+    private static void remove(ConcurrentHashMap<String, Set<String>> index, String key, String id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+    
+    static String categoryKey(String category) {
+        return String.valueOf(category).toLowerCase(Locale.ROOT);
+    }
+    
+    public Set<String> getProductIdsByCategory(String category) {
+        Set<String> ids = byCategory.get(categoryKey(category));
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+    
+    public Set<String> getProductIdsBySupplier(String supplierId) {
+        Set<String> ids = bySupplier.get(String.valueOf(supplierId));
+        return ids == null ? Collections.emptySet() : Collections.unmodifiableSet(ids);
+    }
+    
+    public int getCategoryCount() {
+        return byCategory.size();
+    }
+    
+    public int getSupplierCount() {
+        return bySupplier.size();
+    }
+}
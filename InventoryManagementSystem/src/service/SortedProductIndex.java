@@ -0,0 +1,170 @@
+package service;
+
+import model.Product;
+import model.ProductPage;
+import model.ProductSort;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+public class SortedProductIndex implements ProductChangeListener {
+    private final ProductSort sort;
+    private final ConcurrentSkipListSet<SortKey> keys = new ConcurrentSkipListSet<>();
+    
+    public SortedProductIndex(ProductSort sort) {
+        this.sort = sort;
+    }
+    
+    @Override
+    public void productChanged(Product before, Product after) {
+        SortKey beforeKey = before == null ? null : keyOf(before);
+        SortKey afterKey = after == null ? null : keyOf(after);
+        if (beforeKey != null && beforeKey.compareTo(afterKey) == 0) {
+            return;
+        }
+        if (beforeKey != null) {
+            keys.remove(beforeKey);
+        }
+        if (afterKey != null) {
+            keys.add(afterKey);
+        }
+    }
+    
+    public ProductSort getSort() {
+        return sort;
+    }
+    
+    NavigableSet<SortKey> keysAfter(String cursor, boolean descending) {
+        NavigableSet<SortKey> ordered = descending ? keys.descendingSet() : keys;
+        return cursor == null ? ordered : ordered.tailSet(decode(cursor, descending), false);
+    }
+    
+    /**
+     * Returns one page in {@code sort} order by scanning {@code products} instead of keeping an index,
+     * so only {@code pageSize + 1} candidates are held at a time. Cursors are interchangeable with
+     * {@link #encode}. Used for disk-resident catalogs, where a per-product index would grow with the catalog.
+     */
+    static ProductPage scanPage(ProductSort sort, Iterable<Product> products, String cursor,
+                                boolean descending, int pageSize) {
+        SortedProductIndex order = new SortedProductIndex(sort);
+        SortKey after = cursor == null ? null : order.decode(cursor, descending);
+        Comparator<SortKey> byKey = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        Comparator<Candidate> byCandidate = Comparator.comparing(candidate -> candidate.key, byKey);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(Math.min(pageSize, 1024) + 1, byCandidate.reversed());
+        for (Product product : products) {
+            SortKey key = order.keyOf(product);
+            if (after != null && byKey.compare(key, after) <= 0) {
+                continue;
+            }
+            best.add(new Candidate(key, product));
+            if (best.size() > pageSize + 1) {
+                best.poll();
+            }
+        }
+        
+        boolean more = best.size() > pageSize;
+        if (more) {
+            best.poll();
+        }
+        List<Candidate> ordered = new ArrayList<>(best);
+        ordered.sort(byCandidate);
+        List<Product> page = new ArrayList<>(ordered.size());
+        for (Candidate candidate : ordered) {
+            page.add(candidate.product);
+        }
+        String nextCursor = more ? order.encode(ordered.get(ordered.size() - 1).key, descending) : null;
+        return new ProductPage(page, nextCursor);
+    }
+    
+    SortKey keyOf(Product product) {
+        switch (sort) {
+            case NAME:
+                return new SortKey(String.valueOf(product.getName()).toLowerCase(), 0, product.getId());
+            case QUANTITY:
+                return new SortKey(null, product.getQuantity(), product.getId());
+            case VALUE:
+                return new SortKey(null, product.getQuantity() * product.getPrice(), product.getId());
+            default:
+                return new SortKey(null, 0, product.getId());
+        }
+    }
+    
+    String encode(SortKey key, boolean descending) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(sort.ordinal());
+            out.writeBoolean(descending);
+            out.writeBoolean(key.text != null);
+            out.writeUTF(key.text == null ? "" : key.text);
+            out.writeDouble(key.number);
+            out.writeUTF(key.id);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+    
+    private SortKey decode(String cursor, boolean descending) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != sort.ordinal() || in.readBoolean() != descending) {
+                throw new IllegalArgumentException("Cursor does not match the requested sort");
+            }
+            boolean hasText = in.readBoolean();
+            String text = in.readUTF();
+            double number = in.readDouble();
+            return new SortKey(hasText ? text : null, number, in.readUTF());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+    
+    private static final class Candidate {
+        private final SortKey key;
+        private final Product product;
+        
+        Candidate(SortKey key, Product product) {
+            this.key = key;
+            this.product = product;
+        }
+    }
+    
+    static final class SortKey implements Comparable<SortKey> {
+        private final String text;
+        private final double number;
+        final String id;
+        
+        SortKey(String text, double number, String id) {
+            this.text = text;
+            this.number = number;
+            this.id = id;
+        }
+        
+        @Override
+        public int compareTo(SortKey other) {
+            if (other == null) {
+                return 1;
+            }
+            int byNumber = Double.compare(number, other.number);
+            if (byNumber != 0) {
+                return byNumber;
+            }
+            if (text != null && other.text != null) {
+                int byText = text.compareTo(other.text);
+                if (byText != 0) {
+                    return byText;
+                }
+            }
+            return id.compareTo(other.id);
+        }
+    }
+}
@@ -0,0 +1,702 @@
+package service;
+
+import exception.FileFormatException;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.LedgerEntry;
+import model.Product;
+import persistence.LedgerLog;
+import persistence.LedgerSegment;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class StockLedger implements ProductChangeListener {
+    public static final String LEDGER_DIR = "data/ledger";
+    public static final int DEFAULT_SEGMENT_SIZE = 65_536;
+    private static final int ROLLUP_BATCH = 16;
+    private static final long MAINTENANCE_INTERVAL_MILLIS = 60 * 60 * 1000;
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    
+    private final Path directory;
+    private final LedgerRetention retention;
+    private final int segmentSize;
+    
+    private final Object activeLock = new Object();
+    private final Map<String, Integer> lastQuantities = new HashMap<>();
+    private List<LedgerEntry> active = new ArrayList<>();
+    private final List<PendingSeal> sealing = new ArrayList<>();
+    private LedgerLog log;
+    private long nextSequence;
+    private long lastTimestamp;
+    private int sealAt;
+    
+    private final ReentrantReadWriteLock indexLock = new ReentrantReadWriteLock();
+    private final List<LedgerSegment> segments = new ArrayList<>();
+    private final Map<String, List<LedgerSegment>> productSegments = new HashMap<>();
+    private final Map<String, List<LedgerSegment>> categorySegments = new HashMap<>();
+    private final Object maintenanceLock = new Object();
+    private final Object sealLock = new Object();
+    private final ExecutorService sealer;
+    private ScheduledExecutorService background;
+    
+    private final Counter entriesWritten = METRICS.counter("ledger.entries");
+    private final Counter writeFailures = METRICS.counter("ledger.failures");
+    private final LatencyHistogram sealLatency = METRICS.histogram("ledger.seal");
+    private final LatencyHistogram rollupLatency = METRICS.histogram("ledger.rollup");
+    private final LatencyHistogram queryLatency = METRICS.histogram("ledger.query");
+    
+    public StockLedger(Path directory, LedgerRetention retention) throws IOException {
+        this(directory, retention, DEFAULT_SEGMENT_SIZE, true);
+    }
+    
+    public StockLedger(Path directory, LedgerRetention retention, int segmentSize,
+                       boolean backgroundMaintenance) throws IOException {
+        this.directory = directory;
+        this.retention = retention;
+        this.segmentSize = segmentSize;
+        this.sealAt = segmentSize;
+        load();
+        sealer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "ledger-sealer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        METRICS.gauge("ledger.segments", this::getSegmentCount);
+        METRICS.gauge("ledger.bytes", this::getSizeBytes);
+        
+        if (backgroundMaintenance) {
+            background = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "ledger-maintenance");
+                thread.setDaemon(true);
+                return thread;
+            });
+            background.scheduleWithFixedDelay(this::maintainNow, 0, MAINTENANCE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        List<LedgerSegment> loaded = new ArrayList<>();
+        Map<Long, Path> logs = new TreeMap<>();
+        long maxSequence = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".tmp")) {
+                    Files.delete(file);
+                } else if (name.startsWith("segment-") && name.endsWith(".seg")) {
+                    try {
+                        LedgerSegment segment = LedgerSegment.open(file);
+                        loaded.add(segment);
+                        maxSequence = Math.max(maxSequence, segment.getSequence());
+                    } catch (FileFormatException e) {
+                        System.out.println("Warning: Skipping ledger segment: " + e.getMessage());
+                    }
+                } else if (name.startsWith("active-") && name.endsWith(".log")) {
+                    long sequence = Long.parseLong(name.substring("active-".length(), name.length() - ".log".length()));
+                    logs.put(sequence, file);
+                    maxSequence = Math.max(maxSequence, sequence);
+                }
+            }
+        }
+        
+        Set<Long> sealed = new HashSet<>();
+        for (LedgerSegment segment : loaded) {
+            for (long source : segment.getSources()) {
+                sealed.add(source);
+            }
+        }
+        for (LedgerSegment segment : loaded) {
+            if (sealed.contains(segment.getSequence())) {
+                Files.deleteIfExists(segment.getFile());
+            } else {
+                segments.add(segment);
+            }
+            sealed.add(segment.getSequence());
+        }
+        segments.sort(Comparator.comparingLong(LedgerSegment::getMinTime).thenComparingLong(LedgerSegment::getSequence));
+        for (LedgerSegment segment : segments) {
+            index(segment, null);
+            for (int i = 0; i < segment.getProductCount(); i++) {
+                rememberQuantity(segment.getProductId(i), segment.getClosingQuantity(i));
+            }
+            lastTimestamp = Math.max(lastTimestamp, segment.getMaxTime());
+        }
+        nextSequence = maxSequence + 1;
+        
+        List<Long> unsealed = new ArrayList<>();
+        for (Map.Entry<Long, Path> file : logs.entrySet()) {
+            if (sealed.contains(file.getKey())) {
+                Files.delete(file.getValue());
+            } else {
+                unsealed.add(file.getKey());
+            }
+        }
+        for (int i = 0; i < unsealed.size(); i++) {
+            LedgerLog recovered = LedgerLog.open(directory, unsealed.get(i));
+            for (LedgerEntry entry : recovered.getRecoveredEntries()) {
+                rememberQuantity(entry.getProductId(), entry.getQuantity());
+                lastTimestamp = Math.max(lastTimestamp, entry.getTimestamp());
+            }
+            if (i == unsealed.size() - 1) {
+                log = recovered;
+                active.addAll(recovered.getRecoveredEntries());
+            } else {
+                if (!recovered.getRecoveredEntries().isEmpty()) {
+                    LedgerSegment segment = LedgerSegment.write(directory, recovered.getSequence(),
+                        LedgerSegment.Granularity.RAW, recovered.getRecoveredEntries(), new long[0]);
+                    segments.add(segment);
+                    index(segment, null);
+                }
+                recovered.delete();
+            }
+        }
+        if (log == null) {
+            log = LedgerLog.open(directory, nextSequence++);
+        }
+    }
+    
+    private void rememberQuantity(String productId, int quantity) {
+        if (quantity == 0) {
+            lastQuantities.remove(productId);
+        } else {
+            lastQuantities.put(productId, quantity);
+        }
+    }
+    
+    @Override
+    public void productChanged(Product before, Product after) {
+        Product current = after != null ? after : before;
+        record(System.currentTimeMillis(), current.getId(), current.getCategory(), after != null ? after.getQuantity() : 0);
+    }
+    
+    public void record(long timestamp, String productId, String category, int quantity) {
+        synchronized (activeLock) {
+            int delta = quantity - lastQuantities.getOrDefault(productId, 0);
+            if (delta == 0) {
+                return;
+            }
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+            LedgerEntry entry = new LedgerEntry(lastTimestamp, productId, String.valueOf(category), delta, quantity);
+            try {
+                log.append(entry);
+            } catch (IOException e) {
+                writeFailures.increment();
+                System.out.println("Warning: Could not append to stock ledger: " + e.getMessage());
+            }
+            active.add(entry);
+            rememberQuantity(productId, quantity);
+            entriesWritten.increment();
+            if (active.size() >= sealAt) {
+                rotate();
+            }
+        }
+    }
+    
+    private void rotate() {
+        LedgerLog next;
+        try {
+            next = LedgerLog.open(directory, nextSequence);
+        } catch (IOException e) {
+            writeFailures.increment();
+            sealAt = active.size() + segmentSize;
+            System.out.println("Warning: Could not start a new stock ledger log: " + e.getMessage());
+            return;
+        }
+        nextSequence++;
+        sealing.add(new PendingSeal(log, active));
+        log = next;
+        active = new ArrayList<>();
+        sealAt = segmentSize;
+        try {
+            sealer.execute(this::sealQuietly);
+        } catch (RejectedExecutionException e) {
+            // closing; the log is sealed on the next start
+        }
+    }
+    
+    private void sealQuietly() {
+        try {
+            sealPending();
+        } catch (IOException e) {
+            writeFailures.increment();
+            System.out.println("Warning: Could not seal stock ledger segment: " + e.getMessage());
+        }
+    }
+    
+    public void sealPending() throws IOException {
+        synchronized (sealLock) {
+            while (true) {
+                PendingSeal pending;
+                synchronized (activeLock) {
+                    if (sealing.isEmpty()) {
+                        return;
+                    }
+                    pending = sealing.get(0);
+                }
+                seal(pending);
+            }
+        }
+    }
+    
+    private void seal(PendingSeal pending) throws IOException {
+        long start = sealLatency.start();
+        LedgerSegment segment = LedgerSegment.write(directory, pending.log.getSequence(), LedgerSegment.Granularity.RAW,
+            pending.entries, new long[0]);
+        indexLock.writeLock().lock();
+        try {
+            segments.add(segment);
+            index(segment, null);
+        } finally {
+            indexLock.writeLock().unlock();
+        }
+        synchronized (activeLock) {
+            sealing.remove(0);
+        }
+        pending.log.delete();
+        sealLatency.stop(start);
+    }
+    
+    private void index(LedgerSegment segment, Set<Long> replaced) {
+        for (int i = 0; i < segment.getProductCount(); i++) {
+            insert(productSegments.computeIfAbsent(segment.getProductId(i), k -> new ArrayList<>()), segment, replaced);
+        }
+        for (String category : segment.getCategories()) {
+            insert(categorySegments.computeIfAbsent(category, k -> new ArrayList<>()), segment, replaced);
+        }
+    }
+    
+    private static void insert(List<LedgerSegment> list, LedgerSegment segment, Set<Long> replaced) {
+        if (replaced != null) {
+            for (int i = 0; i < list.size(); i++) {
+                if (replaced.contains(list.get(i).getSequence())) {
+                    list.add(i, segment);
+                    return;
+                }
+            }
+        }
+        list.add(segment);
+    }
+    
+    private void unindex(LedgerSegment segment) {
+        for (int i = 0; i < segment.getProductCount(); i++) {
+            remove(productSegments, segment.getProductId(i), segment);
+        }
+        for (String category : segment.getCategories()) {
+            remove(categorySegments, category, segment);
+        }
+    }
+    
+    private static void remove(Map<String, List<LedgerSegment>> index, String key, LedgerSegment segment) {
+        List<LedgerSegment> list = index.get(key);
+        if (list != null) {
+            list.remove(segment);
+            if (list.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+    
+    private void maintainNow() {
+        try {
+            maintain(System.currentTimeMillis());
+        } catch (IOException e) {
+            writeFailures.increment();
+            System.out.println("Warning: Stock ledger rollup failed: " + e.getMessage());
+        }
+    }
+    
+    public void maintain(long now) throws IOException {
+        synchronized (maintenanceLock) {
+            synchronized (sealLock) {
+                sealPending();
+                rollup(LedgerSegment.Granularity.RAW, now);
+                rollup(LedgerSegment.Granularity.DAILY, now);
+            }
+        }
+    }
+    
+    private void rollup(LedgerSegment.Granularity granularity, long now) throws IOException {
+        List<LedgerSegment> eligible = new ArrayList<>();
+        LedgerSegment.Granularity target = null;
+        indexLock.readLock().lock();
+        try {
+            for (LedgerSegment segment : segments) {
+                if (segment.getGranularity() == granularity && retention.rollupTarget(segment, now) != null) {
+                    eligible.add(segment);
+                    target = retention.rollupTarget(segment, now);
+                }
+            }
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        
+        for (int from = 0; from < eligible.size(); from += ROLLUP_BATCH) {
+            long start = rollupLatency.start();
+            List<LedgerSegment> batch = eligible.subList(from, Math.min(eligible.size(), from + ROLLUP_BATCH));
+            long[] sources = new long[batch.size()];
+            Set<Long> replaced = new HashSet<>();
+            for (int i = 0; i < batch.size(); i++) {
+                sources[i] = batch.get(i).getSequence();
+                replaced.add(sources[i]);
+            }
+            long sequence;
+            synchronized (activeLock) {
+                sequence = nextSequence++;
+            }
+            LedgerSegment rolled = LedgerSegment.write(directory, sequence, target, aggregate(batch, target), sources);
+            
+            indexLock.writeLock().lock();
+            try {
+                int position = segments.indexOf(batch.get(0));
+                segments.removeAll(batch);
+                segments.add(position, rolled);
+                index(rolled, replaced);
+                for (LedgerSegment source : batch) {
+                    unindex(source);
+                    Files.deleteIfExists(source.getFile());
+                }
+            } finally {
+                indexLock.writeLock().unlock();
+            }
+            rollupLatency.stop(start);
+        }
+    }
+    
+    private static List<LedgerEntry> aggregate(List<LedgerSegment> batch, LedgerSegment.Granularity target) throws IOException {
+        List<LedgerEntry> rolled = new ArrayList<>();
+        Map<String, Bucket> open = new LinkedHashMap<>();
+        long[] currentBucket = {Long.MIN_VALUE};
+        for (LedgerSegment segment : batch) {
+            segment.forEach((timestamp, product, category, delta, quantity) -> {
+                long bucket = target.bucketOf(timestamp);
+                if (bucket != currentBucket[0]) {
+                    drain(open, rolled);
+                    currentBucket[0] = bucket;
+                }
+                String productId = segment.getProductId(product);
+                Bucket totals = open.computeIfAbsent(productId, k -> new Bucket());
+                totals.timestamp = timestamp;
+                totals.category = segment.getCategory(category);
+                totals.delta += delta;
+                totals.quantity = quantity;
+                return true;
+            });
+        }
+        drain(open, rolled);
+        return rolled;
+    }
+    
+    private static void drain(Map<String, Bucket> open, List<LedgerEntry> rolled) {
+        List<LedgerEntry> entries = new ArrayList<>(open.size());
+        open.forEach((productId, totals) -> {
+            if (totals.delta != 0) {
+                entries.add(new LedgerEntry(totals.timestamp, productId, totals.category, totals.delta, totals.quantity));
+            }
+        });
+        entries.sort(Comparator.comparingLong(LedgerEntry::getTimestamp));
+        rolled.addAll(entries);
+        open.clear();
+    }
+    
+    public OptionalInt quantityAt(String productId, long timestamp) throws IOException {
+        long start = queryLatency.start();
+        try {
+            Set<Long> unsealed;
+            LedgerEntry firstActive = null;
+            synchronized (activeLock) {
+                unsealed = unsealedSequences();
+                for (int s = sealing.size(); s >= 0; s--) {
+                    List<LedgerEntry> entries = s == sealing.size() ? active : sealing.get(s).entries;
+                    for (int i = entries.size() - 1; i >= 0; i--) {
+                        LedgerEntry entry = entries.get(i);
+                        if (entry.getProductId().equals(productId)) {
+                            if (entry.getTimestamp() <= timestamp) {
+                                return OptionalInt.of(entry.getQuantity());
+                            }
+                            firstActive = entry;
+                        }
+                    }
+                }
+            }
+            
+            indexLock.readLock().lock();
+            try {
+                List<LedgerSegment> list = productSegments.getOrDefault(productId, Collections.emptyList());
+                LedgerSegment found = null;
+                LedgerSegment earliest = null;
+                for (int i = lastStartingBefore(list, timestamp); i >= 0 && found == null; i--) {
+                    if (!unsealed.contains(list.get(i).getSequence())) {
+                        found = list.get(i);
+                    }
+                }
+                for (int i = 0; i < list.size() && earliest == null; i++) {
+                    if (!unsealed.contains(list.get(i).getSequence())) {
+                        earliest = list.get(i);
+                    }
+                }
+                
+                if (found == null) {
+                    if (earliest != null) {
+                        return OptionalInt.of(earliest.getOpeningQuantity(earliest.indexOfProduct(productId)));
+                    }
+                    return firstActive == null ? OptionalInt.empty()
+                        : OptionalInt.of(firstActive.getQuantity() - firstActive.getDelta());
+                }
+                int product = found.indexOfProduct(productId);
+                if (found.getMaxTime() <= timestamp) {
+                    return OptionalInt.of(found.getClosingQuantity(product));
+                }
+                int[] quantity = {found.getOpeningQuantity(product)};
+                found.forEach((time, entryProduct, category, delta, entryQuantity) -> {
+                    if (time > timestamp) {
+                        return false;
+                    }
+                    if (entryProduct == product) {
+                        quantity[0] = entryQuantity;
+                    }
+                    return true;
+                });
+                return OptionalInt.of(quantity[0]);
+            } finally {
+                indexLock.readLock().unlock();
+            }
+        } finally {
+            queryLatency.stop(start);
+        }
+    }
+    
+    public List<LedgerEntry> getProductMovements(String productId, long from, long to) throws IOException {
+        return movements(productSegments, productId, from, to, true);
+    }
+    
+    public List<LedgerEntry> getCategoryMovements(String category, long from, long to) throws IOException {
+        return movements(categorySegments, category, from, to, false);
+    }
+    
+    private List<LedgerEntry> movements(Map<String, List<LedgerSegment>> index, String key, long from, long to,
+                                        boolean byProduct) throws IOException {
+        long start = queryLatency.start();
+        try {
+            List<LedgerEntry> recent = new ArrayList<>();
+            Set<Long> unsealed;
+            synchronized (activeLock) {
+                unsealed = unsealedSequences();
+                for (int s = 0; s <= sealing.size(); s++) {
+                    for (LedgerEntry entry : s == sealing.size() ? active : sealing.get(s).entries) {
+                        if (entry.getTimestamp() >= from && entry.getTimestamp() <= to
+                                && key.equals(byProduct ? entry.getProductId() : entry.getCategory())) {
+                            recent.add(entry);
+                        }
+                    }
+                }
+            }
+            
+            List<LedgerEntry> found = new ArrayList<>();
+            indexLock.readLock().lock();
+            try {
+                List<LedgerSegment> list = index.getOrDefault(key, Collections.emptyList());
+                for (int i = firstEndingAfter(list, from); i < list.size() && list.get(i).getMinTime() <= to; i++) {
+                    LedgerSegment segment = list.get(i);
+                    if (unsealed.contains(segment.getSequence())) {
+                        continue;
+                    }
+                    int match = byProduct ? segment.indexOfProduct(key) : segment.indexOfCategory(key);
+                    segment.forEach((timestamp, product, category, delta, quantity) -> {
+                        if (timestamp > to) {
+                            return false;
+                        }
+                        if ((byProduct ? product : category) == match && timestamp >= from) {
+                            found.add(new LedgerEntry(timestamp, segment.getProductId(product),
+                                segment.getCategory(category), delta, quantity));
+                        }
+                        return true;
+                    });
+                }
+            } finally {
+                indexLock.readLock().unlock();
+            }
+            found.addAll(recent);
+            return found;
+        } finally {
+            queryLatency.stop(start);
+        }
+    }
+    
+    private Set<Long> unsealedSequences() {
+        Set<Long> sequences = new HashSet<>();
+        sequences.add(log.getSequence());
+        for (PendingSeal pending : sealing) {
+            sequences.add(pending.log.getSequence());
+        }
+        return sequences;
+    }
+    
+    private static int lastStartingBefore(List<LedgerSegment> list, long timestamp) {
+        int low = 0;
+        int high = list.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (list.get(mid).getMinTime() <= timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+    
+    private static int firstEndingAfter(List<LedgerSegment> list, long timestamp) {
+        int low = 0;
+        int high = list.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (list.get(mid).getMaxTime() < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    public long getSegmentCount() {
+        indexLock.readLock().lock();
+        try {
+            return segments.size();
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+    
+    public long getSizeBytes() {
+        indexLock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (LedgerSegment segment : segments) {
+                bytes += segment.getSize();
+            }
+            return bytes;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+    
+    public long getEntryCount() {
+        long count;
+        Set<Long> unsealed;
+        synchronized (activeLock) {
+            count = active.size();
+            for (PendingSeal pending : sealing) {
+                count += pending.entries.size();
+            }
+            unsealed = unsealedSequences();
+        }
+        indexLock.readLock().lock();
+        try {
+            for (LedgerSegment segment : segments) {
+                if (!unsealed.contains(segment.getSequence())) {
+                    count += segment.getEntryCount();
+                }
+            }
+            return count;
+        } finally {
+            indexLock.readLock().unlock();
+        }
+    }
+    
+    public Map<LedgerSegment.Granularity, Long> getEntryCountByGranularity() {
+        Map<LedgerSegment.Granularity, Long> counts = new TreeMap<>();
+        long unsealedCount;
+        Set<Long> unsealed;
+        synchronized (activeLock) {
+            unsealedCount = active.size();
+            for (PendingSeal pending : sealing) {
+                unsealedCount += pending.entries.size();
+            }
+            unsealed = unsealedSequences();
+        }
+        indexLock.readLock().lock();
+        try {
+            for (LedgerSegment segment : segments) {
+                if (!unsealed.contains(segment.getSequence())) {
+                    counts.merge(segment.getGranularity(), (long) segment.getEntryCount(), Long::sum);
+                }
+            }
+        } finally {
+            indexLock.readLock().unlock();
+        }
+        counts.merge(LedgerSegment.Granularity.RAW, unsealedCount, Long::sum);
+        return counts;
+    }
+    
+    public void flush() throws IOException {
+        synchronized (activeLock) {
+            for (PendingSeal pending : sealing) {
+                pending.log.force();
+            }
+            log.force();
+        }
+    }
+    
+    public void close() {
+        if (background != null) {
+            background.shutdown();
+        }
+        sealer.shutdown();
+        try {
+            sealer.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (maintenanceLock) {
+            sealQuietly();
+            synchronized (activeLock) {
+                try {
+                    log.force();
+                    log.close();
+                } catch (IOException e) {
+                    System.out.println("Warning: Could not close stock ledger: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private static class PendingSeal {
+        private final LedgerLog log;
+        private final List<LedgerEntry> entries;
+        
+        PendingSeal(LedgerLog log, List<LedgerEntry> entries) {
+            this.log = log;
+            this.entries = entries;
+        }
+    }
+    
+    private static class Bucket {
+        private long timestamp;
+        private String category;
+        private int delta;
+        private int quantity;
+    }
+}
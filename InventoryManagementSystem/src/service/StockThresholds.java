@@ -0,0 +1,47 @@
+package service;
+
+import model.Product;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StockThresholds {
+    private volatile int defaultThreshold;
+    private final Map<String, Integer> categoryThresholds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> productThresholds = new ConcurrentHashMap<>();
+    
+    public StockThresholds(int defaultThreshold) {
+        this.defaultThreshold = defaultThreshold;
+    }
+    
+    public int getDefaultThreshold() { return defaultThreshold; }
+    public void setDefaultThreshold(int threshold) { this.defaultThreshold = threshold; }
+    
+    public void setCategoryThreshold(String category, int threshold) {
+        categoryThresholds.put(category.toLowerCase(), threshold);
+    }
+    
+    public void clearCategoryThreshold(String category) {
+        categoryThresholds.remove(category.toLowerCase());
+    }
+    
+    public void setProductThreshold(String productId, int threshold) {
+        productThresholds.put(productId, threshold);
+    }
+    
+    public void clearProductThreshold(String productId) {
+        productThresholds.remove(productId);
+    }
+    
+    public int thresholdFor(Product product) {
+        Integer threshold = productThresholds.get(product.getId());
+        if (threshold == null && product.getCategory() != null) {
+            threshold = categoryThresholds.get(product.getCategory().toLowerCase());
+        }
+        return threshold != null ? threshold : defaultThreshold;
+    }
+    
+    public boolean isLow(Product product) {
+        return product.getQuantity() < thresholdFor(product);
+    }
+}
@@ -1,44 +1,73 @@
 package service;
 
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Supplier;
-import util.FileUtil;
+import persistence.CsvPersistence;
+import persistence.MeteredPersistence;
+import persistence.Persistence;
+import persistence.SupplierCodec;
+import util.StripedReadWriteLock;
 import exception.*;
 
 import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
 
 public class SupplierService {
-    private static final String SUPPLIERS_FILE = "data/suppliers.csv";
-    private List<Supplier> suppliers;
+    public static final String SUPPLIERS_FILE = "data/suppliers.csv";
+    private final Map<String, Supplier> suppliers = new LinkedHashMap<>();
+    private final StripedReadWriteLock referenceLocks = new StripedReadWriteLock(64);
+    private final List<ProductService> productServices = new CopyOnWriteArrayList<>();
+    private Persistence<Supplier> persistence;
+    private final LatencyHistogram lookupLatency = MetricsRegistry.getDefault().histogram("supplier.getById");
+    private final Counter addedSuppliers = MetricsRegistry.getDefault().counter("supplier.added");
+    private final Counter deletedSuppliers = MetricsRegistry.getDefault().counter("supplier.deleted");
     
     public SupplierService() {
-        this.suppliers = new ArrayList<>();
+        this(new CsvPersistence<>(SUPPLIERS_FILE, new SupplierCodec()));
+    }
+    
+    public SupplierService(Persistence<Supplier> persistence) {
+        this.persistence = new MeteredPersistence<>(persistence, "supplier");
         loadSuppliers();
+        MetricsRegistry.getDefault().gauge("supplier.count", () -> suppliers.size());
     }
     
     private void loadSuppliers() {
         try {
-            List<String[]> records = FileUtil.readCSV(SUPPLIERS_FILE);
-            for (String[] record : records) {
-                if (record.length >= 5) {
-                    Supplier supplier = new Supplier(
-                        record[0], record[1], record[2], record[3], record[4]
-                    );
-                    suppliers.add(supplier);
-                }
-            }
+            persistence.open(supplier -> suppliers.put(supplier.getId(), supplier), this::snapshotSuppliers);
+            persistence.getLoadErrors().forEach(error ->
+                System.out.println("Warning: Skipped supplier record: " + error));
         } catch (IOException | FileFormatException e) {
             System.out.println("Warning: Could not load suppliers: " + e.getMessage());
         }
     }
     
-    private void saveSuppliers() throws IOException {
-        List<String[]> data = suppliers.stream()
-            .map(Supplier::toCSV)
-            .map(csv -> csv.split(","))
-            .collect(Collectors.toList());
-        FileUtil.writeCSV(SUPPLIERS_FILE, data);
+    private synchronized List<Supplier> snapshotSuppliers() {
+        return new ArrayList<>(suppliers.values());
+    }
+    
+    public void addProductService(ProductService productService) {
+        productServices.add(productService);
+    }
+    
+    public void flush() throws InventoryException {
+        try {
+            persistence.flush();
+        } catch (IOException e) {
+            throw new InventoryException("Failed to save suppliers: " + e.getMessage());
+        }
+    }
+    
+    public void close() {
+        try {
+            persistence.close();
+        } catch (IOException e) {
+            System.out.println("Warning: Could not close supplier storage: " + e.getMessage());
+        }
     }
     
     public void addSupplier(Supplier supplier) throws InventoryException {
@@ -46,26 +75,91 @@ public class SupplierService {
             throw new InventoryException("Supplier ID cannot be empty");
         }
         
-        if (suppliers.stream().anyMatch(s -> s.getId().equals(supplier.getId()))) {
-            throw new InventoryException("Supplier with ID " + supplier.getId() + " already exists");
+        synchronized (this) {
+            if (suppliers.containsKey(supplier.getId())) {
+                throw new InventoryException("Supplier with ID " + supplier.getId() + " already exists");
+            }
+            
+            suppliers.put(supplier.getId(), supplier);
         }
-        
-        suppliers.add(supplier);
+        addedSuppliers.increment();
         try {
-            saveSuppliers();
+            persistence.put(supplier);
         } catch (IOException e) {
             throw new InventoryException("Failed to save supplier: " + e.getMessage());
         }
     }
     
-    public List<Supplier> getAllSuppliers() {
-        return new ArrayList<>(suppliers);
+    List<Lock> referenceLocks(Collection<String> supplierIds) {
+        return referenceLocks.readLocks(supplierIds);
+    }
+    
+    public int deleteSupplier(String id, boolean cascade) throws InventoryException {
+        Lock referenceLock = referenceLocks.writeLock(id);
+        referenceLock.lock();
+        try {
+            synchronized (this) {
+                if (!suppliers.containsKey(id)) {
+                    throw new SupplierNotFoundException("ID: " + id);
+                }
+            }
+            
+            long products = countProducts(id);
+            if (products > 0 && !cascade) {
+                throw new SupplierInUseException(id + " still supplies " + products + " product(s)");
+            }
+            int deletedProducts = 0;
+            if (cascade) {
+                for (ProductService productService : productServices) {
+                    deletedProducts += productService.deleteProductsBySupplier(id);
+                }
+            }
+            
+            synchronized (this) {
+                suppliers.remove(id);
+            }
+            deletedSuppliers.increment();
+            try {
+                persistence.remove(id);
+            } catch (IOException e) {
+                throw new InventoryException("Failed to delete supplier: " + e.getMessage());
+            }
+            return deletedProducts;
+        } finally {
+            referenceLock.unlock();
+        }
+    }
+    
+    public long countProducts(String id) {
+        long products = 0;
+        for (ProductService productService : productServices) {
+            products += productService.countProductsBySupplier(id);
+        }
+        return products;
+    }
+    
+    public synchronized List<Supplier> getAllSuppliers() {
+        return new ArrayList<>(suppliers.values());
+    }
+    
+    public synchronized boolean hasSupplier(String id) {
+        return suppliers.containsKey(id);
+    }
+    
+    public synchronized Supplier findSupplier(String id) {
+        long start = lookupLatency.start();
+        try {
+            return suppliers.get(id);
+        } finally {
+            lookupLatency.stop(start);
+        }
     }
     
     public Supplier getSupplierById(String id) throws InventoryException {
-        return suppliers.stream()
-            .filter(s -> s.getId().equals(id))
-            .findFirst()
-            .orElseThrow(() -> new InventoryException("Supplier not found with ID: " + id));
+        Supplier supplier = findSupplier(id);
+        if (supplier == null) {
+            throw new SupplierNotFoundException("ID: " + id);
+        }
+        return supplier;
     }
-}
+}
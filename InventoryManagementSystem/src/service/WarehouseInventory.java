@@ -0,0 +1,196 @@
+package service;
+
+import exception.InvalidProductException;
+import exception.InventoryException;
+import exception.ProductNotFoundException;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Product;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+public class WarehouseInventory {
+    public static final String WAREHOUSES_DIR = "data/warehouses";
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    
+    private final Map<String, ProductService> shards = new LinkedHashMap<>();
+    private final ForkJoinPool pool;
+    private final LatencyHistogram reportLatency = METRICS.histogram("warehouse.report");
+    
+    public WarehouseInventory(Collection<String> warehouses, Function<String, ProductService> factory) {
+        this(warehouses, factory, ForkJoinPool.commonPool());
+    }
+    
+    public WarehouseInventory(Collection<String> warehouses, Function<String, ProductService> factory,
+                              ForkJoinPool pool) {
+        if (warehouses.isEmpty()) {
+            throw new IllegalArgumentException("At least one warehouse is required");
+        }
+        for (String warehouse : warehouses) {
+            if (!warehouse.matches("[A-Za-z0-9_-]+")) {
+                throw new IllegalArgumentException("Invalid warehouse name: " + warehouse);
+            }
+            if (shards.containsKey(warehouse)) {
+                throw new IllegalArgumentException("Duplicate warehouse: " + warehouse);
+            }
+            shards.put(warehouse, factory.apply(warehouse));
+        }
+        this.pool = pool;
+        METRICS.gauge("warehouse.count", shards::size);
+    }
+    
+    public static List<String> parseNames(String names) {
+        List<String> warehouses = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (!name.trim().isEmpty()) {
+                warehouses.add(name.trim());
+            }
+        }
+        return warehouses;
+    }
+    
+    public static String productsFile(String warehouse) {
+        return WAREHOUSES_DIR + "/" + warehouse + "/products.csv";
+    }
+    
+    public static String metricsPrefix(String warehouse) {
+        return "warehouse." + warehouse;
+    }
+    
+    public Set<String> getWarehouses() {
+        return Collections.unmodifiableSet(shards.keySet());
+    }
+    
+    public boolean hasWarehouse(String warehouse) {
+        return shards.containsKey(warehouse);
+    }
+    
+    public ProductService warehouse(String warehouse) {
+        ProductService shard = shards.get(warehouse);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown warehouse: " + warehouse);
+        }
+        return shard;
+    }
+    
+    public void transferStock(String from, String to, String id, int quantity) throws InventoryException {
+        if (quantity <= 0) {
+            throw new InvalidProductException("Transfer quantity must be positive");
+        }
+        if (from.equals(to)) {
+            throw new InvalidProductException("Source and destination warehouse are the same");
+        }
+        ProductService source = warehouse(from);
+        ProductService target = warehouse(to);
+        Product product = source.searchProductById(id);
+        
+        source.decrementStock(id, quantity);
+        try {
+            try {
+                target.incrementStock(id, quantity);
+            } catch (ProductNotFoundException e) {
+                product.setQuantity(quantity);
+                try {
+                    target.addProduct(product);
+                } catch (InvalidProductException raced) {
+                    target.incrementStock(id, quantity);
+                }
+            }
+        } catch (InventoryException e) {
+            source.incrementStock(id, quantity);
+            throw e;
+        }
+    }
+    
+    public Map<String, Integer> getStockLevels(String id) {
+        Map<String, Integer> levels = new LinkedHashMap<>();
+        for (Map.Entry<String, ProductService> shard : shards.entrySet()) {
+            try {
+                levels.put(shard.getKey(), shard.getValue().searchProductById(id).getQuantity());
+            } catch (ProductNotFoundException e) {
+                // not stocked in this warehouse
+            }
+        }
+        return levels;
+    }
+    
+    public long getProductCount() {
+        long count = 0;
+        for (ProductService shard : shards.values()) {
+            count += shard.getProductCount();
+        }
+        return count;
+    }
+    
+    public double getTotalInventoryValue() {
+        double total = 0;
+        for (double value : getWarehouseValues().values()) {
+            total += value;
+        }
+        return total;
+    }
+    
+    public Map<String, Double> getWarehouseValues() {
+        return query(ProductService::getTotalInventoryValue);
+    }
+    
+    public Map<String, List<Product>> getLowStockProducts(int threshold) {
+        return query(shard -> shard.getLowStockProducts(threshold));
+    }
+    
+    public Map<String, Long> getCategoryWiseCount() {
+        Map<String, Long> merged = new TreeMap<>();
+        for (Map<String, Long> counts : query(ProductService::getCategoryWiseCount).values()) {
+            counts.forEach((category, count) -> merged.merge(category, count, Long::sum));
+        }
+        return merged;
+    }
+    
+    public Map<String, Double> getCategoryWiseValue() {
+        Map<String, Double> merged = new TreeMap<>();
+        for (Map<String, Double> values : query(ProductService::getCategoryWiseValue).values()) {
+            values.forEach((category, value) -> merged.merge(category, value, Double::sum));
+        }
+        return merged;
+    }
+    
+    private <R> Map<String, R> query(Function<ProductService, R> query) {
+        long start = reportLatency.start();
+        try {
+            Map<String, R> results = new LinkedHashMap<>();
+            if (shards.size() == 1) {
+                shards.forEach((warehouse, shard) -> results.put(warehouse, query.apply(shard)));
+                return results;
+            }
+            
+            Map<String, ForkJoinTask<R>> tasks = new LinkedHashMap<>();
+            shards.forEach((warehouse, shard) -> tasks.put(warehouse, pool.submit(() -> query.apply(shard))));
+            tasks.forEach((warehouse, task) -> results.put(warehouse, task.join()));
+            return results;
+        } finally {
+            reportLatency.stop(start);
+        }
+    }
+    
+    public void flush() throws InventoryException {
+        for (ProductService shard : shards.values()) {
+            shard.flush();
+        }
+    }
+    
+    public void close() {
+        for (ProductService shard : shards.values()) {
+            shard.close();
+        }
+    }
+}
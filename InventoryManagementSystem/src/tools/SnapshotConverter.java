@@ -0,0 +1,60 @@
+package tools;
+
+import exception.FileFormatException;
+import persistence.BinarySnapshotFormat;
+import persistence.ProductBinaryFormat;
+import persistence.ProductCodec;
+import persistence.RecordCodec;
+import persistence.SupplierBinaryFormat;
+import persistence.SupplierCodec;
+import util.CsvLoadResult;
+import util.FileUtil;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SnapshotConverter {
+    
+    public static void main(String[] args) {
+        if (args.length != 4 || !(args[0].equalsIgnoreCase("to-binary") || args[0].equalsIgnoreCase("to-csv"))) {
+            System.out.println("Usage: java -cp bin tools.SnapshotConverter <to-binary|to-csv> <products|suppliers> <input> <output>");
+            return;
+        }
+        
+        try {
+            int count;
+            if (args[1].equalsIgnoreCase("products")) {
+                count = convert(args[0], args[2], args[3], new ProductCodec(), new ProductBinaryFormat());
+            } else if (args[1].equalsIgnoreCase("suppliers")) {
+                count = convert(args[0], args[2], args[3], new SupplierCodec(), new SupplierBinaryFormat());
+            } else {
+                System.out.println("? Unknown record type: " + args[1]);
+                return;
+            }
+            System.out.println("? Converted " + count + " " + args[1] + " to " + args[3]);
+        } catch (IOException | FileFormatException e) {
+            System.out.println("? Conversion failed: " + e.getMessage());
+        }
+    }
+    
+    private static <T> int convert(String direction, String input, String output,
+                                   RecordCodec<T> codec, BinarySnapshotFormat<T> format)
+            throws IOException, FileFormatException {
+        if (direction.equalsIgnoreCase("to-binary")) {
+            CsvLoadResult<T> result = FileUtil.loadCSV(input, codec::fromRecord);
+            result.getErrors().forEach(error -> System.out.println("Warning: Skipped record: " + error));
+            format.write(Paths.get(output), result.getRecords());
+            return result.getRecords().size();
+        }
+        
+        List<T> records = format.read(Paths.get(input));
+        List<String[]> data = new ArrayList<>(records.size());
+        for (T record : records) {
+            data.add(codec.toFields(record));
+        }
+        FileUtil.writeCSV(output, data);
+        return records.size();
+    }
+}
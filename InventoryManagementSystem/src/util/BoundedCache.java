@@ -0,0 +1,255 @@
+package util;
+
+import metrics.Counter;
+import metrics.MetricsRegistry;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+public class BoundedCache<K, V> {
+    private static final int WINDOW_PERCENT = 1;
+    
+    public enum Policy {
+        LRU,
+        TINY_LFU;
+        
+        public static Policy parse(String value) {
+            String normalized = value.replace("-", "_");
+            if (normalized.equalsIgnoreCase("tinylfu")) {
+                return TINY_LFU;
+            }
+            for (Policy policy : values()) {
+                if (policy.name().equalsIgnoreCase(normalized)) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown cache policy: " + value);
+        }
+    }
+    
+    private final Policy policy;
+    private final ToIntFunction<V> weigher;
+    private final long windowMaxWeight;
+    private final long mainMaxWeight;
+    private final LinkedHashMap<K, Entry<V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter rejections;
+    private long windowWeight;
+    private long mainWeight;
+    
+    public BoundedCache(long maxWeight, Policy policy, ToIntFunction<V> weigher, String metricsPrefix) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.policy = policy;
+        this.weigher = weigher;
+        this.windowMaxWeight = policy == Policy.TINY_LFU ? Math.max(1, maxWeight * WINDOW_PERCENT / 100) : 0;
+        this.mainMaxWeight = maxWeight - windowMaxWeight;
+        this.sketch = policy == Policy.TINY_LFU ? new FrequencySketch(maxWeight) : null;
+        
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        this.hits = metrics.counter(metricsPrefix + ".hits");
+        this.misses = metrics.counter(metricsPrefix + ".misses");
+        this.evictions = metrics.counter(metricsPrefix + ".evictions");
+        this.rejections = metrics.counter(metricsPrefix + ".rejections");
+        metrics.gauge(metricsPrefix + ".bytes", this::getWeight);
+        metrics.gauge(metricsPrefix + ".entries", this::size);
+    }
+    
+    public synchronized V get(K key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        Entry<V> entry = window.get(key);
+        if (entry == null) {
+            entry = main.get(key);
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+    
+    public synchronized void put(K key, V value) {
+        int weight = weigher.applyAsInt(value);
+        Entry<V> entry = window.get(key);
+        if (entry != null) {
+            windowWeight += weight - entry.weight;
+        } else if ((entry = main.get(key)) != null) {
+            mainWeight += weight - entry.weight;
+        }
+        if (entry != null) {
+            entry.value = value;
+            entry.weight = weight;
+            evictWindow();
+            evictMain();
+            return;
+        }
+        
+        if (policy == Policy.LRU) {
+            main.put(key, new Entry<>(value, weight));
+            mainWeight += weight;
+            evictMain();
+        } else {
+            sketch.increment(key);
+            window.put(key, new Entry<>(value, weight));
+            windowWeight += weight;
+            evictWindow();
+        }
+    }
+    
+    public synchronized void invalidate(K key) {
+        Entry<V> entry = window.remove(key);
+        if (entry != null) {
+            windowWeight -= entry.weight;
+        } else if ((entry = main.remove(key)) != null) {
+            mainWeight -= entry.weight;
+        }
+    }
+    
+    public synchronized void clear() {
+        window.clear();
+        main.clear();
+        windowWeight = 0;
+        mainWeight = 0;
+    }
+    
+    public synchronized long size() {
+        return window.size() + main.size();
+    }
+    
+    public synchronized long getWeight() {
+        return windowWeight + mainWeight;
+    }
+    
+    public long getMaxWeight() {
+        return windowMaxWeight + mainMaxWeight;
+    }
+    
+    public Policy getPolicy() {
+        return policy;
+    }
+    
+    private void evictWindow() {
+        Iterator<Map.Entry<K, Entry<V>>> candidates = window.entrySet().iterator();
+        while (windowWeight > windowMaxWeight && candidates.hasNext()) {
+            Map.Entry<K, Entry<V>> candidate = candidates.next();
+            candidates.remove();
+            windowWeight -= candidate.getValue().weight;
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+    
+    private void admit(K key, Entry<V> candidate) {
+        if (candidate.weight > mainMaxWeight) {
+            rejections.increment();
+            return;
+        }
+        int frequency = sketch.frequency(key);
+        Iterator<Map.Entry<K, Entry<V>>> victims = main.entrySet().iterator();
+        long freed = 0;
+        while (mainWeight - freed + candidate.weight > mainMaxWeight) {
+            Map.Entry<K, Entry<V>> victim = victims.next();
+            if (sketch.frequency(victim.getKey()) >= frequency) {
+                rejections.increment();
+                return;
+            }
+            freed += victim.getValue().weight;
+        }
+        
+        victims = main.entrySet().iterator();
+        while (freed > 0) {
+            Entry<V> victim = victims.next().getValue();
+            victims.remove();
+            freed -= victim.weight;
+            mainWeight -= victim.weight;
+            evictions.increment();
+        }
+        main.put(key, candidate);
+        mainWeight += candidate.weight;
+    }
+    
+    private void evictMain() {
+        Iterator<Entry<V>> victims = main.values().iterator();
+        while (mainWeight > mainMaxWeight && victims.hasNext()) {
+            mainWeight -= victims.next().weight;
+            victims.remove();
+            evictions.increment();
+        }
+    }
+    
+    private static class Entry<V> {
+        private V value;
+        private int weight;
+        
+        Entry(V value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+    
+    private static class FrequencySketch {
+        private static final long RESET_MASK = 0x7777777777777777L;
+        private static final long[] SEEDS = {
+            0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L
+        };
+        
+        private final long[] table;
+        private final int sampleSize;
+        private int additions;
+        
+        FrequencySketch(long maxWeight) {
+            int counters = (int) Math.min(1 << 24, Math.max(1024, maxWeight / 64));
+            table = new long[Integer.highestOneBit(counters - 1) << 1 >>> 4];
+            sampleSize = table.length * 16 * 10 / 4;
+        }
+        
+        int frequency(Object key) {
+            int hash = spread(key.hashCode());
+            int frequency = 15;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int counter = indexOf(hash, i);
+                frequency = Math.min(frequency, (int) (table[counter >>> 4] >>> ((counter & 15) << 2)) & 15);
+            }
+            return frequency;
+        }
+        
+        void increment(Object key) {
+            int hash = spread(key.hashCode());
+            boolean added = false;
+            for (int i = 0; i < SEEDS.length; i++) {
+                int counter = indexOf(hash, i);
+                int shift = (counter & 15) << 2;
+                if (((table[counter >>> 4] >>> shift) & 15) != 15) {
+                    table[counter >>> 4] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions == sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+        
+        private int indexOf(int hash, int depth) {
+            long h = (hash + SEEDS[depth]) * SEEDS[depth];
+            h += h >>> 32;
+            return (int) h & (table.length * 16 - 1);
+        }
+        
+        private static int spread(int hash) {
+            hash = ((hash >>> 16) ^ hash) * 0x45D9F3B;
+            return (hash >>> 16) ^ hash;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package util;
+
+import java.util.List;
+
+public class CsvLoadResult<T> {
+    private final List<T> records;
+    private final List<String> errors;
+    private final ReadStats stats;
+    
+    public CsvLoadResult(List<T> records, List<String> errors, ReadStats stats) {
+        this.records = records;
+        this.errors = errors;
+        this.stats = stats;
+    }
+    
+    public List<T> getRecords() { return records; }
+    
+    public List<String> getErrors() { return errors; }
+    
+    public ReadStats getStats() { return stats; }
+}
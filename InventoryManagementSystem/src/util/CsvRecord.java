@@ -0,0 +1,256 @@
+package util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class CsvRecord {
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    
+    private ByteBuffer buffer;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private boolean[] escaped = new boolean[16];
+    private int count;
+    private int lineNumber;
+    private boolean present;
+    private byte[] scratch = new byte[128];
+    
+    static int recordEnd(ByteBuffer buffer, int from, int to) {
+        if (from < to && buffer.get(from) == '#') {
+            return lineEnd(buffer, from, to);
+        }
+        int i = from;
+        while (i < to) {
+            byte b = buffer.get(i);
+            if (b == '\n') {
+                return i;
+            }
+            if (b == '"' && (i == from || buffer.get(i - 1) == ',')) {
+                i = closingQuote(buffer, i + 1, to);
+                if (i < 0) {
+                    return -1;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+    
+    private static int lineEnd(ByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int closingQuote(ByteBuffer buffer, int i, int to) {
+        while (i < to) {
+            if (buffer.get(i) == '"') {
+                if (i + 1 < to && buffer.get(i + 1) == '"') {
+                    i += 2;
+                    continue;
+                }
+                return i;
+            }
+            i++;
+        }
+        return -1;
+    }
+    
+    int parse(ByteBuffer buffer, int start, int limit, int lineNumber) {
+        this.buffer = buffer;
+        this.lineNumber = lineNumber;
+        this.count = 0;
+        this.present = false;
+        if (start < limit && buffer.get(start) == '#') {
+            return lineEnd(buffer, start, limit);
+        }
+        
+        int i = start;
+        while (true) {
+            if (i < limit && buffer.get(i) == '"') {
+                int fieldStart = ++i;
+                boolean quotes = false;
+                while (i < limit) {
+                    if (buffer.get(i) == '"') {
+                        if (i + 1 < limit && buffer.get(i + 1) == '"') {
+                            quotes = true;
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                addField(fieldStart, i, quotes);
+                while (i < limit) {
+                    byte b = buffer.get(i);
+                    if (b == ',' || b == '\n') {
+                        break;
+                    }
+                    i++;
+                }
+            } else {
+                int fieldStart = i;
+                while (i < limit) {
+                    byte b = buffer.get(i);
+                    if (b == ',' || b == '\n') {
+                        break;
+                    }
+                    i++;
+                }
+                addField(fieldStart, i, false);
+            }
+            if (i >= limit) {
+                finish(start, limit);
+                return -1;
+            }
+            if (buffer.get(i) == '\n') {
+                finish(start, i);
+                return i;
+            }
+            i++;
+        }
+    }
+    
+    private void finish(int start, int end) {
+        int last = count - 1;
+        if (ends[last] == end && end > starts[last] && buffer.get(end - 1) == '\r') {
+            ends[last]--;
+        }
+        if (count == 1) {
+            for (int i = starts[0]; i < ends[0]; i++) {
+                if (buffer.get(i) > ' ') {
+                    present = true;
+                    return;
+                }
+            }
+            present = ends[0] > start && buffer.get(start) == '"';
+            return;
+        }
+        present = true;
+    }
+    
+    boolean isPresent() {
+        return present;
+    }
+    
+    private void addField(int start, int end, boolean quotes) {
+        if (count == starts.length) {
+            starts = Arrays.copyOf(starts, count * 2);
+            ends = Arrays.copyOf(ends, count * 2);
+            escaped = Arrays.copyOf(escaped, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        escaped[count] = quotes;
+        count++;
+    }
+    
+    public int size() {
+        return count;
+    }
+    
+    public int getLineNumber() {
+        return lineNumber;
+    }
+    
+    public String getString(int field) {
+        int length = ends[field] - starts[field];
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(starts[field], scratch, 0, length);
+        String value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        return escaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+    
+    public int getInt(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        if (i == end) {
+            throw new NumberFormatException("Empty integer field at line " + lineNumber);
+        }
+        
+        boolean negative = false;
+        byte first = buffer.get(i);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++i == end) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+        }
+        
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+            }
+        }
+        
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("For input string: \"" + getString(field) + "\"");
+        }
+        return (int) value;
+    }
+    
+    public double getDouble(int field) {
+        int i = starts[field];
+        int end = ends[field];
+        
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        
+        long mantissa = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fraction) {
+                    scale++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return Double.parseDouble(getString(field));
+                }
+            } else if (b == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return Double.parseDouble(getString(field));
+            }
+        }
+        
+        if (digits == 0 || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(getString(field));
+        }
+        double value = mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+    
+    public String[] toArray() {
+        String[] fields = new String[count];
+        for (int i = 0; i < count; i++) {
+            fields[i] = getString(i);
+        }
+        return fields;
+    }
+}
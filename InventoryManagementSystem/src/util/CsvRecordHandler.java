@@ -0,0 +1,9 @@
+package util;
+
+import exception.FileFormatException;
+
+@FunctionalInterface
+public interface CsvRecordHandler {
+    
+    void accept(CsvRecord record) throws FileFormatException;
+}
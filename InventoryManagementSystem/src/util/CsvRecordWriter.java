@@ -0,0 +1,9 @@
+package util;
+
+import java.io.IOException;
+
+@FunctionalInterface
+public interface CsvRecordWriter<T> {
+    
+    void write(T record, CsvWriter out) throws IOException;
+}
@@ -0,0 +1,177 @@
+package util;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+public class CsvSnapshot {
+    public static final String HEADER = "#snapshot=1";
+    public static final String TRAILER_PREFIX = "#crc32=";
+    private static final int TRAILER_PROBE = 128;
+    private static final long VERIFY_WINDOW = 64L * 1024 * 1024;
+    
+    public enum Status {
+        VALID,
+        UNVERIFIED,
+        CORRUPT,
+        MISSING
+    }
+    
+    public static <T> long write(Path file, Collection<T> records, CsvRecordWriter<T> recordWriter,
+                                 int backups) throws IOException {
+        Path temp = Paths.get(file + ".tmp");
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        
+        long bytes;
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(stream, new CRC32());
+            Writer writer = new OutputStreamWriter(checked, StandardCharsets.UTF_8);
+            writer.write(HEADER + "\n");
+            CsvWriter csv = new CsvWriter(writer);
+            for (T record : records) {
+                recordWriter.write(record, csv);
+            }
+            csv.flush();
+            bytes = stream.getChannel().position();
+            writer.write(TRAILER_PREFIX + String.format("%08x", checked.getChecksum().getValue())
+                + ",records=" + records.size() + ",bytes=" + bytes + "\n");
+            writer.flush();
+            bytes = stream.getChannel().position();
+            stream.getFD().sync();
+        }
+        
+        rotate(file, backups);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(file);
+        return bytes;
+    }
+    
+    private static void rotate(Path file, int backups) throws IOException {
+        if (backups <= 0 || !Files.exists(file)) {
+            return;
+        }
+        for (int i = backups - 1; i >= 1; i--) {
+            Path older = backup(file, i);
+            if (Files.exists(older)) {
+                Files.move(older, backup(file, i + 1), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        Files.move(file, backup(file, 1), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    private static void syncDirectory(Path file) {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // directories cannot be opened for sync on every platform
+        }
+    }
+    
+    public static Path backup(Path file, int generation) {
+        return Paths.get(file + "." + generation);
+    }
+    
+    public static Path selectReadable(Path file, int backups) throws IOException {
+        Status status = verify(file);
+        if (status == Status.VALID || status == Status.UNVERIFIED) {
+            return file;
+        }
+        
+        for (int i = 1; i <= backups; i++) {
+            Path candidate = backup(file, i);
+            Status candidateStatus = verify(candidate);
+            if (candidateStatus == Status.VALID || candidateStatus == Status.UNVERIFIED) {
+                System.out.println("Warning: " + file + (status == Status.MISSING ? " is missing" : " failed its checksum")
+                    + ", loading backup " + candidate);
+                return candidate;
+            }
+        }
+        
+        if (status == Status.CORRUPT) {
+            System.out.println("Warning: " + file + " failed its checksum and no valid backup exists, loading it anyway");
+        }
+        return file;
+    }
+    
+    public static Status verify(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return Status.MISSING;
+        }
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int probe = (int) Math.min(TRAILER_PROBE, size);
+            ByteBuffer tail = ByteBuffer.allocate(probe);
+            while (tail.hasRemaining()) {
+                if (channel.read(tail, size - probe + tail.position()) < 0) {
+                    break;
+                }
+            }
+            
+            int end = probe;
+            while (end > 0 && (tail.get(end - 1) == '\n' || tail.get(end - 1) == '\r')) {
+                end--;
+            }
+            int start = end;
+            while (start > 0 && tail.get(start - 1) != '\n') {
+                start--;
+            }
+            String last = new String(tail.array(), start, end - start, StandardCharsets.UTF_8);
+            if (!last.startsWith(TRAILER_PREFIX)) {
+                return hasHeader(channel) ? Status.CORRUPT : Status.UNVERIFIED;
+            }
+            
+            long expectedCrc;
+            long expectedBytes;
+            try {
+                String[] fields = last.substring(TRAILER_PREFIX.length()).split(",");
+                expectedCrc = Long.parseLong(fields[0], 16);
+                expectedBytes = Long.parseLong(fields[2].substring(fields[2].indexOf('=') + 1));
+            } catch (RuntimeException e) {
+                return Status.CORRUPT;
+            }
+            if (expectedBytes != size - probe + start) {
+                return Status.CORRUPT;
+            }
+            return checksum(channel, expectedBytes) == expectedCrc ? Status.VALID : Status.CORRUPT;
+        }
+    }
+    
+    private static boolean hasHeader(FileChannel channel) throws IOException {
+        byte[] expected = (HEADER + "\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer head = ByteBuffer.allocate(expected.length);
+        while (head.hasRemaining()) {
+            if (channel.read(head, head.position()) < 0) {
+                return false;
+            }
+        }
+        return Arrays.equals(head.array(), expected);
+    }
+    
+    private static long checksum(FileChannel channel, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        long position = 0;
+        while (position < length) {
+            long window = Math.min(VERIFY_WINDOW, length - position);
+            crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position, window));
+            position += window;
+        }
+        return crc.getValue();
+    }
+}
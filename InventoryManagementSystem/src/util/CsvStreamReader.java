@@ -0,0 +1,65 @@
+package util;
+
+import exception.FileFormatException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class CsvStreamReader {
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    
+    public static ReadStats read(InputStream in, CsvRecordHandler handler) throws IOException, FileFormatException {
+        long start = System.nanoTime();
+        long bytes = 0;
+        long records = 0;
+        byte[] data = new byte[BUFFER_SIZE];
+        int length = 0;
+        CsvRecord record = new CsvRecord();
+        int lineNumber = 0;
+        
+        while (true) {
+            int read = in.readNBytes(data, length, data.length - length);
+            length += read;
+            bytes += read;
+            boolean last = length < data.length;
+            ByteBuffer buffer = ByteBuffer.wrap(data, 0, length);
+            
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = record.parse(buffer, lineStart, length, lineNumber + 1);
+                if (lineEnd < 0) {
+                    if (!last) {
+                        break;
+                    }
+                    lineEnd = length;
+                }
+                
+                lineNumber++;
+                if (record.isPresent()) {
+                    handler.accept(record);
+                    records++;
+                }
+                lineStart = lineEnd + 1;
+            }
+            
+            if (last) {
+                break;
+            }
+            if (lineStart == 0) {
+                if (data.length >= MAX_RECORD_SIZE) {
+                    throw new FileFormatException("Line " + (lineNumber + 1) + " is longer than " + MAX_RECORD_SIZE + " bytes");
+                }
+                data = Arrays.copyOf(data, data.length * 2);
+            } else {
+                int consumed = Math.min(lineStart, length);
+                System.arraycopy(data, consumed, data, 0, length - consumed);
+                length -= consumed;
+            }
+        }
+        
+        return new ReadStats(bytes, records, System.nanoTime() - start);
+    }
+}
@@ -0,0 +1,172 @@
+package util;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+public class CsvWriter implements Flushable, Closeable {
+    private final Writer out;
+    private char[] buffer;
+    private int length;
+    private boolean recordStart = true;
+    
+    public CsvWriter(Writer out) {
+        this.out = out;
+        this.buffer = new char[1 << 16];
+    }
+    
+    public CsvWriter() {
+        this.out = null;
+        this.buffer = new char[128];
+    }
+    
+    public static String toLine(String... fields) {
+        CsvWriter writer = new CsvWriter();
+        try {
+            for (String field : fields) {
+                writer.writeField(field);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+    
+    public CsvWriter writeField(String value) throws IOException {
+        separator();
+        String text = String.valueOf(value);
+        if (!needsQuotes(text)) {
+            append(text);
+            return this;
+        }
+        
+        ensure(text.length() * 2 + 2);
+        buffer[length++] = '"';
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                buffer[length++] = '"';
+            }
+            buffer[length++] = c;
+        }
+        buffer[length++] = '"';
+        return this;
+    }
+    
+    public CsvWriter writeField(int value) throws IOException {
+        separator();
+        if (value == Integer.MIN_VALUE) {
+            append(String.valueOf(value));
+            return this;
+        }
+        
+        ensure(11);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (int rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1; i >= length; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+        return this;
+    }
+    
+    public CsvWriter writeField(double value) throws IOException {
+        separator();
+        append(String.valueOf(value));
+        return this;
+    }
+    
+    public CsvWriter writeRecord(String... fields) throws IOException {
+        for (String field : fields) {
+            writeField(field);
+        }
+        return endRecord();
+    }
+    
+    public CsvWriter endRecord() throws IOException {
+        ensure(1);
+        buffer[length++] = '\n';
+        recordStart = true;
+        return this;
+    }
+    
+    static boolean needsQuotes(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        char first = value.charAt(0);
+        if (first == '#' || first == '"') {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void separator() throws IOException {
+        if (recordStart) {
+            recordStart = false;
+        } else {
+            ensure(1);
+            buffer[length++] = ',';
+        }
+    }
+    
+    private void append(String text) throws IOException {
+        ensure(text.length());
+        text.getChars(0, text.length(), buffer, length);
+        length += text.length();
+    }
+    
+    private void ensure(int chars) throws IOException {
+        if (length + chars <= buffer.length) {
+            return;
+        }
+        if (out != null) {
+            drain();
+        }
+        if (chars > buffer.length - length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + chars));
+        }
+    }
+    
+    private void drain() throws IOException {
+        out.write(buffer, 0, length);
+        length = 0;
+    }
+    
+    @Override
+    public void flush() throws IOException {
+        if (out != null) {
+            drain();
+            out.flush();
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (out != null) {
+            flush();
+            out.close();
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+}
@@ -2,47 +2,93 @@ package util;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Function;
 import exception.FileFormatException;
+import metrics.Counter;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 
 public class FileUtil {
+    private static final MetricsRegistry METRICS = MetricsRegistry.getDefault();
+    private static final LatencyHistogram READ_LATENCY = METRICS.histogram("csv.read");
+    private static final LatencyHistogram WRITE_LATENCY = METRICS.histogram("csv.write");
+    private static final Counter BYTES_READ = METRICS.counter("csv.bytesRead");
+    private static final Counter BYTES_WRITTEN = METRICS.counter("csv.bytesWritten");
+    public static final int SNAPSHOT_BACKUPS = Integer.getInteger("inventory.snapshot.backups", 2);
     
     public static List<String[]> readCSV(String filename) throws IOException, FileFormatException {
         List<String[]> records = new ArrayList<>();
-        File file = new File(filename);
+        streamCSV(filename, record -> records.add(record.toArray()));
+        return records;
+    }
+    
+    public static ReadStats streamCSV(String filename, CsvRecordHandler handler) throws IOException, FileFormatException {
+        return streamCSV(filename, handler, 0);
+    }
+    
+    public static ReadStats streamCSV(String filename, CsvRecordHandler handler, int backups)
+            throws IOException, FileFormatException {
+        File file = CsvSnapshot.selectReadable(new File(filename).toPath(), backups).toFile();
         
         if (!file.exists()) {
-            file.getParentFile().mkdirs();
-            file.createNewFile();
-            return records;
+            createEmpty(file);
+            return new ReadStats(0, 0, 0);
         }
         
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            int lineNumber = 0;
-            
-            while ((line = reader.readLine()) != null) {
-                lineNumber++;
-                if (line.trim().isEmpty()) continue;
-                
-                String[] fields = line.split(",");
-                if (fields.length < 2) {
-                    throw new FileFormatException("Invalid CSV format at line " + lineNumber);
-                }
-                records.add(fields);
-            }
+        long start = READ_LATENCY.start();
+        ReadStats stats = MappedCsvReader.read(file.toPath(), handler);
+        READ_LATENCY.stop(start);
+        BYTES_READ.add(stats.getBytes());
+        return stats;
+    }
+    
+    public static <T> CsvLoadResult<T> loadCSV(String filename, Function<CsvRecord, T> parser) throws IOException {
+        return loadCSV(filename, parser, 0);
+    }
+    
+    public static <T> CsvLoadResult<T> loadCSV(String filename, Function<CsvRecord, T> parser, int backups)
+            throws IOException {
+        File file = CsvSnapshot.selectReadable(new File(filename).toPath(), backups).toFile();
+        
+        if (!file.exists()) {
+            createEmpty(file);
+            return new CsvLoadResult<>(new ArrayList<>(), new ArrayList<>(), new ReadStats(0, 0, 0));
         }
         
-        return records;
+        long start = READ_LATENCY.start();
+        CsvLoadResult<T> result = ParallelCsvReader.read(file.toPath(), parser);
+        READ_LATENCY.stop(start);
+        BYTES_READ.add(result.getStats().getBytes());
+        return result;
     }
     
-    public static void writeCSV(String filename, List<String[]> data) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filename))) {
-            for (String[] record : data) {
-                writer.write(String.join(",", record));
-                writer.newLine();
-            }
+    private static void createEmpty(File file) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
         }
+        file.createNewFile();
+    }
+    
+    public static void writeCSV(String filename, List<String[]> data) throws IOException {
+        writeCSV(filename, data, SNAPSHOT_BACKUPS);
+    }
+    
+    public static void writeCSV(String filename, List<String[]> data, int backups) throws IOException {
+        writeCSV(filename, data, (fields, out) -> out.writeRecord(fields), backups);
+    }
+    
+    public static <T> void writeCSV(String filename, Collection<T> records, CsvRecordWriter<T> writer) throws IOException {
+        writeCSV(filename, records, writer, SNAPSHOT_BACKUPS);
+    }
+    
+    public static <T> void writeCSV(String filename, Collection<T> records, CsvRecordWriter<T> writer,
+                                    int backups) throws IOException {
+        long start = WRITE_LATENCY.start();
+        long bytes = CsvSnapshot.write(new File(filename).toPath(), records, writer, backups);
+        WRITE_LATENCY.stop(start);
+        BYTES_WRITTEN.add(bytes);
     }
     
     public static void appendToCSV(String filename, String data) throws IOException {
@@ -0,0 +1,75 @@
+package util;
+
+import exception.FileFormatException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class MappedCsvReader {
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+    private static final long MAP_THRESHOLD = 4L * 1024 * 1024;
+    
+    public static ReadStats read(Path file, CsvRecordHandler handler) throws IOException, FileFormatException {
+        long start = System.nanoTime();
+        long records = 0;
+        long size;
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            CsvRecord record = new CsvRecord();
+            int lineNumber = 0;
+            long position = 0;
+            
+            while (position < size) {
+                int length = (int) Math.min(WINDOW_SIZE, size - position);
+                boolean lastWindow = position + length == size;
+                ByteBuffer buffer = window(channel, position, length, size);
+                
+                int lineStart = 0;
+                while (lineStart < length) {
+                    int lineEnd = record.parse(buffer, lineStart, length, lineNumber + 1);
+                    if (lineEnd < 0) {
+                        if (!lastWindow) {
+                            break;
+                        }
+                        lineEnd = length;
+                    }
+                    
+                    lineNumber++;
+                    if (record.isPresent()) {
+                        if (record.size() < 2) {
+                            throw new FileFormatException("Invalid CSV format at line " + lineNumber);
+                        }
+                        handler.accept(record);
+                        records++;
+                    }
+                    lineStart = lineEnd + 1;
+                }
+                
+                if (lineStart == 0) {
+                    throw new FileFormatException("Line " + (lineNumber + 1) + " is longer than " + WINDOW_SIZE + " bytes");
+                }
+                position += Math.min(lineStart, length);
+            }
+        }
+        
+        return new ReadStats(size, records, System.nanoTime() - start);
+    }
+    
+    static ByteBuffer window(FileChannel channel, long position, int length, long size) throws IOException {
+        if (size > MAP_THRESHOLD) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                break;
+            }
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,213 @@
+package util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+public class ParallelCsvReader {
+    private static final long MIN_CHUNK_SIZE = 1L << 20;
+    private static final long MAX_CHUNK_SIZE = 256L << 20;
+    private static final long SCAN_WINDOW = 64L << 20;
+    
+    public static <T> CsvLoadResult<T> read(Path file, Function<CsvRecord, T> parser) throws IOException {
+        return read(file, parser, ForkJoinPool.commonPool());
+    }
+    
+    public static <T> CsvLoadResult<T> read(Path file, Function<CsvRecord, T> parser, ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime();
+        
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkSize = chunkSize(size, pool.getParallelism());
+            List<Chunk<T>> chunks = parseAll(channel, size, split(channel, size, chunkSize), parser, pool);
+            if (chunks.stream().anyMatch(chunk -> chunk.misaligned)) {
+                chunks = parseAll(channel, size, splitQuoted(channel, size, chunkSize), parser, pool);
+            }
+            
+            int total = 0;
+            for (Chunk<T> chunk : chunks) {
+                total += chunk.records.size();
+            }
+            List<T> records = new ArrayList<>(total);
+            List<String> errors = new ArrayList<>();
+            int lineOffset = 0;
+            for (Chunk<T> chunk : chunks) {
+                records.addAll(chunk.records);
+                for (int i = 0; i < chunk.errorLines.size(); i++) {
+                    errors.add(chunk.errorMessages.get(i) + " at line " + (lineOffset + chunk.errorLines.get(i)));
+                }
+                lineOffset += chunk.lines;
+            }
+            
+            return new CsvLoadResult<>(records, errors, new ReadStats(size, total, System.nanoTime() - start));
+        }
+    }
+    
+    private static long chunkSize(long size, int parallelism) {
+        long target = size / Math.max(1, parallelism * 4L);
+        return Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, target));
+    }
+    
+    private static <T> List<Chunk<T>> parseAll(FileChannel channel, long size, List<Long> boundaries,
+                                              Function<CsvRecord, T> parser, ForkJoinPool pool) throws IOException {
+        List<Chunk<T>> chunks = new ArrayList<>();
+        if (boundaries.size() == 2) {
+            chunks.add(parseChunk(channel, 0, size, size, parser));
+            return chunks;
+        }
+        
+        List<ForkJoinTask<Chunk<T>>> tasks = new ArrayList<>();
+        for (int i = 0; i + 1 < boundaries.size(); i++) {
+            long from = boundaries.get(i);
+            long to = boundaries.get(i + 1);
+            tasks.add(pool.submit(() -> parseChunk(channel, from, to, size, parser)));
+        }
+        for (ForkJoinTask<Chunk<T>> task : tasks) {
+            try {
+                chunks.add(task.join());
+            } catch (UncheckedIOException e) {
+                throw ioCause(e);
+            }
+        }
+        return chunks;
+    }
+    
+    private static List<Long> split(FileChannel channel, long size, long chunkSize) throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = chunkSize;
+        while (position < size) {
+            long boundary = nextLineStart(channel, position, size, probe);
+            if (boundary >= size) {
+                break;
+            }
+            boundaries.add(boundary);
+            position = boundary + chunkSize;
+        }
+        boundaries.add(size);
+        return boundaries;
+    }
+    
+    private static long nextLineStart(FileChannel channel, long position, long size, ByteBuffer probe) throws IOException {
+        while (position < size) {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+    
+    private static List<Long> splitQuoted(FileChannel channel, long size, long chunkSize) throws IOException {
+        List<Long> boundaries = new ArrayList<>();
+        boundaries.add(0L);
+        
+        long target = chunkSize;
+        long position = 0;
+        while (target < size) {
+            int length = (int) Math.min(SCAN_WINDOW, size - position);
+            ByteBuffer window = MappedCsvReader.window(channel, position, length, size);
+            int from = 0;
+            while (target < size) {
+                int end = CsvRecord.recordEnd(window, from, length);
+                if (end < 0) {
+                    break;
+                }
+                from = end + 1;
+                if (position + end >= target) {
+                    long boundary = position + from;
+                    if (boundary < size) {
+                        boundaries.add(boundary);
+                    }
+                    target = boundary + chunkSize;
+                }
+            }
+            if (position + length >= size || from == 0) {
+                break;
+            }
+            position += from;
+        }
+        boundaries.add(size);
+        return boundaries;
+    }
+    
+    private static IOException ioCause(Throwable e) {
+        while (!(e instanceof IOException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e instanceof IOException ? (IOException) e : new IOException(e);
+    }
+    
+    private static <T> Chunk<T> parseChunk(FileChannel channel, long from, long to, long fileSize,
+                                           Function<CsvRecord, T> parser) {
+        ByteBuffer buffer;
+        try {
+            buffer = MappedCsvReader.window(channel, from, (int) (to - from), fileSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        Chunk<T> chunk = new Chunk<>();
+        CsvRecord record = new CsvRecord();
+        int length = (int) (to - from);
+        int lineStart = 0;
+        while (lineStart < length) {
+            chunk.lines++;
+            int lineEnd = record.parse(buffer, lineStart, length, chunk.lines);
+            if (lineEnd < 0) {
+                if (to < fileSize) {
+                    chunk.misaligned = true;
+                    return chunk;
+                }
+                lineEnd = length;
+            }
+            
+            if (record.isPresent()) {
+                if (record.size() < 2) {
+                    chunk.error(chunk.lines, "Invalid CSV format");
+                } else {
+                    try {
+                        T value = parser.apply(record);
+                        if (value != null) {
+                            chunk.records.add(value);
+                        }
+                    } catch (NumberFormatException e) {
+                        chunk.error(chunk.lines, "Invalid number format");
+                    }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return chunk;
+    }
+    
+    private static class Chunk<T> {
+        private final List<T> records = new ArrayList<>();
+        private final List<Integer> errorLines = new ArrayList<>();
+        private final List<String> errorMessages = new ArrayList<>();
+        private int lines;
+        private boolean misaligned;
+        
+        private void error(int line, String message) {
+            errorLines.add(line);
+            errorMessages.add(message);
+        }
+    }
+}
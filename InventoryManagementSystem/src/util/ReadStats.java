@@ -0,0 +1,29 @@
+package util;
+
+public class ReadStats {
+    private final long bytes;
+    private final long records;
+    private final long nanos;
+    
+    public ReadStats(long bytes, long records, long nanos) {
+        this.bytes = bytes;
+        this.records = records;
+        this.nanos = nanos;
+    }
+    
+    public long getBytes() { return bytes; }
+    
+    public long getRecords() { return records; }
+    
+    public long getNanos() { return nanos; }
+    
+    public double getMegabytesPerSecond() {
+        return nanos == 0 ? 0 : (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d records, %.1f MB in %d ms (%.1f MB/s)",
+                records, bytes / (1024.0 * 1024.0), nanos / 1_000_000, getMegabytesPerSecond());
+    }
+}
@@ -0,0 +1,42 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class StripedLock {
+    private final ReentrantLock[] locks;
+    
+    public StripedLock(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+    
+    public Lock get(String key) {
+        return locks[index(key)];
+    }
+    
+    public List<Lock> getAll(Collection<String> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String key : keys) {
+            indexes.add(index(key));
+        }
+        List<Lock> ordered = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            ordered.add(locks[index]);
+        }
+        return ordered;
+    }
+    
+    private int index(String key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return hash & (locks.length - 1);
+    }
+}
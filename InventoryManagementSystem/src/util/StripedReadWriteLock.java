@@ -0,0 +1,47 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class StripedReadWriteLock {
+    private final ReentrantReadWriteLock[] locks;
+    
+    public StripedReadWriteLock(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+    
+    public Lock readLock(String key) {
+        return locks[index(key)].readLock();
+    }
+    
+    public Lock writeLock(String key) {
+        return locks[index(key)].writeLock();
+    }
+    
+    public List<Lock> readLocks(Collection<String> keys) {
+        TreeSet<Integer> indexes = new TreeSet<>();
+        for (String key : keys) {
+            indexes.add(index(key));
+        }
+        List<Lock> ordered = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            ordered.add(locks[index].readLock());
+        }
+        return ordered;
+    }
+    
+    private int index(String key) {
+        int hash = Objects.hashCode(key);
+        hash ^= hash >>> 16;
+        return hash & (locks.length - 1);
+    }
+}
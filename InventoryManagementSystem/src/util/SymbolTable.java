@@ -0,0 +1,50 @@
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SymbolTable {
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] symbols = new String[16];
+    private int size;
+    
+    public int code(String symbol) {
+        if (symbol == null) {
+            return -1;
+        }
+        Integer code = codes.get(symbol);
+        return code != null ? code : add(symbol);
+    }
+    
+    private synchronized int add(String symbol) {
+        Integer code = codes.get(symbol);
+        if (code != null) {
+            return code;
+        }
+        String[] current = symbols;
+        if (size == current.length) {
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = symbol;
+        symbols = current;
+        codes.put(symbol, size);
+        return size++;
+    }
+    
+    public String canonical(String symbol) {
+        return symbol(code(symbol));
+    }
+    
+    public int find(String symbol) {
+        Integer code = symbol == null ? null : codes.get(symbol);
+        return code == null ? -1 : code;
+    }
+    
+    public String symbol(int code) {
+        return code < 0 ? null : symbols[code];
+    }
+    
+    public int size() {
+        return codes.size();
+    }
+}